@@ -0,0 +1,189 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH CSV result with a stored baseline.
+ *
+ * For every benchmark and parameter set the time per call and the bytes
+ * allocated per call (gc.alloc.rate.norm) are listed side by side. A
+ * benchmark regresses if it became slower by more than the threshold
+ * (default {@value #DEFAULT_THRESHOLD} percent) or allocates more bytes
+ * per call; the program then exits with status 1, so that it can fail a
+ * build.
+ *
+ * If the baseline file does not exist yet, or with the option
+ * {@value #UPDATE_OPTION}, the result is stored as the new baseline.
+ * Baselines are only comparable when measured on the same machine.
+ */
+public class FoxHoundBenchmarkBaseline {
+
+    /** Slowdown in percent which counts as a regression if none is specified. */
+    public static final double DEFAULT_THRESHOLD = 10;
+    /** Option storing the result as the new baseline. */
+    public static final String UPDATE_OPTION = "--update";
+    /** Option setting the threshold in percent. */
+    public static final String THRESHOLD_OPTION = "--threshold";
+
+    private static final String ALLOCATION_SUFFIX = "gc.alloc.rate.norm";
+    private static final String USAGE = "Usage: java FoxHoundBenchmarkBaseline <baseline.csv> <result.csv> ["
+        + THRESHOLD_OPTION + " percent] [" + UPDATE_OPTION + "]";
+    private static final String HEADER_MSG = "%-60s %12s %12s %8s %10s %10s%n";
+    private static final String ROW_MSG = "%-60s %12.2f %12.2f %+7.1f%% %10.1f %10.1f%s%n";
+
+    /** Time and allocation of one benchmark with one parameter set. */
+    static final class Measurement {
+        double time = Double.NaN;
+        String unit = "";
+        double allocation = Double.NaN;
+    }
+
+    /**
+     * Read a JMH result in CSV format
+     * @param path result file
+     * @return measurements by benchmark name and parameters, in file order
+     * @throws IOException if the file cannot be read or has no benchmark columns
+     */
+    static Map<String, Measurement> read(Path path) throws IOException
+    {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        if (lines.isEmpty()) throw new IOException("Empty result file: " + path);
+        List<String> header = split(lines.get(0));
+        int benchmark = header.indexOf("Benchmark");
+        int score = header.indexOf("Score");
+        int unit = header.indexOf("Unit");
+        if (benchmark < 0 || score < 0 || unit < 0) throw new IOException("Not a JMH CSV result: " + path);
+
+        Map<String, Measurement> measurements = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.trim().isEmpty()) continue;
+            List<String> cells = split(line);
+            String name = cells.get(benchmark);
+            //Secondary results of profilers are named benchmark:metric
+            int colon = name.indexOf(':');
+            String metric = colon < 0 ? "" : name.substring(colon + 1);
+            StringBuilder key = new StringBuilder(colon < 0 ? name : name.substring(0, colon));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ") && i < cells.size())
+                    key.append(' ').append(header.get(i).substring(7)).append('=').append(cells.get(i));
+            }
+            Measurement measurement = measurements.computeIfAbsent(key.toString(), k -> new Measurement());
+            double value;
+            try {
+                value = Double.parseDouble(cells.get(score));
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid score in " + path + ": " + line);
+            }
+            if (colon < 0)
+            {
+                measurement.time = value;
+                measurement.unit = cells.get(unit);
+            }
+            else if (metric.endsWith(ALLOCATION_SUFFIX))
+            {
+                measurement.allocation = value;
+            }
+        }
+        return measurements;
+    }
+
+    /** Split a CSV line, removing the quotes around cells. */
+    private static List<String> split(String line)
+    {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') quoted = !quoted;
+            else if (c == ',' && !quoted)
+            {
+                cells.add(cell.toString().trim());
+                cell.setLength(0);
+            }
+            else cell.append(c);
+        }
+        cells.add(cell.toString().trim());
+        return cells;
+    }
+
+    /**
+     * Print the comparison of a result with a baseline
+     * @param baseline measurements of the baseline
+     * @param result measurements to check
+     * @param threshold slowdown in percent counting as a regression
+     * @return number of regressions
+     */
+    static int compare(Map<String, Measurement> baseline, Map<String, Measurement> result, double threshold)
+    {
+        int regressions = 0;
+        System.out.printf(HEADER_MSG, "Benchmark", "baseline", "result", "change", "B/op old", "B/op new");
+        for (Map.Entry<String, Measurement> entry : result.entrySet()) {
+            Measurement now = entry.getValue();
+            Measurement old = baseline.get(entry.getKey());
+            if (old == null)
+            {
+                System.out.printf("%-60s %12s %12.2f  (new)%n", entry.getKey(), "-", now.time);
+                continue;
+            }
+            double change = (now.time - old.time) / old.time * 100;
+            boolean slower = change > threshold;
+            //Allocations are deterministic, a fraction of a byte is measurement noise
+            boolean allocates = now.allocation > old.allocation + 0.5;
+            String flag = slower || allocates ? "  REGRESSION" : "";
+            if (!old.unit.equals(now.unit)) flag += "  (units differ: " + old.unit + ", " + now.unit + ")";
+            if (slower || allocates) regressions++;
+            System.out.printf(ROW_MSG, entry.getKey(), old.time, now.time, change, old.allocation, now.allocation, flag);
+        }
+        for (String key : baseline.keySet()) {
+            if (!result.containsKey(key)) System.out.printf("%-60s (missing in result)%n", key);
+        }
+        return regressions;
+    }
+
+    /**
+     * Compare a result with the baseline, or store it as the baseline
+     * @param args baseline file, result file and options
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 2)
+        {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        Path baselinePath = Paths.get(args[0]);
+        Path resultPath = Paths.get(args[1]);
+        double threshold = DEFAULT_THRESHOLD;
+        boolean update = false;
+        try {
+            for (int i = 2; i < args.length; i++) {
+                if (args[i].equals(UPDATE_OPTION)) update = true;
+                else if (args[i].equals(THRESHOLD_OPTION) && i + 1 < args.length) threshold = Double.parseDouble(args[++i]);
+                else throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+
+            Map<String, Measurement> result = read(resultPath);
+            if (update || !Files.exists(baselinePath))
+            {
+                Files.copy(resultPath, baselinePath, StandardCopyOption.REPLACE_EXISTING);
+                System.out.printf("Stored %d benchmarks as the baseline %s%n", result.size(), baselinePath);
+                return;
+            }
+            int regressions = compare(read(baselinePath), result, threshold);
+            System.out.printf("%d regressions (threshold %.1f%%)%n", regressions, threshold);
+            if (regressions > 0) System.exit(1);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+}
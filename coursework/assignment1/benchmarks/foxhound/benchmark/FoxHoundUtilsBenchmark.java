@@ -0,0 +1,227 @@
+package foxhound.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks of the rule API in FoxHoundUtils.
+ *
+ * Every method is measured on the initial position of the dimensions
+ * 4, 8, 16 and 26, in nanoseconds per call. The main method also runs the
+ * gc profiler, so the results include the bytes allocated per call
+ * (gc.alloc.rate.norm), and writes them as CSV for FoxHoundBenchmarkBaseline.
+ *
+ * JMH generates its harness in the package of the benchmark and refuses
+ * the default package, which cannot be imported from any other package.
+ * The rule methods are therefore called through method handles held in
+ * static final fields, which the JIT compiler treats as constants and
+ * inlines like direct calls.
+ *
+ * Compile and run from the assignment folder with the JMH 1.37 jars
+ * (jmh-core, jmh-generator-annprocess, jopt-simple, commons-math3) in lib;
+ * the annotation processor is found on the class path:
+ *
+ *     javac -cp "lib/*" -d bin src/*.java benchmarks/*.java benchmarks/foxhound/benchmark/*.java
+ *     java -cp "bin:lib/*" foxhound.benchmark.FoxHoundUtilsBenchmark result.csv
+ *     java -cp bin FoxHoundBenchmarkBaseline benchmarks/baseline.csv result.csv
+ *
+ * The stored benchmarks/baseline.csv was measured with OpenJDK 17 on one
+ * processor; on another machine, store a new one with the --update option.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FoxHoundUtilsBenchmark {
+
+    /** File the main method writes the results to if none is given. */
+    public static final String DEFAULT_RESULT_FILE = "benchmark-result.csv";
+
+    private static final Class<?> RULES = rules();
+    private static final char HOUND_FIELD = field("HOUND_FIELD");
+    private static final char FOX_FIELD = field("FOX_FIELD");
+    private static final MethodHandle INITIALISE_POSITIONS = method("initialisePositions", String[].class, int.class);
+    private static final MethodHandle GET_COLUMN_NUMBER = method("getColumnNumber", int.class, String.class);
+    private static final MethodHandle GET_ROW_NUMBER = method("getRowNumber", int.class, String.class);
+    private static final MethodHandle GET_POSITION_STRING = method("getPositionString", String.class, int.class, int.class);
+    private static final MethodHandle IS_VALID_MOVE = method("isValidMove", boolean.class,
+        int.class, String[].class, char.class, String.class, String.class);
+    private static final MethodHandle UPDATE_POSITIONS = method("updatePositions", void.class,
+        String[].class, String.class, String.class);
+    private static final MethodHandle IS_FOX_WIN = method("isFoxWin", boolean.class, String.class);
+    private static final MethodHandle IS_HOUND_WIN = method("isHoundWin", boolean.class, String[].class, int.class);
+    private static final MethodHandle CHECK_INPUT_DIMENSION = method("checkInputDimension", boolean.class, int.class, boolean.class);
+    private static final MethodHandle CHECK_INPUT_FIGURE = method("checkInputFigure", boolean.class, char.class, boolean.class);
+    private static final MethodHandle CHECK_INPUT_POSITION = method("checkInputPosition", boolean.class, String.class, boolean.class);
+    private static final MethodHandle CHECK_INPUT_POSITION_LIST = method("checkInputPositionList", boolean.class,
+        String[].class, boolean.class);
+    private static final MethodHandle CHECK_INPUT_DIM_WITH_POSITION_LIST = method("checkInputDimWithPositionList", boolean.class,
+        String[].class, int.class, boolean.class);
+
+    @Param({"4", "8", "16", "26"})
+    public int dimension;
+
+    private String[] players;
+    private String fox;
+    private String foxDestination;
+    private String hound;
+    private String houndDestination;
+    private String occupied;
+
+    /** Rule class in the default package, which is only reachable by name. */
+    private static Class<?> rules()
+    {
+        try {
+            return Class.forName("FoxHoundUtils");
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("FoxHoundUtils is not on the class path", e);
+        }
+    }
+
+    private static char field(String name)
+    {
+        try {
+            return RULES.getField(name).getChar(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("FoxHoundUtils has no field " + name, e);
+        }
+    }
+
+    private static MethodHandle method(String name, Class<?> returnType, Class<?>... parameterTypes)
+    {
+        try {
+            return MethodHandles.publicLookup().findStatic(RULES, name, MethodType.methodType(returnType, parameterTypes));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("FoxHoundUtils has no method " + name, e);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable
+    {
+        players = (String[]) INITIALISE_POSITIONS.invokeExact(dimension);
+        fox = players[players.length - 1];
+        int foxColumn = (int) GET_COLUMN_NUMBER.invokeExact(fox);
+        int foxRow = (int) GET_ROW_NUMBER.invokeExact(fox);
+        foxDestination = (String) GET_POSITION_STRING.invokeExact(foxColumn - 1, foxRow - 1);
+        hound = players[0];
+        int houndColumn = (int) GET_COLUMN_NUMBER.invokeExact(hound);
+        int houndRow = (int) GET_ROW_NUMBER.invokeExact(hound);
+        houndDestination = (String) GET_POSITION_STRING.invokeExact(houndColumn + 1, houndRow + 1);
+        occupied = players[1];
+    }
+
+    @Benchmark
+    public String[] initialisePositions() throws Throwable
+    {
+        return (String[]) INITIALISE_POSITIONS.invokeExact(dimension);
+    }
+
+    @Benchmark
+    public boolean isValidMoveFox() throws Throwable
+    {
+        return (boolean) IS_VALID_MOVE.invokeExact(dimension, players, FOX_FIELD, fox, foxDestination);
+    }
+
+    @Benchmark
+    public boolean isValidMoveHound() throws Throwable
+    {
+        return (boolean) IS_VALID_MOVE.invokeExact(dimension, players, HOUND_FIELD, hound, houndDestination);
+    }
+
+    @Benchmark
+    public boolean isValidMoveOccupied() throws Throwable
+    {
+        return (boolean) IS_VALID_MOVE.invokeExact(dimension, players, HOUND_FIELD, hound, occupied);
+    }
+
+    /** Moves the fox and back, so that every call starts from the same position. */
+    @Benchmark
+    public String[] updatePositionsRoundTrip() throws Throwable
+    {
+        UPDATE_POSITIONS.invokeExact(players, fox, foxDestination);
+        UPDATE_POSITIONS.invokeExact(players, foxDestination, fox);
+        return players;
+    }
+
+    @Benchmark
+    public boolean isFoxWin() throws Throwable
+    {
+        return (boolean) IS_FOX_WIN.invokeExact(fox);
+    }
+
+    @Benchmark
+    public boolean isHoundWin() throws Throwable
+    {
+        return (boolean) IS_HOUND_WIN.invokeExact(players, dimension);
+    }
+
+    @Benchmark
+    public boolean checkInputDimension() throws Throwable
+    {
+        return (boolean) CHECK_INPUT_DIMENSION.invokeExact(dimension, false);
+    }
+
+    @Benchmark
+    public boolean checkInputFigure() throws Throwable
+    {
+        return (boolean) CHECK_INPUT_FIGURE.invokeExact(HOUND_FIELD, false);
+    }
+
+    @Benchmark
+    public boolean checkInputPosition() throws Throwable
+    {
+        return (boolean) CHECK_INPUT_POSITION.invokeExact(fox, false);
+    }
+
+    @Benchmark
+    public boolean checkInputPositionList() throws Throwable
+    {
+        return (boolean) CHECK_INPUT_POSITION_LIST.invokeExact(players, false);
+    }
+
+    @Benchmark
+    public boolean checkInputDimWithPositionList() throws Throwable
+    {
+        return (boolean) CHECK_INPUT_DIM_WITH_POSITION_LIST.invokeExact(players, dimension, false);
+    }
+
+    /**
+     * Run all benchmarks with the gc profiler
+     * @param args optional path of the CSV result file
+     * @throws RunnerException if JMH fails
+     */
+    public static void main(String[] args) throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+            .include(FoxHoundUtilsBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.CSV)
+            .result(args.length > 0 ? args[0] : DEFAULT_RESULT_FILE)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,168 @@
+import java.io.Closeable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Background analysis of the fox hound program.
+ *
+ * While a human thinks about a move, the analyser searches the position
+ * with the iterative deepening of {@link FoxHoundSearch} on one worker
+ * thread which is reused for every position. After every completed depth
+ * the best move and its score are published as a {@link Hint}, which can
+ * be read at any time without waiting for the search. Starting the next
+ * position or {@link #stop} ends the running search within a few
+ * thousand nodes.
+ */
+public class FoxHoundAnalyser implements Closeable {
+
+    /** Longest analysis of one position in milliseconds if none is specified. */
+    public static final long DEFAULT_ANALYSIS_MILLIS = 60000;
+
+    /** Time between two stop requests while waiting for the worker. */
+    private static final long STOP_POLL_MILLIS = 1;
+    private static final String SCORE_MSG = "%s %s (score %d, depth %d)";
+    private static final String WIN_MSG = "%s %s (win in %d plies, depth %d)";
+    private static final String LOSS_MSG = "%s %s (loss in %d plies, depth %d)";
+
+    /** Result of the last completed iteration of an analysis. */
+    public static final class Hint {
+
+        private final int move;
+        private final int score;
+        private final int depth;
+        private final long nodes;
+
+        private Hint(int move, int score, int depth, long nodes)
+        {
+            this.move = move;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+        }
+
+        /** @return packed best move */
+        public int getMove()
+        {
+            return move;
+        }
+
+        /** @return score from the view of the side to move */
+        public int getScore()
+        {
+            return score;
+        }
+
+        /** @return depth of the iteration */
+        public int getDepth()
+        {
+            return depth;
+        }
+
+        /** @return nodes searched until the iteration was completed */
+        public long getNodes()
+        {
+            return nodes;
+        }
+
+        /**
+         * Describe the hint for the player
+         * @param dimension dimension of the analysed board
+         * @return e.g. "E8 D7 (score 35, depth 12)" or "E8 D7 (win in 5 plies, depth 6)"
+         * @throws IllegalArgumentException if the dimension is out of range
+         */
+        public String format(int dimension) throws IllegalArgumentException
+        {
+            String origin = FoxHoundUtils.getMoveOrigin(move, dimension);
+            String destination = FoxHoundUtils.getMoveDestination(move, dimension);
+            if (!FoxHoundSearch.isWinScore(score)) return String.format(SCORE_MSG, origin, destination, score, depth);
+            int plies = FoxHoundSearch.WIN_SCORE - Math.abs(score);
+            return String.format(score > 0 ? WIN_MSG : LOSS_MSG, origin, destination, plies, depth);
+        }
+    }
+
+    private final FoxHoundSearch search;
+    private final long analysisMillis;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "FoxHoundAnalyser");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Hint hint;
+    private Future<?> running;
+
+    /**
+     * Create an analyser with its own transposition table
+     * @param hashMegabytes size of the transposition table in megabytes
+     * @param analysisMillis longest analysis of one position in milliseconds
+     * @throws IllegalArgumentException if the size is out of range or the time is negative
+     */
+    public FoxHoundAnalyser(int hashMegabytes, long analysisMillis) throws IllegalArgumentException
+    {
+        if (analysisMillis < 0) throw new IllegalArgumentException("Analysis time should not be negative");
+        this.search = new FoxHoundSearch(hashMegabytes);
+        this.analysisMillis = analysisMillis;
+        //Runs in the worker thread, the hint is replaced as a whole
+        search.setListener((depth, move, score, nodes) -> hint = new Hint(move, score, depth, nodes));
+    }
+
+    /**
+     * Stop the running analysis and start analysing a position
+     * @param position position to analyse, it is copied
+     * @throws NullPointerException if position is null
+     */
+    public synchronized void start(FoxHoundBoard position) throws NullPointerException
+    {
+        FoxHoundBoard board = position.copy();
+        stop();
+        hint = null;
+        running = worker.submit(() -> search.search(board, analysisMillis));
+    }
+
+    /**
+     * Stop the running analysis and wait until the worker is idle. The last hint is kept.
+     */
+    public synchronized void stop()
+    {
+        if (running == null) return;
+        //The search clears its stop flag when it starts, so the request is repeated until it ended
+        while (!running.isDone()) {
+            search.stop();
+            try {
+                running.get(STOP_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                //Checked again by the loop
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        running = null;
+    }
+
+    /** @return true while a position is analysed */
+    public synchronized boolean isRunning()
+    {
+        return running != null && !running.isDone();
+    }
+
+    /**
+     * Get the best move of the deepest completed iteration
+     * @return the hint, null if no iteration of the current position is completed
+     */
+    public Hint getHint()
+    {
+        return hint;
+    }
+
+    /** Stop the analysis and end the worker thread. */
+    @Override
+    public synchronized void close()
+    {
+        stop();
+        worker.shutdown();
+    }
+}
@@ -0,0 +1,201 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.Objects;
+
+/**
+ * Incremental board display of the fox hound program for ANSI terminals.
+ *
+ * The first board is drawn on a cleared screen. Afterwards the display
+ * keeps the last frame and only moves the cursor to the cells which
+ * changed, normally the origin and destination of the last move, and
+ * rewrites them. The status lines below the board are erased and written
+ * again on every update, and the cursor is left after them so that menus
+ * and prompts follow as usual. On large fancy boards an update is a few
+ * dozen bytes instead of several kilobytes.
+ *
+ * Cells are addressed by absolute screen lines, so the board must never
+ * scroll. The lines below the board are made the scroll region of the
+ * terminal (DECSTBM), so menus, prompts and messages of any length scroll
+ * there while the board stays in place. Only a board which leaves fewer
+ * than {@value #MIN_SCROLL_LINES} lines of the terminal free is drawn
+ * whole on every update, with the status below it. {@link #close} gives
+ * the whole screen back to scrolling.
+ */
+public class FoxHoundAnsiDisplay implements AutoCloseable {
+
+    /** Lines below the board needed for the status, menus and prompts. */
+    public static final int MIN_SCROLL_LINES = 6;
+    /** Terminal height assumed if it cannot be determined. */
+    public static final int DEFAULT_TERMINAL_LINES = 24;
+
+    /** Control sequence introducer. */
+    private static final String CSI = "\033[";
+    /** Clear the screen and move the cursor to the top left corner. */
+    private static final String CLEAR_SCREEN = CSI + "2J" + CSI + "H";
+    /** Erase from the cursor to the end of the screen. */
+    private static final String ERASE_BELOW = CSI + "J";
+    /** Scroll region suffix, the region ends at the last line of the terminal. */
+    private static final String SCROLL_REGION = "r";
+    /** Save the cursor, let the whole screen scroll and restore the cursor, which the reset moves home. */
+    private static final String RESET_SCROLL_REGION = "\0337" + CSI + "r" + "\0338";
+
+    /** Line breaks between the end of the board and the first status line. */
+    private static final String STATUS_GAP = "\n\n";
+
+    private final FoxHoundBoardRenderer renderer;
+    private final PrintStream out;
+    /** Last frame shown on the terminal. */
+    private final char[] shown;
+    /** Terminal line and column of every square, counted from 1. */
+    private final int[] lines;
+    private final int[] columns;
+    /** Terminal line of the first status line. */
+    private final int statusLine;
+    /** True if the lines below the board are the scroll region, false if every update draws the whole board. */
+    private final boolean fixed;
+    private final StringBuilder update = new StringBuilder();
+    private boolean drawn = false;
+
+    /**
+     * Create a display for the terminal the program runs in
+     * @param dimension
+     * @param fancy true for the fancy board with borders, false for the basic board
+     * @param out terminal to write to
+     * @throws IllegalArgumentException if dimension is out of range
+     * @throws NullPointerException if out is null
+     */
+    public FoxHoundAnsiDisplay(int dimension, boolean fancy, PrintStream out) throws IllegalArgumentException, NullPointerException
+    {
+        this(dimension, fancy, out, terminalLines());
+    }
+
+    /**
+     * Create a display
+     * @param dimension
+     * @param fancy true for the fancy board with borders, false for the basic board
+     * @param out terminal to write to
+     * @param terminalLines number of lines of the terminal
+     * @throws IllegalArgumentException if dimension is out of range or terminalLines is not positive
+     * @throws NullPointerException if out is null
+     */
+    public FoxHoundAnsiDisplay(int dimension, boolean fancy, PrintStream out, int terminalLines)
+        throws IllegalArgumentException, NullPointerException
+    {
+        if (terminalLines < 1) throw new IllegalArgumentException("Terminal lines must be positive");
+        this.out = Objects.requireNonNull(out, "Given PrintStream must not be null");
+        this.renderer = new FoxHoundBoardRenderer(dimension, fancy);
+        this.shown = new char[renderer.length()];
+        this.lines = new int[dimension * dimension];
+        this.columns = new int[dimension * dimension];
+
+        //Count lines and columns of the frame once
+        int[] lineOf = new int[renderer.length()];
+        int[] columnOf = new int[renderer.length()];
+        char[] frame = renderer.render(new String[0]);
+        int line = 1;
+        int column = 1;
+        for (int i = 0; i < frame.length; i++) {
+            lineOf[i] = line;
+            columnOf[i] = column++;
+            if (frame[i] == '\n')
+            {
+                line++;
+                column = 1;
+            }
+        }
+        for (int square = 0; square < dimension * dimension; square++) {
+            lines[square] = lineOf[renderer.getCellOffset(square)];
+            columns[square] = columnOf[renderer.getCellOffset(square)];
+        }
+        //Leave one empty line between the board and the status
+        this.statusLine = line + STATUS_GAP.length();
+        this.fixed = statusLine + MIN_SCROLL_LINES - 1 <= terminalLines;
+    }
+
+    /**
+     * Number of lines of the terminal, from the LINES variable or asked from stty
+     * @return number of lines, {@value #DEFAULT_TERMINAL_LINES} if unknown
+     */
+    static int terminalLines()
+    {
+        try {
+            String lines = System.getenv("LINES");
+            if (lines != null) return Math.max(1, Integer.parseInt(lines.trim()));
+        } catch (NumberFormatException e) {
+            //Asked from stty instead
+        }
+        try {
+            Process stty = new ProcessBuilder("sh", "-c", "stty size < /dev/tty").redirectErrorStream(true).start();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stty.getInputStream()))) {
+                String size = reader.readLine();
+                if (stty.waitFor() == 0 && size != null) return Math.max(1, Integer.parseInt(size.trim().split("\\s+")[0]));
+            }
+        } catch (IOException | NumberFormatException e) {
+            //No terminal or no stty
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return DEFAULT_TERMINAL_LINES;
+    }
+
+    /**
+     * Show a board and status lines, writing only the cells which changed since the last board.
+     * The whole board is drawn if it leaves too few lines of the terminal to scroll.
+     * @param players list of players' coordinates, the fox last
+     * @param status lines printed below the board
+     * @return number of characters written to the terminal
+     * @throws NullPointerException if players or a coordinate is null
+     * @throws IllegalArgumentException if a coordinate is invalid or outside the board
+     */
+    public int display(String[] players, String... status) throws NullPointerException, IllegalArgumentException
+    {
+        char[] frame = renderer.render(players);
+        update.setLength(0);
+        if (!drawn || !fixed)
+        {
+            update.append(CLEAR_SCREEN).append(frame);
+            //Setting the region moves the cursor home, the status line is addressed afterwards
+            if (fixed) update.append(CSI).append(statusLine).append(SCROLL_REGION);
+            drawn = true;
+        }
+        else
+        {
+            for (int square = 0; square < lines.length; square++) {
+                int offset = renderer.getCellOffset(square);
+                if (frame[offset] == shown[offset]) continue;
+                update.append(CSI).append(lines[square]).append(';').append(columns[square]).append('H').append(frame[offset]);
+            }
+        }
+        System.arraycopy(frame, 0, shown, 0, frame.length);
+
+        //A board taller than the terminal scrolled, so the status follows it instead of its screen line
+        if (fixed) update.append(CSI).append(statusLine).append(";1H").append(ERASE_BELOW);
+        else update.append(STATUS_GAP);
+        for (String line : status) {
+            if (line != null) update.append(line).append('\n');
+        }
+        out.print(update);
+        out.flush();
+        return update.length();
+    }
+
+    /** Draw the whole screen again on the next update, e.g. after other programs wrote to the terminal. */
+    public void redraw()
+    {
+        drawn = false;
+    }
+
+    /** Let the whole screen scroll again, the cursor stays where it is. The next update draws the whole board. */
+    @Override
+    public void close()
+    {
+        if (fixed && drawn)
+        {
+            out.print(RESET_SCROLL_REGION);
+            out.flush();
+        }
+        drawn = false;
+    }
+}
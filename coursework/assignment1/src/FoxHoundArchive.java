@@ -0,0 +1,705 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An archive of finished fox hound games, read from memory-mapped files.
+ *
+ * The archive file starts with a header of {@value #HEADER_BYTES} bytes:
+ *
+ *     "FHAR", version (1 byte), dimension (1 byte), reserved (2 bytes),
+ *     game count (8 bytes), position of the offset table (8 bytes), reserved (8 bytes)
+ *
+ * followed by one record per game and a table with the file position of
+ * every record (8 bytes each). A record holds the number of plies
+ * (2 bytes), the winner ({@link FoxHoundBoard#ONGOING},
+ * {@link FoxHoundBoard#FOX_WIN} or {@link FoxHoundBoard#HOUND_WIN}), a
+ * flags byte, the start position if it is not the initial one (2 bytes
+ * per figure, the fox last, and the figure to move) and 2 bytes per move:
+ * the origin square shifted by 2 and the direction of the step (bit 0:
+ * column + 1, bit 1: row + 1).
+ *
+ * The position index is a second file with the suffix {@value #INDEX_SUFFIX}:
+ * a header of {@value #INDEX_HEADER_BYTES} bytes ("FHIX", version, 3
+ * reserved bytes, entry count, game count and size of the indexed archive)
+ * and one entry of {@value #INDEX_ENTRY_BYTES}
+ * bytes per position of every game, the Zobrist hash of the position and
+ * the game number shifted by 16 plus the ply, sorted by hash and game. A query is a
+ * binary search in the mapped index, so it touches only a few pages.
+ * Games are written with {@link Writer}, the index with {@link #buildIndex()}.
+ * Writing an archive deletes its index, and an index whose game count or
+ * archive size does not match the archive is ignored, so a stale index
+ * never answers queries.
+ */
+public class FoxHoundArchive implements Closeable {
+
+    /** Magic bytes at the start of every archive file. */
+    public static final String MAGIC = "FHAR";
+    /** Magic bytes at the start of every index file. */
+    public static final String INDEX_MAGIC = "FHIX";
+    /** Version of the archive format. */
+    public static final int VERSION = 1;
+    /** Version of the index format. */
+    public static final int INDEX_VERSION = 2;
+    /** Size of the archive header in bytes. */
+    public static final int HEADER_BYTES = 32;
+    /** Size of the index header in bytes. */
+    public static final int INDEX_HEADER_BYTES = 32;
+    /** Size of one index entry in bytes. */
+    public static final int INDEX_ENTRY_BYTES = 16;
+    /** Suffix of the index file appended to the archive file name. */
+    public static final String INDEX_SUFFIX = ".idx";
+    /** Largest number of plies of one game. */
+    public static final int MAX_PLIES = 0xFFFF;
+
+    private static final String USAGE = "Usage: java FoxHoundArchive <archive> [--index] [--query file]";
+    /** Flag of games which do not start in the initial position. */
+    private static final int CUSTOM_START = 1;
+    /** Bits of the ply inside an index reference. */
+    private static final int PLY_BITS = 16;
+    /** Bytes of a record before the start position and the moves. */
+    private static final int RECORD_HEADER_BYTES = 4;
+    /** Largest record, mappings overlap by this size so that no record is split. */
+    private static final int MAX_RECORD_BYTES = RECORD_HEADER_BYTES + (FoxHoundUtils.MAX_DIM / 2 + 1) * 2 + MAX_PLIES * 2;
+    /** Files are mapped in chunks since one mapping is limited to 2 GB. */
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final int dimension;
+    private final long games;
+    private final long offsets;
+    private final FoxHoundBoard initial;
+    private FileChannel indexChannel;
+    private MappedByteBuffer[] indexChunks;
+    private long indexEntries;
+
+    private FoxHoundArchive(Path path, FileChannel channel, MappedByteBuffer[] chunks, int dimension, long games, long offsets)
+    {
+        this.path = path;
+        this.channel = channel;
+        this.chunks = chunks;
+        this.dimension = dimension;
+        this.games = games;
+        this.offsets = offsets;
+        this.initial = FoxHoundBoard.initial(dimension);
+    }
+
+    /**
+     * Open and map an archive file and its index if it exists and belongs to the archive
+     * @param path path of the archive
+     * @return archive reading the file
+     * @throws IOException if the file cannot be read or is not a valid archive
+     * @throws NullPointerException if path is null
+     */
+    public static FoxHoundArchive open(Path path) throws IOException, NullPointerException
+    {
+        if (path == null) throw new NullPointerException("Path is null");
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = readHeader(channel, HEADER_BYTES, MAGIC, VERSION);
+            int dimension = header.get();
+            header.getShort();
+            long games = header.getLong();
+            long offsets = header.getLong();
+            if (!FoxHoundUtils.checkInputDimension(dimension, false)) throw new IOException("Invalid archive dimension");
+            if (games < 0 || offsets < HEADER_BYTES || channel.size() < offsets + games * Long.BYTES)
+                throw new IOException("Archive file is truncated");
+
+            FoxHoundArchive archive = new FoxHoundArchive(path, channel, map(channel, channel.size(), MAX_RECORD_BYTES),
+                dimension, games, offsets);
+            Path indexPath = indexPath(path);
+            if (Files.exists(indexPath)) archive.openIndex(indexPath);
+            return archive;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Read and check the magic and version of a file header. */
+    private static ByteBuffer readHeader(FileChannel channel, int size, String magic, int version) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(size);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) throw new IOException("Header is truncated");
+        }
+        header.flip();
+        byte[] bytes = new byte[magic.length()];
+        header.get(bytes);
+        if (!magic.equals(new String(bytes, StandardCharsets.US_ASCII))) throw new IOException("Not a " + magic + " file");
+        if (header.get() != version) throw new IOException("Unsupported version");
+        return header;
+    }
+
+    /** Map a file in chunks, each one overlapping the next by the given number of bytes. */
+    private static MappedByteBuffer[] map(FileChannel channel, long size, int overlap) throws IOException
+    {
+        MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            long start = (long) i << CHUNK_SHIFT;
+            long length = Math.min(size - start, (1L << CHUNK_SHIFT) + overlap);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        }
+        return chunks;
+    }
+
+    /** Map an index file, an index of another archive is closed again and not used. */
+    private void openIndex(Path indexPath) throws IOException
+    {
+        FileChannel index = FileChannel.open(indexPath, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = readHeader(index, INDEX_HEADER_BYTES, INDEX_MAGIC, INDEX_VERSION);
+            header.position(8);
+            long entries = header.getLong();
+            long indexedGames = header.getLong();
+            long indexedSize = header.getLong();
+            if (entries < 0 || index.size() < INDEX_HEADER_BYTES + entries * INDEX_ENTRY_BYTES)
+                throw new IOException("Index file is truncated");
+            if (indexedGames != games || indexedSize != channel.size())
+            {
+                //Left behind by an older archive of the same name
+                index.close();
+                return;
+            }
+            //Entries are aligned to their size, so they never cross a chunk border
+            indexChunks = map(index, index.size(), 0);
+            indexChannel = index;
+            indexEntries = entries;
+        } catch (IOException | RuntimeException e) {
+            index.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Path of the index of an archive
+     * @param path path of the archive
+     * @return path with the suffix {@value #INDEX_SUFFIX}
+     */
+    public static Path indexPath(Path path)
+    {
+        return path.resolveSibling(path.getFileName() + INDEX_SUFFIX);
+    }
+
+    /** @return dimension of the archived games */
+    public int getDimension()
+    {
+        return dimension;
+    }
+
+    /** @return number of archived games */
+    public long getGameCount()
+    {
+        return games;
+    }
+
+    /** @return true if the position index is available */
+    public boolean hasIndex()
+    {
+        return indexChunks != null;
+    }
+
+    /** @return number of positions in the index, 0 without index */
+    public long getIndexSize()
+    {
+        return indexEntries;
+    }
+
+    private MappedByteBuffer chunk(MappedByteBuffer[] mapped, long position)
+    {
+        return mapped[(int) (position >>> CHUNK_SHIFT)];
+    }
+
+    private long record(long game)
+    {
+        if (game < 0 || game >= games) throw new IllegalArgumentException("Game number out of range: " + game);
+        long position = offsets + game * Long.BYTES;
+        return chunk(chunks, position).getLong((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Number of plies of a game
+     * @param game number of the game, starting at 0
+     * @return number of moves played
+     * @throws IllegalArgumentException if the game does not exist
+     */
+    public int getPlies(long game) throws IllegalArgumentException
+    {
+        long position = record(game);
+        return chunk(chunks, position).getShort((int) (position & CHUNK_MASK)) & 0xFFFF;
+    }
+
+    /**
+     * Result of a game
+     * @param game number of the game, starting at 0
+     * @return {@link FoxHoundBoard#FOX_WIN}, {@link FoxHoundBoard#HOUND_WIN} or {@link FoxHoundBoard#ONGOING} if it was not finished
+     * @throws IllegalArgumentException if the game does not exist
+     */
+    public int getWinner(long game) throws IllegalArgumentException
+    {
+        long position = record(game);
+        return chunk(chunks, position).get((int) (position & CHUNK_MASK) + 2);
+    }
+
+    /**
+     * Start position of a game
+     * @param game number of the game, starting at 0
+     * @return new board with the start position
+     * @throws IllegalArgumentException if the game does not exist
+     */
+    public FoxHoundBoard getStart(long game) throws IllegalArgumentException
+    {
+        long position = record(game);
+        MappedByteBuffer buffer = chunk(chunks, position);
+        int local = (int) (position & CHUNK_MASK);
+        if ((buffer.get(local + 3) & CUSTOM_START) == 0) return initial.copy();
+
+        FoxHoundBoard board = new FoxHoundBoard(dimension);
+        int figures = dimension / 2 + 1;
+        int start = local + RECORD_HEADER_BYTES;
+        board.setFox(buffer.getShort(start + 2 * (figures - 1)) & 0xFFFF);
+        for (int i = 0; i < figures - 1; i++) board.addHound(buffer.getShort(start + 2 * i) & 0xFFFF);
+        board.setTurn((char) (buffer.get(start + 2 * figures) & 0xFF));
+        return board;
+    }
+
+    /**
+     * Moves of a game
+     * @param game number of the game, starting at 0
+     * @param moves receives the packed moves, at least {@link #getPlies(long)} long
+     * @return number of moves
+     * @throws IllegalArgumentException if the game does not exist
+     */
+    public int getMoves(long game, int[] moves) throws IllegalArgumentException
+    {
+        long position = record(game);
+        MappedByteBuffer buffer = chunk(chunks, position);
+        int local = (int) (position & CHUNK_MASK);
+        int plies = buffer.getShort(local) & 0xFFFF;
+        int first = local + RECORD_HEADER_BYTES + ((buffer.get(local + 3) & CUSTOM_START) == 0 ? 0 : startBytes(dimension));
+        for (int ply = 0; ply < plies; ply++) moves[ply] = decodeMove(buffer.getShort(first + 2 * ply) & 0xFFFF, dimension);
+        return plies;
+    }
+
+    /**
+     * Position of a game after some plies
+     * @param game number of the game, starting at 0
+     * @param ply number of moves played, 0 for the start position
+     * @return new board with the position
+     * @throws IllegalArgumentException if the game or ply does not exist
+     */
+    public FoxHoundBoard getPosition(long game, int ply) throws IllegalArgumentException
+    {
+        int[] moves = new int[getPlies(game)];
+        int plies = getMoves(game, moves);
+        if (ply < 0 || ply > plies) throw new IllegalArgumentException("Ply out of range: " + ply);
+        FoxHoundBoard board = getStart(game);
+        for (int i = 0; i < ply; i++) board.makeMove(moves[i]);
+        return board;
+    }
+
+    /** Bytes of a stored start position: two per figure and the figure to move. */
+    private static int startBytes(int dimension)
+    {
+        return (dimension / 2 + 1) * 2 + 1;
+    }
+
+    /** Store a move in 2 bytes: the origin square and the direction of the step. */
+    private static int encodeMove(int move, int dimension)
+    {
+        int origin = FoxHoundBoard.getMoveOrigin(move);
+        int destination = FoxHoundBoard.getMoveDestination(move);
+        int right = destination % dimension > origin % dimension ? 1 : 0;
+        int down = destination > origin ? 2 : 0;
+        return origin << 2 | down | right;
+    }
+
+    private static int decodeMove(int code, int dimension)
+    {
+        int origin = code >>> 2;
+        int column = (code & 1) == 0 ? -1 : 1;
+        int row = (code & 2) == 0 ? -dimension : dimension;
+        return FoxHoundBoard.packMove(origin, origin + row + column);
+    }
+
+    /**
+     * Find the games which reached a position
+     * @param position position to look up
+     * @param games receives the game numbers, may be shorter than the number of matches
+     * @param plies receives the ply at which each game reached the position
+     * @return number of matches, which may be larger than the arrays
+     * @throws IllegalStateException if the archive has no index
+     * @throws IllegalArgumentException if the position has another dimension
+     */
+    public long find(FoxHoundBoard position, long[] games, int[] plies) throws IllegalStateException, IllegalArgumentException
+    {
+        long first = firstEntry(position);
+        long hash = position.getHash();
+        long count = 0;
+        for (long entry = first; entry < indexEntries && entryHash(entry) == hash; entry++) {
+            if (count < games.length && count < plies.length)
+            {
+                long reference = entryReference(entry);
+                games[(int) count] = reference >>> PLY_BITS;
+                plies[(int) count] = (int) (reference & MAX_PLIES);
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Count the results of the games which reached a position
+     * @param position position to look up
+     * @return number of games by result, indexed by {@link FoxHoundBoard#ONGOING},
+     * {@link FoxHoundBoard#FOX_WIN} and {@link FoxHoundBoard#HOUND_WIN}
+     * @throws IllegalStateException if the archive has no index
+     * @throws IllegalArgumentException if the position has another dimension
+     */
+    public long[] countResults(FoxHoundBoard position) throws IllegalStateException, IllegalArgumentException
+    {
+        long[] results = new long[3];
+        long hash = position.getHash();
+        for (long entry = firstEntry(position); entry < indexEntries && entryHash(entry) == hash; entry++) {
+            results[getWinner(entryReference(entry) >>> PLY_BITS)]++;
+        }
+        return results;
+    }
+
+    /** Binary search for the first index entry with the hash of a position. */
+    private long firstEntry(FoxHoundBoard position)
+    {
+        if (!hasIndex()) throw new IllegalStateException("Archive has no index");
+        if (position.getDimension() != dimension) throw new IllegalArgumentException("Position has another dimension");
+        long hash = position.getHash();
+        long low = 0;
+        long high = indexEntries;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (entryHash(middle) < hash) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    private long entryHash(long entry)
+    {
+        long position = INDEX_HEADER_BYTES + entry * INDEX_ENTRY_BYTES;
+        return chunk(indexChunks, position).getLong((int) (position & CHUNK_MASK));
+    }
+
+    private long entryReference(long entry)
+    {
+        long position = INDEX_HEADER_BYTES + entry * INDEX_ENTRY_BYTES + Long.BYTES;
+        return chunk(indexChunks, position).getLong((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Write the position index of all games and map it.
+     * The entries are sorted in memory, 16 bytes per position
+     * @throws IOException if the index cannot be written
+     * @throws IllegalStateException if the archive has too many positions to sort in memory
+     */
+    public void buildIndex() throws IOException, IllegalStateException
+    {
+        long total = 0;
+        for (long game = 0; game < games; game++) total += getPlies(game) + 1;
+        if (total > Integer.MAX_VALUE - 8) throw new IllegalStateException("Too many positions to index: " + total);
+
+        long[] hashes = new long[(int) total];
+        long[] references = new long[(int) total];
+        int[] moves = new int[MAX_PLIES];
+        int entry = 0;
+        for (long game = 0; game < games; game++) {
+            FoxHoundBoard board = getStart(game);
+            int plies = getMoves(game, moves);
+            for (int ply = 0; ; ply++) {
+                hashes[entry] = board.getHash();
+                references[entry++] = game << PLY_BITS | ply;
+                if (ply == plies) break;
+                board.makeMove(moves[ply]);
+            }
+        }
+        sort(hashes, references, 0, entry - 1);
+
+        closeIndex();
+        Path indexPath = indexPath(path);
+        try (FileChannel index = FileChannel.open(indexPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            buffer.put(INDEX_MAGIC.getBytes(StandardCharsets.US_ASCII)).put((byte) INDEX_VERSION).put(new byte[3]).putLong(entry)
+                .putLong(games).putLong(channel.size());
+            for (int i = 0; i < entry; i++) {
+                if (buffer.remaining() < INDEX_ENTRY_BYTES) drain(index, buffer);
+                buffer.putLong(hashes[i]).putLong(references[i]);
+            }
+            drain(index, buffer);
+            index.force(false);
+        }
+        openIndex(indexPath);
+    }
+
+    /** Write a buffer to a channel and clear it. */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    /** Quicksort of hashes with their references, recursing into the smaller part only. */
+    private static void sort(long[] keys, long[] values, int low, int high)
+    {
+        while (high - low > 16) {
+            int middle = (low + high) >>> 1;
+            long pivotKey = keys[middle];
+            long pivotValue = values[middle];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(keys[i], values[i], pivotKey, pivotValue) < 0) i++;
+                while (compare(keys[j], values[j], pivotKey, pivotValue) > 0) j--;
+                if (i <= j) swap(keys, values, i++, j--);
+            }
+            if (j - low < high - i)
+            {
+                sort(keys, values, low, j);
+                low = i;
+            }
+            else
+            {
+                sort(keys, values, i, high);
+                high = j;
+            }
+        }
+        //Insertion sort of short ranges
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(keys[j - 1], values[j - 1], keys[j], values[j]) > 0; j--) swap(keys, values, j - 1, j);
+        }
+    }
+
+    /** Order of index entries: by hash, then by game and ply. */
+    private static int compare(long key, long value, long otherKey, long otherValue)
+    {
+        int order = Long.compare(key, otherKey);
+        return order != 0 ? order : Long.compare(value, otherValue);
+    }
+
+    private static void swap(long[] keys, long[] values, int i, int j)
+    {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        long value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+    }
+
+    private void closeIndex() throws IOException
+    {
+        if (indexChannel != null) indexChannel.close();
+        indexChannel = null;
+        indexChunks = null;
+        indexEntries = 0;
+    }
+
+    /**
+     * Close the files, the mappings are released by the garbage collector
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try {
+            closeIndex();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writer appending games to a new archive file. Games may be added from
+     * several threads; the header and the offset table are written on close.
+     */
+    public static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final int dimension;
+        private final FoxHoundBoard initial;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+        private long[] offsets = new long[1024];
+        private long games = 0;
+        private long position = HEADER_BYTES;
+
+        private Writer(FileChannel channel, int dimension)
+        {
+            this.channel = channel;
+            this.dimension = dimension;
+            this.initial = FoxHoundBoard.initial(dimension);
+        }
+
+        /**
+         * Create an archive file, replacing an existing one and deleting its index
+         * @param path path of the archive
+         * @param dimension dimension of all games
+         * @return writer of the archive
+         * @throws IOException if the file cannot be created
+         * @throws IllegalArgumentException if dimension is out of range
+         */
+        public static Writer create(Path path, int dimension) throws IOException, IllegalArgumentException
+        {
+            FoxHoundUtils.checkInputDimension(dimension, true);
+            //The index of the replaced archive would refer to games which no longer exist
+            Files.deleteIfExists(indexPath(path));
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            Writer writer = new Writer(channel, dimension);
+            //The header is written on close, when the count is known
+            writer.buffer.put(new byte[HEADER_BYTES]);
+            return writer;
+        }
+
+        /**
+         * Append a game
+         * @param start start position, it is not modified
+         * @param moves packed moves of the game
+         * @param plies number of moves
+         * @param winner result of the game, see {@link FoxHoundArchive#getWinner(long)}
+         * @return number of the game in the archive
+         * @throws IOException if writing fails
+         * @throws IllegalArgumentException if the game has another dimension, too many plies or an illegal move
+         */
+        public synchronized long add(FoxHoundBoard start, int[] moves, int plies, int winner)
+            throws IOException, IllegalArgumentException
+        {
+            if (start.getDimension() != dimension) throw new IllegalArgumentException("Game has another dimension");
+            if (plies < 0 || plies > MAX_PLIES) throw new IllegalArgumentException("Number of plies out of range: " + plies);
+            if (winner < FoxHoundBoard.ONGOING || winner > FoxHoundBoard.HOUND_WIN) throw new IllegalArgumentException("Invalid winner " + winner);
+            boolean custom = !start.equals(initial);
+            int size = RECORD_HEADER_BYTES + (custom ? startBytes(dimension) : 0) + 2 * plies;
+            if (buffer.remaining() < size) drain(channel, buffer);
+
+            int recordStart = buffer.position();
+            buffer.putShort((short) plies).put((byte) winner).put((byte) (custom ? CUSTOM_START : 0));
+            if (custom)
+            {
+                String[] players = start.toPlayers();
+                for (String player : players) {
+                    buffer.putShort((short) start.square(FoxHoundUtils.getColumnNumber(player), FoxHoundUtils.getRowNumber(player)));
+                }
+                buffer.put((byte) start.getTurn());
+            }
+            //Check every move, a broken record would spoil the replay of the whole game
+            FoxHoundBoard board = start.copy();
+            for (int ply = 0; ply < plies; ply++) {
+                int move = moves[ply];
+                if (!board.isValidMove(board.getTurn(), FoxHoundBoard.getMoveOrigin(move), FoxHoundBoard.getMoveDestination(move)))
+                {
+                    buffer.position(recordStart);
+                    throw new IllegalArgumentException("Illegal move at ply " + ply);
+                }
+                board.makeMove(move);
+                buffer.putShort((short) encodeMove(move, dimension));
+            }
+
+            if (games == offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            offsets[(int) games] = position;
+            position += size;
+            return games++;
+        }
+
+        /** @return number of games added */
+        public synchronized long getGameCount()
+        {
+            return games;
+        }
+
+        /**
+         * Write the offset table and the header and close the file
+         * @throws IOException if writing fails
+         */
+        @Override
+        public synchronized void close() throws IOException
+        {
+            try {
+                for (long game = 0; game < games; game++) {
+                    if (buffer.remaining() < Long.BYTES) drain(channel, buffer);
+                    buffer.putLong(offsets[(int) game]);
+                }
+                drain(channel, buffer);
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.put(MAGIC.getBytes(StandardCharsets.US_ASCII)).put((byte) VERSION).put((byte) dimension).putShort((short) 0);
+                header.putLong(games).putLong(position).putLong(0);
+                header.flip();
+                while (header.hasRemaining()) channel.write(header, header.position());
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Build the index of an archive or look up the games of a saved position
+     * @param args archive file and options, see the usage message
+     */
+    public static void main(String[] args)
+    {
+        try {
+            if (args.length < 1) throw new IllegalArgumentException("Missing archive file");
+            boolean index = false;
+            String query = null;
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].equals("--index")) index = true;
+                else if (args[i].equals("--query") && i + 1 < args.length) query = args[++i];
+                else throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+
+            try (FoxHoundArchive archive = open(Paths.get(args[0]))) {
+                System.out.printf("%d games of dimension %d%n", archive.getGameCount(), archive.getDimension());
+                if (index)
+                {
+                    long start = System.nanoTime();
+                    archive.buildIndex();
+                    System.out.printf("Indexed %d positions in %d ms%n", archive.getIndexSize(), (System.nanoTime() - start) / 1000000);
+                }
+                if (query != null)
+                {
+                    int dimension = archive.getDimension();
+                    String[] players = FoxHoundUtils.initialisePositions(dimension);
+                    Path queryPath = Paths.get(query);
+                    char turn = FoxHoundIO.isBinaryPath(queryPath) ? FoxHoundIO.loadGameBinary(players, dimension, queryPath)
+                        : FoxHoundIO.loadGame(players, queryPath);
+                    if (!FoxHoundUtils.checkInputFigure(turn, false)) throw new IllegalArgumentException("Loading " + query + " failed");
+                    FoxHoundBoard position = FoxHoundBoard.fromPlayers(players, dimension, turn);
+
+                    long start = System.nanoTime();
+                    long[] results = archive.countResults(position);
+                    long[] games = new long[10];
+                    int[] plies = new int[10];
+                    long count = archive.find(position, games, plies);
+                    double millis = (System.nanoTime() - start) / 1e6;
+                    System.out.printf("%d games reached the position: %d fox wins, %d hound wins, %d unfinished (%.3f ms)%n",
+                        count, results[FoxHoundBoard.FOX_WIN], results[FoxHoundBoard.HOUND_WIN], results[FoxHoundBoard.ONGOING], millis);
+                    for (int i = 0; i < Math.min(count, games.length); i++) System.out.printf("  game %d ply %d%n", games[i], plies[i]);
+                }
+            }
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+}
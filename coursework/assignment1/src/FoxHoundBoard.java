@@ -0,0 +1,536 @@
+import java.util.Arrays;
+
+/**
+ * A compact bitboard representation of the fox hound game state.
+ *
+ * Squares are numbered row by row starting from A1, i.e.
+ * square = row * dimension + column (all zero-based). The hounds and the
+ * occupied squares are stored as bit masks over these square numbers and
+ * the fox, being a single figure, is stored as its square number. Rule
+ * checks, move generation and win checks work on the masks directly,
+ * so no coordinate strings are parsed or created while evaluating moves.
+ *
+ * Every board keeps a Zobrist hash ({@link FoxHoundZobrist}) which is
+ * updated incrementally on each change.
+ *
+ * Use {@link #fromPlayers(String[], int, char)} and {@link #toPlayers()}
+ * to convert between this representation and the players array used by
+ * {@link FoxHoundUtils}, {@link FoxHoundUI} and {@link FoxHoundIO}.
+ */
+public class FoxHoundBoard {
+
+    /** Number of bits in one mask word. */
+    private static final int WORD_SHIFT = 6;
+    /** Number of bits used to store one square inside a packed move. */
+    public static final int SQUARE_BITS = 10;
+    /** Bit mask to extract one square from a packed move. */
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+    /** Maximum number of squares on a board of maximum dimension. */
+    public static final int MAX_SQUARES = FoxHoundUtils.MAX_DIM * FoxHoundUtils.MAX_DIM;
+    /** Maximum number of moves one side can have in a position (fox: 4, each hound: 2). */
+    public static final int MAX_MOVES = FoxHoundUtils.MAX_DIM / 2 * 2;
+
+    /** Status of a game which is not yet decided. */
+    public static final int ONGOING = 0;
+    /** Status of a game won by the fox. */
+    public static final int FOX_WIN = 1;
+    /** Status of a game won by the hounds. */
+    public static final int HOUND_WIN = 2;
+
+    private final int dimension;
+    private final int houndCount;
+    private final long[] hounds;
+    private final long[] occupied;
+    private final int[] foxNeighbours;
+    private final int[] houndNeighbours;
+    private int fox;
+    private char turn;
+    private long hash;
+
+    /**
+     * Create an empty board of the given dimension with the fox to move.
+     * The fox is placed on square 0 and should be moved with {@link #setFox(int)}.
+     * @param dimension
+     * @throws IllegalArgumentException if dimension is out of range
+     */
+    public FoxHoundBoard(int dimension) throws IllegalArgumentException
+    {
+        FoxHoundUtils.checkInputDimension(dimension, true);
+        this.dimension = dimension;
+        this.houndCount = dimension / 2;
+        int words = ((dimension * dimension - 1) >>> WORD_SHIFT) + 1;
+        this.hounds = new long[words];
+        this.occupied = new long[words];
+        this.foxNeighbours = FoxHoundNeighbours.foxTable(dimension);
+        this.houndNeighbours = FoxHoundNeighbours.houndTable(dimension);
+        this.fox = 0;
+        this.occupied[0] = 1L;
+        this.turn = FoxHoundUtils.FOX_FIELD;
+        this.hash = FoxHoundZobrist.dimension(dimension) ^ FoxHoundZobrist.fox(0);
+    }
+
+    /**
+     * Create a board in the initial game position of the given dimension
+     * @param dimension
+     * @return board with the hounds on the first row, the fox on the last row and the fox to move
+     * @throws IllegalArgumentException if dimension is out of range
+     */
+    public static FoxHoundBoard initial(int dimension) throws IllegalArgumentException
+    {
+        return fromPlayers(FoxHoundUtils.initialisePositions(dimension), dimension, FoxHoundUtils.FOX_FIELD);
+    }
+
+    /**
+     * Convert a players array into a board
+     * @param players list of players' coordinates, the fox last
+     * @param dimension
+     * @param turn figure to move next
+     * @return board holding the given positions
+     * @throws NullPointerException if players is null
+     * @throws IllegalArgumentException if players, dimension or turn are invalid,
+     * a figure is outside the board or two figures share a square
+     */
+    public static FoxHoundBoard fromPlayers(String[] players, int dimension, char turn)
+        throws IllegalArgumentException, NullPointerException
+    {
+        FoxHoundUtils.checkInputDimWithPositionList(players, dimension, true);
+        FoxHoundUtils.checkInputFigure(turn, true);
+
+        FoxHoundBoard board = new FoxHoundBoard(dimension);
+        board.occupied[0] = 0L;
+        board.hash = FoxHoundZobrist.dimension(dimension);
+        for (int i = 0; i < players.length; i++) {
+            int column = FoxHoundUtils.getColumnNumber(players[i]);
+            int row = FoxHoundUtils.getRowNumber(players[i]);
+            if (column >= dimension || row < 0 || row >= dimension)
+                throw new IllegalArgumentException(String.format("Coordinate %s is outside the board", players[i]));
+            int square = row * dimension + column;
+            if (board.isOccupied(square))
+                throw new IllegalArgumentException(String.format("Coordinate %s is occupied twice", players[i]));
+            if (i == players.length - 1)
+            {
+                board.fox = square;
+                board.hash ^= FoxHoundZobrist.fox(square);
+            }
+            else
+            {
+                setBit(board.hounds, square);
+                board.hash ^= FoxHoundZobrist.hound(square);
+            }
+            setBit(board.occupied, square);
+        }
+        board.setTurn(turn);
+        return board;
+    }
+
+    /**
+     * Convert the board into a players array, hounds ordered by square, the fox last
+     * @return new players array
+     */
+    public String[] toPlayers()
+    {
+        String[] players = new String[houndCount + 1];
+        copyToPlayers(players);
+        return players;
+    }
+
+    /**
+     * Write the board into an existing players array, hounds ordered by square, the fox last
+     * @param players array of length dimension / 2 + 1
+     * @throws IllegalArgumentException if the array length does not match the dimension
+     * @throws NullPointerException if players is null
+     */
+    public void copyToPlayers(String[] players) throws IllegalArgumentException, NullPointerException
+    {
+        if (players == null) throw new NullPointerException("The player list is null");
+        if (players.length != houndCount + 1) throw new IllegalArgumentException("Players number does not match the dimension");
+        int index = 0;
+        for (int w = 0; w < hounds.length; w++) {
+            long word = hounds[w];
+            while (word != 0) {
+                int square = (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+                players[index++] = FoxHoundUtils.getPositionString(column(square), row(square));
+                word &= word - 1;
+            }
+        }
+        players[houndCount] = FoxHoundUtils.getPositionString(column(fox), row(fox));
+    }
+
+    /**
+     * Create an independent copy of this board
+     * @return copy of the board
+     */
+    public FoxHoundBoard copy()
+    {
+        FoxHoundBoard board = new FoxHoundBoard(dimension);
+        board.copyFrom(this);
+        return board;
+    }
+
+    /**
+     * Overwrite this board with another board of the same dimension without allocating
+     * @param other board to copy from
+     * @throws IllegalArgumentException if the dimensions differ
+     */
+    public void copyFrom(FoxHoundBoard other) throws IllegalArgumentException
+    {
+        if (other.dimension != dimension) throw new IllegalArgumentException("Boards have different dimensions");
+        System.arraycopy(other.hounds, 0, hounds, 0, hounds.length);
+        System.arraycopy(other.occupied, 0, occupied, 0, occupied.length);
+        fox = other.fox;
+        turn = other.turn;
+        hash = other.hash;
+    }
+
+    /** @return dimension of the board */
+    public int getDimension()
+    {
+        return dimension;
+    }
+
+    /** @return number of hounds on the board */
+    public int getHoundCount()
+    {
+        return houndCount;
+    }
+
+    /** @return square of the fox */
+    public int getFoxSquare()
+    {
+        return fox;
+    }
+
+    /** @return Zobrist hash of the position, including dimension and figure to move */
+    public long getHash()
+    {
+        return hash;
+    }
+
+    /** @return figure to move next */
+    public char getTurn()
+    {
+        return turn;
+    }
+
+    /**
+     * Set the figure to move next
+     * @param turn
+     * @throws IllegalArgumentException if the figure is invalid
+     */
+    public void setTurn(char turn) throws IllegalArgumentException
+    {
+        FoxHoundUtils.checkInputFigure(turn, true);
+        if (this.turn != turn) hash ^= FoxHoundZobrist.houndTurn();
+        this.turn = turn;
+    }
+
+    /**
+     * Move the fox to another square without checking the rules
+     * @param square empty square
+     * @throws IllegalArgumentException if the square is outside the board or occupied
+     */
+    public void setFox(int square) throws IllegalArgumentException
+    {
+        if (!isOnBoard(square) || isOccupied(square)) throw new IllegalArgumentException("Fox square is not available");
+        clearBit(occupied, fox);
+        hash ^= FoxHoundZobrist.fox(fox) ^ FoxHoundZobrist.fox(square);
+        fox = square;
+        setBit(occupied, fox);
+    }
+
+    /**
+     * Add a hound without checking the rules
+     * @param square empty square
+     * @throws IllegalArgumentException if the square is outside the board or occupied
+     */
+    public void addHound(int square) throws IllegalArgumentException
+    {
+        if (!isOnBoard(square) || isOccupied(square)) throw new IllegalArgumentException("Hound square is not available");
+        setBit(hounds, square);
+        setBit(occupied, square);
+        hash ^= FoxHoundZobrist.hound(square);
+    }
+
+    /**
+     * @param column zero-based column number
+     * @param row zero-based row number
+     * @return square number of the coordinate
+     */
+    public int square(int column, int row)
+    {
+        return row * dimension + column;
+    }
+
+    /**
+     * @param square
+     * @return zero-based column number of the square
+     */
+    public int column(int square)
+    {
+        return square % dimension;
+    }
+
+    /**
+     * @param square
+     * @return zero-based row number of the square
+     */
+    public int row(int square)
+    {
+        return square / dimension;
+    }
+
+    /**
+     * @param square
+     * @return true if the square number is on this board
+     */
+    public boolean isOnBoard(int square)
+    {
+        return square >= 0 && square < dimension * dimension;
+    }
+
+    /**
+     * @param square square on the board
+     * @return true if any figure stands on the square
+     */
+    public boolean isOccupied(int square)
+    {
+        return testBit(occupied, square);
+    }
+
+    /**
+     * @param square square on the board
+     * @return true if a hound stands on the square
+     */
+    public boolean isHound(int square)
+    {
+        return testBit(hounds, square);
+    }
+
+    /**
+     * Check if a move is allowed by the rules, regardless of whose turn it is
+     * @param figure figure to be moved
+     * @param origin square of the figure
+     * @param destination square to move to
+     * @return true if the move is valid, false otherwise (including squares outside the board)
+     */
+    public boolean isValidMove(char figure, int origin, int destination)
+    {
+        if (!isOnBoard(origin) || !isOnBoard(destination) || isOccupied(destination)) return false;
+        int rowStep = row(destination) - row(origin);
+        if (Math.abs(column(destination) - column(origin)) != 1) return false;
+        if (figure == FoxHoundUtils.FOX_FIELD) return origin == fox && (rowStep == 1 || rowStep == -1);
+        if (figure == FoxHoundUtils.HOUND_FIELD) return isHound(origin) && rowStep == 1;
+        return false;
+    }
+
+    /**
+     * Play a move for the side to move and pass the turn to the other side.
+     * The move is not checked, use {@link #isValidMove(char, int, int)} or
+     * {@link #generateMoves(int[])} at the calling code.
+     * A fox move can be taken back by playing it in reverse.
+     * @param move packed move
+     */
+    public void makeMove(int move)
+    {
+        int origin = getMoveOrigin(move);
+        int destination = getMoveDestination(move);
+        flipBit(occupied, origin);
+        flipBit(occupied, destination);
+        if (origin == fox)
+        {
+            fox = destination;
+            hash ^= FoxHoundZobrist.fox(origin) ^ FoxHoundZobrist.fox(destination);
+        }
+        else
+        {
+            flipBit(hounds, origin);
+            flipBit(hounds, destination);
+            hash ^= FoxHoundZobrist.hound(origin) ^ FoxHoundZobrist.hound(destination);
+        }
+        turn = turn == FoxHoundUtils.FOX_FIELD ? FoxHoundUtils.HOUND_FIELD : FoxHoundUtils.FOX_FIELD;
+        hash ^= FoxHoundZobrist.houndTurn();
+    }
+
+    /**
+     * Take back a move played with {@link #makeMove(int)}
+     * @param move packed move which was the last one played
+     */
+    public void unmakeMove(int move)
+    {
+        makeMove(packMove(getMoveDestination(move), getMoveOrigin(move)));
+    }
+
+    /**
+     * Generate all legal moves for the side to move
+     * @param moves buffer receiving packed moves, at least {@link #MAX_MOVES} long
+     * @return number of moves written to the buffer
+     */
+    public int generateMoves(int[] moves)
+    {
+        if (turn == FoxHoundUtils.FOX_FIELD) return generateFoxMoves(moves);
+        return generateHoundMoves(moves);
+    }
+
+    /**
+     * Generate all legal fox moves
+     * @param moves buffer receiving packed moves, at least 4 long
+     * @return number of moves written to the buffer
+     */
+    public int generateFoxMoves(int[] moves)
+    {
+        int count = 0;
+        int first = fox * FoxHoundNeighbours.FOX_STEPS;
+        for (int k = first; k < first + FoxHoundNeighbours.FOX_STEPS; k++) {
+            int destination = foxNeighbours[k];
+            if (destination != FoxHoundNeighbours.NONE && !isOccupied(destination)) moves[count++] = packMove(fox, destination);
+        }
+        return count;
+    }
+
+    /**
+     * Generate all legal hound moves
+     * @param moves buffer receiving packed moves, at least {@link #MAX_MOVES} long
+     * @return number of moves written to the buffer
+     */
+    public int generateHoundMoves(int[] moves)
+    {
+        int count = 0;
+        for (int w = 0; w < hounds.length; w++) {
+            long word = hounds[w];
+            while (word != 0) {
+                int square = (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                int first = square * FoxHoundNeighbours.HOUND_STEPS;
+                for (int k = first; k < first + FoxHoundNeighbours.HOUND_STEPS; k++) {
+                    int destination = houndNeighbours[k];
+                    if (destination != FoxHoundNeighbours.NONE && !isOccupied(destination)) moves[count++] = packMove(square, destination);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Count the squares the fox can move to
+     * @return number of legal fox moves (0-4)
+     */
+    public int countFoxMoves()
+    {
+        int count = 0;
+        int first = fox * FoxHoundNeighbours.FOX_STEPS;
+        for (int k = first; k < first + FoxHoundNeighbours.FOX_STEPS; k++) {
+            int destination = foxNeighbours[k];
+            if (destination != FoxHoundNeighbours.NONE && !isOccupied(destination)) count++;
+        }
+        return count;
+    }
+
+    /** @return true if the fox reached the first row */
+    public boolean isFoxWin()
+    {
+        return fox < dimension;
+    }
+
+    /** @return true if the fox cannot move any more */
+    public boolean isHoundWin()
+    {
+        return countFoxMoves() == 0;
+    }
+
+    /**
+     * Decide the status of the game in the same order as the game loop
+     * (fox first, then hounds). Additionally, the hounds lose if it is
+     * their turn and none of them can move.
+     * @return {@link #ONGOING}, {@link #FOX_WIN} or {@link #HOUND_WIN}
+     */
+    public int getStatus()
+    {
+        if (isFoxWin()) return FOX_WIN;
+        if (isHoundWin()) return HOUND_WIN;
+        if (turn == FoxHoundUtils.HOUND_FIELD && !hasHoundMove()) return FOX_WIN;
+        return ONGOING;
+    }
+
+    /** @return true if at least one hound can move */
+    private boolean hasHoundMove()
+    {
+        for (int w = 0; w < hounds.length; w++) {
+            long word = hounds[w];
+            while (word != 0) {
+                int square = (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                int first = square * FoxHoundNeighbours.HOUND_STEPS;
+                for (int k = first; k < first + FoxHoundNeighbours.HOUND_STEPS; k++) {
+                    int destination = houndNeighbours[k];
+                    if (destination != FoxHoundNeighbours.NONE && !isOccupied(destination)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pack a move into one int
+     * @param origin square of the moving figure
+     * @param destination square to move to
+     * @return packed move
+     */
+    public static int packMove(int origin, int destination)
+    {
+        return origin << SQUARE_BITS | destination;
+    }
+
+    /**
+     * @param move packed move
+     * @return origin square of the move
+     */
+    public static int getMoveOrigin(int move)
+    {
+        return move >>> SQUARE_BITS;
+    }
+
+    /**
+     * @param move packed move
+     * @return destination square of the move
+     */
+    public static int getMoveDestination(int move)
+    {
+        return move & SQUARE_MASK;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) return true;
+        if (!(obj instanceof FoxHoundBoard)) return false;
+        FoxHoundBoard other = (FoxHoundBoard) obj;
+        return dimension == other.dimension && fox == other.fox && turn == other.turn
+            && Arrays.equals(hounds, other.hounds);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Long.hashCode(hash);
+    }
+
+    private static boolean testBit(long[] mask, int square)
+    {
+        return (mask[square >>> WORD_SHIFT] & (1L << square)) != 0;
+    }
+
+    private static void setBit(long[] mask, int square)
+    {
+        mask[square >>> WORD_SHIFT] |= 1L << square;
+    }
+
+    private static void clearBit(long[] mask, int square)
+    {
+        mask[square >>> WORD_SHIFT] &= ~(1L << square);
+    }
+
+    private static void flipBit(long[] mask, int square)
+    {
+        mask[square >>> WORD_SHIFT] ^= 1L << square;
+    }
+}
@@ -0,0 +1,196 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+
+/**
+ * Reusable board renderer of the fox hound program.
+ *
+ * The frame of a board (labels, borders and empty cells) only depends on
+ * the dimension and the display style, so it is built once per pair and
+ * kept as a template together with the position of every cell in it. A
+ * renderer copies the template once and afterwards only clears the cells
+ * of the last figures and writes the cells of the new ones, so rendering
+ * a board allocates nothing. The output is the same text as printed by
+ * {@link FoxHoundUI#displayBoard(String[], int)} and
+ * {@link FoxHoundUI#displayBoardFancy(String[], int)}, without the final
+ * line break.
+ *
+ * A renderer keeps its frame between calls and is not thread safe.
+ */
+public class FoxHoundBoardRenderer {
+
+    /** Character of an empty cell of the basic board. */
+    public static final char EMPTY = '.';
+    /** Character of an empty cell of the fancy board. */
+    public static final char EMPTY_FANCY = ' ';
+
+    private static final int BASIC = 0;
+    private static final int FANCY = 1;
+    /** Frame templates by style and dimension. */
+    private static final char[][][] TEMPLATES = new char[2][FoxHoundUtils.MAX_DIM + 1][];
+    /** Position of every square in the template, by style and dimension. */
+    private static final int[][][] CELLS = new int[2][FoxHoundUtils.MAX_DIM + 1][];
+
+    static {
+        for (int dimension = FoxHoundUtils.MIN_DIM; dimension <= FoxHoundUtils.MAX_DIM; dimension++) {
+            for (int style = BASIC; style <= FANCY; style++) {
+                CELLS[style][dimension] = new int[dimension * dimension];
+                TEMPLATES[style][dimension] = buildTemplate(dimension, style == FANCY, CELLS[style][dimension]);
+            }
+        }
+    }
+
+    private final int dimension;
+    private final char empty;
+    private final char[] frame;
+    private final int[] cells;
+    private final CharBuffer view;
+    private final int[] drawn;
+    private int drawnCount;
+
+    /**
+     * Create a renderer
+     * @param dimension
+     * @param fancy true for the fancy board with borders, false for the basic board
+     * @throws IllegalArgumentException if dimension is out of range
+     */
+    public FoxHoundBoardRenderer(int dimension, boolean fancy) throws IllegalArgumentException
+    {
+        FoxHoundUtils.checkInputDimension(dimension, true);
+        int style = fancy ? FANCY : BASIC;
+        this.dimension = dimension;
+        this.empty = fancy ? EMPTY_FANCY : EMPTY;
+        this.frame = TEMPLATES[style][dimension].clone();
+        this.cells = CELLS[style][dimension];
+        this.view = CharBuffer.wrap(frame).asReadOnlyBuffer();
+        this.drawn = new int[dimension * dimension];
+    }
+
+    /** @return dimension of the rendered board */
+    public int getDimension()
+    {
+        return dimension;
+    }
+
+    /** @return number of characters of a rendered board */
+    public int length()
+    {
+        return frame.length;
+    }
+
+    /**
+     * Position of a square in the frame
+     * @param square row * dimension + column
+     * @return index of the cell character in the frame
+     * @throws ArrayIndexOutOfBoundsException if square is outside the board
+     */
+    public int getCellOffset(int square) throws ArrayIndexOutOfBoundsException
+    {
+        return cells[square];
+    }
+
+    /**
+     * Render a board into the frame of this renderer.
+     * Caution: the frame is reused by the next call and must not be modified
+     * @param players list of players' coordinates, the fox last
+     * @return frame holding exactly the rendered board
+     * @throws NullPointerException if players or a coordinate is null
+     * @throws IllegalArgumentException if a coordinate is invalid or outside the board
+     */
+    public char[] render(String[] players) throws NullPointerException, IllegalArgumentException
+    {
+        if (players == null) throw new NullPointerException("Players list is null");
+        //Clear the figures of the last board
+        for (int i = 0; i < drawnCount; i++) frame[cells[drawn[i]]] = empty;
+        drawnCount = 0;
+        for (int i = 0; i < players.length; i++) {
+            String player = players[i];
+            int column = FoxHoundUtils.getColumnNumber(player);
+            int row = FoxHoundUtils.getRowNumber(player);
+            if (column < 0 || row < 0 || column >= dimension || row >= dimension)
+                throw new IllegalArgumentException("Coordinate outside the board: " + player);
+            int square = row * dimension + column;
+            //Later figures cover earlier ones, as on the original board
+            frame[cells[square]] = i == players.length - 1 ? FoxHoundUtils.FOX_FIELD : FoxHoundUtils.HOUND_FIELD;
+            drawn[drawnCount++] = square;
+        }
+        return frame;
+    }
+
+    /**
+     * Render a board and append it to a destination. Writers, string builders
+     * and char buffers receive the frame without intermediate copies
+     * @param players list of players' coordinates, the fox last
+     * @param out destination of the text
+     * @throws IOException if appending fails
+     * @throws NullPointerException if players, a coordinate or out is null
+     * @throws IllegalArgumentException if a coordinate is invalid or outside the board
+     */
+    public void render(String[] players, Appendable out) throws IOException, NullPointerException, IllegalArgumentException
+    {
+        if (out == null) throw new NullPointerException("Destination is null");
+        render(players);
+        if (out instanceof Writer) ((Writer) out).write(frame);
+        else if (out instanceof StringBuilder) ((StringBuilder) out).append(frame);
+        else if (out instanceof CharBuffer) ((CharBuffer) out).put(frame);
+        else
+        {
+            view.clear();
+            out.append(view);
+        }
+    }
+
+    /**
+     * Build the empty frame of a board
+     * @param dimension
+     * @param fancy true for the fancy board
+     * @param cells receives the position of every square in the frame
+     * @return frame characters
+     */
+    private static char[] buildTemplate(int dimension, boolean fancy, int[] cells)
+    {
+        final boolean LEADING_ZERO = dimension > 9;
+        char empty = fancy ? EMPTY_FANCY : EMPTY;
+
+        //Column labels
+        StringBuilder label = new StringBuilder();
+        String padding = fancy ? (LEADING_ZERO ? "     " : "    ") : (LEADING_ZERO ? "   " : "  ");
+        label.append(padding);
+        for (int i = 0; i < dimension; i++) {
+            if (fancy && i > 0) label.append("   ");
+            label.append(FoxHoundUtils.getColumnChar(i));
+        }
+        label.append(padding);
+
+        //Line between rows
+        StringBuilder separator = new StringBuilder("\n");
+        if (fancy)
+        {
+            String fancyPadding = LEADING_ZERO ? "   " : "  ";
+            separator.append(fancyPadding).append('|');
+            for (int i = 0; i < dimension; i++) separator.append(i > 0 ? "|===" : "===");
+            separator.append('|').append(fancyPadding).append('\n');
+        }
+
+        StringBuilder frame = new StringBuilder();
+        frame.append(label).append('\n').append(separator);
+        for (int row = 0; row < dimension; row++) {
+            if (row > 0) frame.append(separator);
+            String rowLabel = (row + 1 < 10 && LEADING_ZERO) ? "0" + (row + 1) : Integer.toString(row + 1);
+            frame.append(rowLabel).append(' ');
+            if (fancy) frame.append("| ");
+            for (int column = 0; column < dimension; column++) {
+                if (fancy && column > 0) frame.append(" | ");
+                cells[row * dimension + column] = frame.length();
+                frame.append(empty);
+            }
+            if (fancy) frame.append(" |");
+            frame.append(' ').append(rowLabel);
+        }
+        frame.append(separator).append('\n').append(label);
+
+        char[] template = new char[frame.length()];
+        frame.getChars(0, frame.length(), template, 0);
+        return template;
+    }
+}
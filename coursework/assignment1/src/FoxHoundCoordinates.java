@@ -0,0 +1,106 @@
+/**
+ * A lookup table of all board coordinates for the fox hound program.
+ *
+ * Every coordinate string from A1 up to the largest board is created once,
+ * so that building a coordinate or parsing one back into its column and
+ * row numbers needs neither formatting nor allocation. Coordinates are
+ * identified by an index of the form row * MAX_DIM + column (zero-based).
+ */
+public class FoxHoundCoordinates {
+
+    /** Number of columns and rows covered by the table. */
+    private static final int SIZE = FoxHoundUtils.MAX_DIM;
+    /** Index returned if a coordinate is not part of the table. */
+    public static final int NOT_FOUND = -1;
+
+    /** All coordinate strings, indexed by row * SIZE + column. */
+    private static final String[] POSITIONS = new String[SIZE * SIZE];
+
+    static {
+        for (int row = 0; row < SIZE; row++) {
+            for (int column = 0; column < SIZE; column++) {
+                POSITIONS[row * SIZE + column] = ((char)('A' + column) + Integer.toString(row + 1)).intern();
+            }
+        }
+    }
+
+    /**
+     * Check if a coordinate is covered by the table
+     * @param columnNumber zero-based column number
+     * @param rowNumber zero-based row number
+     * @return true if both numbers are within 0 and MAX_DIM - 1
+     */
+    public static boolean contains(int columnNumber, int rowNumber)
+    {
+        return columnNumber >= 0 && columnNumber < SIZE && rowNumber >= 0 && rowNumber < SIZE;
+    }
+
+    /**
+     * Get the shared coordinate string of a column and row number.
+     * Caution: check the numbers with {@link #contains(int, int)} at the calling code
+     * @param columnNumber zero-based column number
+     * @param rowNumber zero-based row number
+     * @return coordinate string such as "B3"
+     */
+    public static String getPositionString(int columnNumber, int rowNumber)
+    {
+        return POSITIONS[rowNumber * SIZE + columnNumber];
+    }
+
+    /**
+     * Get the coordinate string stored at an index of the table
+     * @param index table index
+     * @return coordinate string
+     */
+    public static String getPositionString(int index)
+    {
+        return POSITIONS[index];
+    }
+
+    /**
+     * Find the table index of a coordinate string without allocating.
+     * Only the plain form (upper case column label followed by a row number
+     * without sign, e.g. "B3" or "B03") is recognised, anything else is reported
+     * as not found and has to be handled by the calling code.
+     * @param position coordinate string, may be null
+     * @return table index or {@link #NOT_FOUND}
+     */
+    public static int indexOf(String position)
+    {
+        if (position == null) return NOT_FOUND;
+        int length = position.length();
+        if (length < FoxHoundUtils.MIN_POSITION_LENGTH || length > FoxHoundUtils.MAX_POSITION_LENGTH) return NOT_FOUND;
+
+        int column = position.charAt(0) - 'A';
+        if (column < 0 || column >= SIZE) return NOT_FOUND;
+
+        int row = 0;
+        for (int i = 1; i < length; i++) {
+            int digit = position.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return NOT_FOUND;
+            row = row * 10 + digit;
+        }
+        row -= 1;
+        if (row < 0 || row >= SIZE) return NOT_FOUND;
+
+        return row * SIZE + column;
+    }
+
+    /**
+     * @param index table index
+     * @return zero-based column number of the coordinate
+     */
+    public static int getColumnNumber(int index)
+    {
+        return index % SIZE;
+    }
+
+    /**
+     * @param index table index
+     * @return zero-based row number of the coordinate
+     */
+    public static int getRowNumber(int index)
+    {
+        return index / SIZE;
+    }
+}
@@ -1,4 +1,8 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 /** 
@@ -33,6 +37,82 @@ public class FoxHoundGame {
     private static final String FOX_WIN_MSG = "The Fox wins!";
     /** Hound winning msg */
     private static final String HOUND_WIN_MSG = "The Hound wins!";
+    /** Msg printed before the move of a computer player */
+    private static final String COMPUTER_MOVE_MSG = "Computer moves: %s %s (%s)%n";
+    /** Msg printed before a move with the best move of the tablebase */
+    private static final String PERFECT_PLAY_MSG = "Perfect play: %s win in %d plies with %s %s%n";
+    /** Msg printed before a move with the best move of a tablebase without distances */
+    private static final String PERFECT_WINNER_MSG = "Perfect play: %s win with %s %s%n";
+    /** Status line of the ANSI display with the last move */
+    private static final String LAST_MOVE_MSG = "Last move: %s %s %s";
+    /** Msg printed when a game is resumed from the journal */
+    private static final String JOURNAL_RESUME_MSG = "Resumed %d moves from the journal %s%n";
+    /** Error msg if the journal cannot be written */
+    private static final String JOURNAL_ERR_MSG = "ERROR: Writing the journal failed, moves are not recorded any more.";
+    /** Msg printed after a move was taken back or played again */
+    private static final String UNDO_MSG = "%s %s %s%n";
+    /** Error msg if there is no move to take back */
+    private static final String UNDO_ERR_MSG = "ERROR: there is no move to undo.";
+    /** Error msg if there is no move taken back */
+    private static final String REDO_ERR_MSG = "ERROR: there is no move to redo.";
+    /** Msg printed for a hint of the background analysis */
+    private static final String HINT_MSG = "Hint: %s";
+    /** Msg printed for a hint before the analysis completed its first iteration */
+    private static final String NO_HINT_MSG = "No hint yet, ask again in a moment.";
+    /** Msg printed if the computer player cannot move */
+    private static final String COMPUTER_STUCK_MSG = "The Hounds cannot move any more.";
+
+    /** Command line option to let the computer play the fox, the hounds or both. */
+    private static final String COMPUTER_OPTION = "--computer";
+    /** Command line option to set the thinking time of the computer in milliseconds. */
+    private static final String TIME_OPTION = "--time";
+    /** Command line option to set the transposition table size of the computer in megabytes. */
+    private static final String HASH_OPTION = "--hash";
+    /** Command line option to choose the engine of the computer, alpha-beta or mcts. */
+    private static final String ENGINE_OPTION = "--engine";
+    /** Command line option to set the number of threads of the computer. */
+    private static final String THREADS_OPTION = "--threads";
+    /** Value of the engine option to play with Monte Carlo tree search. */
+    private static final String MCTS_ENGINE = "mcts";
+    /** Command line option to load a tablebase file for perfect play hints. */
+    private static final String TABLEBASE_OPTION = "--tablebase";
+    /** Command line option to redraw only the changed cells of the board on ANSI terminals. */
+    private static final String ANSI_OPTION = "--ansi";
+    /** Command line option to display the fancy board. */
+    private static final String FANCY_OPTION = "--fancy";
+    /** Command line option to record every move in a journal and resume its game on start. */
+    private static final String JOURNAL_OPTION = "--journal";
+    /** Command line option to serve many games over a local TCP port instead of playing one. */
+    private static final String SERVER_OPTION = "--server";
+    /** Command line option to analyse the position in the background while a human thinks. */
+    private static final String HINT_OPTION = "--hint";
+    /** Value of the computer option to let the computer play both sides. */
+    private static final String BOTH_SIDES = "both";
+    /** Thinking time of the computer in milliseconds if none is specified. */
+    private static final long DEFAULT_COMPUTER_TIME = 1000;
+
+    /** Search engine of the computer player, created once the options are known. */
+    private static FoxHoundLazySmp computer;
+    /** Monte Carlo tree search of the computer player, null if alpha-beta is used. */
+    private static FoxHoundMcts mcts;
+    /** True if the computer plays the fox. */
+    private static boolean computerFox = false;
+    /** True if the computer plays the hounds. */
+    private static boolean computerHounds = false;
+    /** Thinking time of the computer per move in milliseconds. */
+    private static long computerTime = DEFAULT_COMPUTER_TIME;
+    /** Solved positions of the board dimension, null if no tablebase is loaded. */
+    private static FoxHoundTablebase tablebase;
+    /** True if the fancy board is displayed. */
+    private static boolean fancy = false;
+    /** True if the board is redrawn incrementally on an ANSI terminal. */
+    private static boolean ansi = false;
+    /** Journal recording the moves of the game, null if no journal is used. */
+    private static FoxHoundJournal journal;
+    /** File of the journal, null if no journal is used. */
+    private static Path journalPath;
+    /** Background analysis offering hints to a human player, null if hints are off. */
+    private static FoxHoundAnalyser analyser;
     
     /**
      * Swap between fox and hounds to determine the next
@@ -55,17 +135,34 @@ public class FoxHoundGame {
      * 
      * @param dimension the dimension of the game board
      * @param players current position of all figures on the board in board coordinates
+     * @param turn figure to move first
      */
-    private static void gameLoop(int dimension, String[] players) {
+    private static void gameLoop(int dimension, String[] players, char turn) {
 
-        // start each game with the Fox
-        char turn = FoxHoundUtils.FOX_FIELD;
         boolean exit = false;
+        //Keeps the win state up to date with every move instead of recomputing it after every action
+        FoxHoundGameState state = new FoxHoundGameState(players, dimension);
+        //The ANSI display keeps the last frame and only redraws changed cells
+        FoxHoundAnsiDisplay display = ansi ? new FoxHoundAnsiDisplay(dimension, fancy, System.out) : null;
+        String lastMove = null;
         while(!exit) {
-            System.out.println("\n#################################");
-            FoxHoundUI.displayBoard(players, dimension);
+            if (display != null) display.display(players, lastMove);
+            else
+            {
+                System.out.println("\n#################################");
+                if (fancy) FoxHoundUI.displayBoardFancy(players, dimension);
+                else FoxHoundUI.displayBoard(players, dimension);
+            }
+
+            if (tablebase != null) printPerfectPlay(dimension, players, turn);
 
-            int choice = FoxHoundUI.mainMenuQuery(turn, STDIN_SCAN);
+            //the computer always chooses to move
+            boolean computerTurn = turn == FoxHoundUtils.FOX_FIELD ? computerFox : computerHounds;
+            //The analysis uses the time the human thinks about the menu and the move
+            if (analyser != null && !computerTurn) analyser.start(FoxHoundBoard.fromPlayers(players, dimension, turn));
+            //The group commit of the journal is only checked at the next move, so the moves are forced before waiting for the human
+            if (journal != null && !computerTurn) syncJournal();
+            int choice = computerTurn ? FoxHoundUI.MENU_MOVE : FoxHoundUI.mainMenuQuery(turn, STDIN_SCAN);
             
             // handle menu choice
             switch(choice) {
@@ -75,19 +172,42 @@ public class FoxHoundGame {
                     //Initialise origin and destination
                     String origin = "";
                     String destination = "";
+                    String source = null;
+                    if (computerTurn)
+                    {
+                        String[] move = computerMove(dimension, players, turn);
+                        //The search finds no move only if the hounds are stuck
+                        if (move == null)
+                        {
+                            System.out.println(COMPUTER_STUCK_MSG);
+                            System.out.println(FOX_WIN_MSG);
+                            exit = true;
+                            break;
+                        }
+                        origin = move[0];
+                        destination = move[1];
+                        source = move[2];
+                        System.out.printf(COMPUTER_MOVE_MSG, origin, destination, move[2]);
+                        validInput = true;
+                    }
                     //Infinite loop until valid position is secured
                     while (!validInput)
                     {
                         //Get position
-                        String[] positions = FoxHoundUI.positionQuery(dimension, STDIN_SCAN);
+                        String[] positions = FoxHoundUI.positionQuery(dimension, STDIN_SCAN, analyser == null ? null : () -> hintMessage(dimension));
                         origin = positions[0];
                         destination = positions[1];
                         //Check if it is a valid move. If yes, escape from the loop. Otherwise, print error message
-                        if(FoxHoundUtils.isValidMove(dimension, players, turn, origin, destination)) validInput = true;
+                        if(state.isValidMove(turn, origin, destination)) validInput = true;
                         else System.err.println(POSITION_ERR_MSG);
                     }
+                    //The analysis of this position is useless once the move is known
+                    if (analyser != null) analyser.stop();
                     //Update coordinate, knowing that position is valid
-                    FoxHoundUtils.updatePositions(players, origin, destination);
+                    state.updatePositions(origin, destination);
+                    lastMove = String.format(LAST_MOVE_MSG, turn == FoxHoundUtils.FOX_FIELD ? "Fox" : "Hounds", origin, destination);
+                    if (source != null) lastMove += " (" + source + ")";
+                    if (journal != null) recordMove(origin, destination);
                     //Swap player
                     turn = swapPlayers(turn);
                     break;
@@ -95,40 +215,193 @@ public class FoxHoundGame {
                 case FoxHoundUI.MENU_SAVE:
                     //Receive path
                     Path savePath = FoxHoundUI.fileQuery(STDIN_SCAN);
-                    //Attempt to save the file, if failed, print error message
-                    if(!FoxHoundIO.saveGame(players, turn, savePath)) System.err.println(SAVE_ERR_MSG);
+                    //Attempt to save the file in the format of its extension, if failed, print error message
+                    boolean saved = FoxHoundIO.isBinaryPath(savePath) ? FoxHoundIO.saveGameBinary(players, turn, dimension, savePath)
+                        : FoxHoundIO.saveGame(players, turn, savePath);
+                    if(!saved) System.err.println(SAVE_ERR_MSG);
+                    //The file dialog writes below the board, the next update draws the screen again in case it scrolled
+                    if (display != null) display.redraw();
                     break;
 
                 case FoxHoundUI.MENU_LOAD:
                     //Receive path
                     Path loadPath = FoxHoundUI.fileQuery(STDIN_SCAN);
                     //Try to load the file and get the next figure. If valid file is not found, '#' is returned
-                    char nextFigure = FoxHoundIO.loadGame(players, loadPath);
+                    char nextFigure = FoxHoundIO.isBinaryPath(loadPath) ? FoxHoundIO.loadGameBinary(players, dimension, loadPath)
+                        : FoxHoundIO.loadGame(players, loadPath);
                     if(!FoxHoundUtils.checkInputFigure(nextFigure, false)) System.err.println(LOAD_ERR_MSG);
-                    else turn = nextFigure;
+                    else
+                    {
+                        turn = nextFigure;
+                        state.reset();
+                        //The journal continues from the loaded position
+                        if (journal != null) restartJournal(dimension, players, turn);
+                    }
+                    //The file dialog writes below the board, the next update draws the screen again in case it scrolled
+                    if (display != null) display.redraw();
                     break;
 
                 case FoxHoundUI.MENU_EXIT:
                     exit = true;
                     break;
 
+                case FoxHoundUI.MENU_UNDO:
+                case FoxHoundUI.MENU_REDO:
+                    boolean undo = choice == FoxHoundUI.MENU_UNDO;
+                    int moves = 0;
+                    //Against the computer the move of the computer is taken back (or played again) as well
+                    do {
+                        int move = undo ? state.unmakeMove() : state.redoMove();
+                        if (move == FoxHoundGameState.NO_MOVE) break;
+                        turn = swapPlayers(turn);
+                        moves++;
+                        System.out.printf(UNDO_MSG, undo ? "Undone:" : "Redone:",
+                            FoxHoundUtils.getMoveOrigin(move, dimension), FoxHoundUtils.getMoveDestination(move, dimension));
+                    } while (turn == FoxHoundUtils.FOX_FIELD ? computerFox : computerHounds);
+                    if (moves == 0) System.err.println(undo ? UNDO_ERR_MSG : REDO_ERR_MSG);
+                    else
+                    {
+                        lastMove = null;
+                        //The journal is append-only, it continues from the new position
+                        if (journal != null) restartJournal(dimension, players, turn);
+                    }
+                    break;
+
                 default:
                     System.err.println("ERROR: invalid menu choice: " + choice);
             }
+            if (analyser != null) analyser.stop();
 
             //decide if any player win
             //check fox first, then check hound
-            if(FoxHoundUtils.isFoxWin(players[players.length - 1]))
+            if(state.getStatus() == FoxHoundBoard.FOX_WIN)
             {
                 System.out.println(FOX_WIN_MSG);
                 exit = true;
             }
-            else if(FoxHoundUtils.isHoundWin(players, dimension))
+            else if(state.getStatus() == FoxHoundBoard.HOUND_WIN)
             {
                 System.out.println(HOUND_WIN_MSG);
                 exit = true;
             }
         }
+        //Output after the game scrolls the whole screen again
+        if (display != null) display.close();
+    }
+
+    /**
+     * Let the computer player search a move for the figure to move.
+     * 
+     * @param dimension the dimension of the game board
+     * @param players current position of all figures on the board in board coordinates
+     * @param turn figure to be moved
+     * @return coordinates {origin, destination, source of the move} or null if the figure cannot move
+     */
+    private static String[] computerMove(int dimension, String[] players, char turn) {
+        FoxHoundBoard board = FoxHoundBoard.fromPlayers(players, dimension, turn);
+        //The tablebase knows the perfect move, searching is only needed without it
+        int move = tablebase != null ? tablebase.bestMove(board) : FoxHoundTablebase.NO_MOVE;
+        String source = "tablebase";
+        if (move == FoxHoundTablebase.NO_MOVE && mcts != null)
+        {
+            move = mcts.search(board, computerTime, Long.MAX_VALUE);
+            source = mcts.getPlayouts() + " playouts";
+        }
+        else if (move == FoxHoundTablebase.NO_MOVE)
+        {
+            move = computer.search(board, computerTime);
+            source = "depth " + computer.getDepth();
+        }
+        if (move == FoxHoundSearch.NO_MOVE) return null;
+        return new String[]{FoxHoundUtils.getMoveOrigin(move, dimension), FoxHoundUtils.getMoveDestination(move, dimension), source};
+    }
+
+    /**
+     * Describe the best move the background analysis found so far.
+     * 
+     * @param dimension the dimension of the game board
+     * @return hint line for the player
+     */
+    private static String hintMessage(int dimension) {
+        FoxHoundAnalyser.Hint hint = analyser.getHint();
+        return hint == null ? NO_HINT_MSG : String.format(HINT_MSG, hint.format(dimension));
+    }
+
+    /**
+     * Append a move to the journal. If writing fails, the journal is closed
+     * and the game continues without it.
+     * 
+     * @param origin coordinate of the moved figure
+     * @param destination coordinate the figure moved to
+     */
+    private static void recordMove(String origin, String destination) {
+        try {
+            journal.append(origin, destination);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(JOURNAL_ERR_MSG);
+            closeJournal();
+        }
+    }
+
+    /**
+     * Force the moves of the journal to the disk. If forcing fails, the
+     * journal is closed and the game continues without it.
+     */
+    private static void syncJournal() {
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            System.err.println(JOURNAL_ERR_MSG);
+            closeJournal();
+        }
+    }
+
+    /**
+     * Replace the journal with a new one starting at the given position.
+     * 
+     * @param dimension the dimension of the game board
+     * @param players current position of all figures on the board in board coordinates
+     * @param turn figure to move next
+     */
+    private static void restartJournal(int dimension, String[] players, char turn) {
+        Path path = journalPath;
+        closeJournal();
+        try {
+            journal = FoxHoundJournal.create(path, players, turn, dimension);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(JOURNAL_ERR_MSG);
+        }
+    }
+
+    /** Close the journal, forcing its last moves to the disk. */
+    private static void closeJournal() {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println(JOURNAL_ERR_MSG);
+        }
+        journal = null;
+    }
+
+    /**
+     * Print the result and the best move of the current position with perfect play.
+     * Nothing is printed if the position is not in the tablebase.
+     * 
+     * @param dimension the dimension of the game board
+     * @param players current position of all figures on the board in board coordinates
+     * @param turn figure to be moved
+     */
+    private static void printPerfectPlay(int dimension, String[] players, char turn) {
+        FoxHoundBoard board = FoxHoundBoard.fromPlayers(players, dimension, turn);
+        if (board.getStatus() != FoxHoundBoard.ONGOING) return;
+        int value = tablebase.probe(board);
+        int move = tablebase.bestMove(board);
+        if (value == FoxHoundTablebase.UNKNOWN || move == FoxHoundTablebase.NO_MOVE) return;
+        String winner = FoxHoundTablebase.getWinner(value) == FoxHoundBoard.FOX_WIN ? "Fox" : "Hounds";
+        String origin = FoxHoundUtils.getMoveOrigin(move, dimension);
+        String destination = FoxHoundUtils.getMoveDestination(move, dimension);
+        if (tablebase.hasDistance()) System.out.printf(PERFECT_PLAY_MSG, winner, FoxHoundTablebase.getDistance(value), origin, destination);
+        else System.out.printf(PERFECT_WINNER_MSG, winner, origin, destination);
     }
 
     /**
@@ -143,29 +416,183 @@ public class FoxHoundGame {
      * Dimensions must be between {@value FoxHoundUtils#MIN_DIM} and 
      * {@value FoxHoundUtils#MAX_DIM}.
      * 
+     * The computer can play one or both sides with the options
+     * {@value #COMPUTER_OPTION} (fox, hounds or both) and 
+     * {@value #TIME_OPTION} (thinking time per move in milliseconds,
+     * default {@value #DEFAULT_COMPUTER_TIME}), e.g. "8 --computer hounds --time 50".
+     * The memory of the computer is set with {@value #HASH_OPTION} in megabytes
+     * (default {@value FoxHoundTranspositionTable#DEFAULT_SIZE_MB}).
+     * The computer searches on {@value #THREADS_OPTION} threads (default all
+     * processors) which share one transposition table.
+     * With "{@value #ENGINE_OPTION} {@value #MCTS_ENGINE}" the computer uses Monte
+     * Carlo tree search instead of alpha-beta search, which plays better on large boards.
+     * A tablebase file written by {@link FoxHoundSolver} is loaded with
+     * {@value #TABLEBASE_OPTION}; it prints the perfect move before every
+     * move and lets the computer play perfectly.
+     * {@value #FANCY_OPTION} displays the board with borders and
+     * {@value #ANSI_OPTION} keeps the board on an ANSI terminal and only
+     * redraws the cells changed by a move, with the last move below it;
+     * menus scroll below the board, and boards too tall for the terminal
+     * are drawn whole on every move.
+     * Games saved to files ending with {@value FoxHoundIO#BINARY_EXTENSION}
+     * use the binary format of {@link FoxHoundIO} for every dimension,
+     * other files the text format.
+     * With {@value #JOURNAL_OPTION} every move is appended to a journal file;
+     * if the file exists on start, its game is replayed and continued.
+     * With {@value #HINT_OPTION} the position is searched in the background
+     * while a human is to move, and "{@value FoxHoundUI#HINT_INPUT}" at the
+     * coordinate prompt prints the best move found so far.
+     * With {@value #SERVER_OPTION} and a port no game is played on the console,
+     * a {@link FoxHoundServer} hosts games for network clients instead.
+     * 
      * @param args contain the command line arguments where the first can be
      * board dimensions.
      */
     public static void main(String[] args) {
         //Initialise dimension
-        int dimension;
-        try 
+        int dimension = FoxHoundUtils.DEFAULT_DIM;
+        int hashSize = FoxHoundTranspositionTable.DEFAULT_SIZE_MB;
+        boolean useMcts = false;
+        boolean hints = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            if (option.equals(COMPUTER_OPTION))
+            {
+                computerFox = value.equalsIgnoreCase("fox") || value.equalsIgnoreCase(BOTH_SIDES);
+                computerHounds = value.equalsIgnoreCase("hounds") || value.equalsIgnoreCase(BOTH_SIDES);
+                if (!computerFox && !computerHounds) System.err.println("ERROR: invalid computer side: " + value);
+                i++;
+            }
+            else if (option.equals(TIME_OPTION))
+            {
+                try {
+                    computerTime = Math.max(0, Long.parseLong(value));
+                } catch (NumberFormatException e) {
+                    System.err.println("ERROR: invalid computer time: " + value);
+                }
+                i++;
+            }
+            else if (option.equals(HASH_OPTION))
+            {
+                try {
+                    hashSize = Integer.parseInt(value);
+                    if (hashSize < 1 || hashSize > FoxHoundTranspositionTable.MAX_SIZE_MB) throw new NumberFormatException();
+                } catch (NumberFormatException e) {
+                    System.err.println("ERROR: invalid computer memory size: " + value);
+                    hashSize = FoxHoundTranspositionTable.DEFAULT_SIZE_MB;
+                }
+                i++;
+            }
+            else if (option.equals(ENGINE_OPTION))
+            {
+                useMcts = value.equalsIgnoreCase(MCTS_ENGINE);
+                if (!useMcts && !value.equalsIgnoreCase("alphabeta")) System.err.println("ERROR: invalid computer engine: " + value);
+                i++;
+            }
+            else if (option.equals(THREADS_OPTION))
+            {
+                try {
+                    threads = Integer.parseInt(value);
+                    if (threads < 1) throw new NumberFormatException();
+                } catch (NumberFormatException e) {
+                    System.err.println("ERROR: invalid number of threads: " + value);
+                    threads = Runtime.getRuntime().availableProcessors();
+                }
+                i++;
+            }
+            else if (option.equals(TABLEBASE_OPTION))
+            {
+                try {
+                    tablebase = FoxHoundTablebase.open(Paths.get(value));
+                } catch (IOException | InvalidPathException e) {
+                    System.err.println("ERROR: invalid tablebase file: " + value);
+                }
+                i++;
+            }
+            else if (option.equals(JOURNAL_OPTION))
+            {
+                try {
+                    journalPath = Paths.get(value);
+                } catch (InvalidPathException e) {
+                    System.err.println("ERROR: invalid journal file: " + value);
+                }
+                i++;
+            }
+            else if (option.equals(SERVER_OPTION))
+            {
+                FoxHoundServer.main(new String[]{"--port", value});
+                return;
+            }
+            else if (option.equals(HINT_OPTION))
+            {
+                hints = true;
+            }
+            else if (option.equals(ANSI_OPTION))
+            {
+                ansi = true;
+            }
+            else if (option.equals(FANCY_OPTION))
+            {
+                fancy = true;
+            }
+            else if (i == 0)
+            {
+                try 
+                {
+                    //Attempt to get dimention fron args[0]
+                    int inputDimension = Integer.parseInt(option);
+                    FoxHoundUtils.checkInputDimension(inputDimension, true);
+                    dimension = inputDimension;
+                } 
+                catch (Exception e) 
+                {
+                    //Use default dimension if exception is catched
+                    dimension = FoxHoundUtils.DEFAULT_DIM;
+                }
+            }
+        }
+
+        //Initialise the board given the dimension, or resume the game of the journal
+        String[] players = FoxHoundUtils.initialisePositions(dimension);
+        char turn = FoxHoundUtils.FOX_FIELD;
+        if (journalPath != null)
         {
-            //Attempt to get dimention fron args[0]
-            int inputDimension = Integer.parseInt(args[0]);
-            FoxHoundUtils.checkInputDimension(inputDimension, true);
-            dimension = inputDimension;
-        } 
-        catch (Exception e) 
+            try {
+                if (Files.exists(journalPath))
+                {
+                    journal = FoxHoundJournal.open(journalPath);
+                    if (journal.getBoard().getStatus() == FoxHoundBoard.ONGOING)
+                    {
+                        dimension = journal.getDimension();
+                        players = journal.getPlayers();
+                        turn = journal.getTurn();
+                        System.out.printf(JOURNAL_RESUME_MSG, journal.getMoveCount(), journalPath);
+                    }
+                    //A finished game is not resumed, a new one is recorded instead
+                    else closeJournal();
+                }
+                if (journal == null) journal = FoxHoundJournal.create(journalPath, players, turn, dimension);
+            } catch (IOException e) {
+                System.err.println("ERROR: invalid journal file: " + journalPath + " (" + e.getMessage() + ")");
+                journal = null;
+            }
+        }
+
+        if (tablebase != null && tablebase.getDimension() != dimension)
         {
-            //Use default dimension if exception is catched
-            dimension = FoxHoundUtils.DEFAULT_DIM;
+            System.err.println("ERROR: tablebase does not match the board dimension " + dimension);
+            tablebase = null;
         }
+        if ((computerFox || computerHounds) && useMcts) mcts = new FoxHoundMcts(threads, FoxHoundMcts.DEFAULT_NODES);
+        else if (computerFox || computerHounds) computer = new FoxHoundLazySmp(hashSize, threads);
+        if (hints) analyser = new FoxHoundAnalyser(hashSize, FoxHoundAnalyser.DEFAULT_ANALYSIS_MILLIS);
 
-        //Initialise the board given the dimension
-        String[] players = FoxHoundUtils.initialisePositions(dimension);
         //Start the game loop
-        gameLoop(dimension, players);
+        gameLoop(dimension, players, turn);
+        if (journal != null) closeJournal();
+        if (analyser != null) analyser.close();
 
         // Close the scanner reading the standard input stream       
         STDIN_SCAN.close();
@@ -0,0 +1,326 @@
+import java.util.Arrays;
+
+/**
+ * Players' coordinates of a game together with its occupancy and win state.
+ *
+ * Next to the coordinates the state keeps the square of every figure
+ * (piece list) and a grid with the figure standing on every square, so
+ * "where is figure i" and "who is on this square" are answered without
+ * comparing coordinates. Moves are checked and made on these two.
+ *
+ * Every move is pushed on a move stack of packed squares, so it can be
+ * taken back with {@link #unmakeMove} and played again with
+ * {@link #redoMove} in constant time. Searches can walk a game tree with
+ * makeMove and unmakeMove on one state instead of copying the coordinates
+ * at every node.
+ *
+ * The game loop decides after every action whether the fox reached the
+ * first row or cannot move any more. Instead of rebuilding the fox
+ * mobility from all coordinates each time, this class keeps a bit per
+ * fox neighbour which is set while the neighbour is outside the board or
+ * taken by a hound. A move only re-examines the squares next to the moved
+ * figure, and the status is read without any work, also after actions
+ * which move nothing.
+ *
+ * The coordinates are changed in place, so the array passed in stays the
+ * position shown and saved by the rest of the program. If it is changed
+ * other than through {@link #updatePositions}, e.g. by loading a game,
+ * {@link #reset} has to be called.
+ */
+public class FoxHoundGameState {
+
+    /** All fox neighbours blocked. */
+    private static final int TRAPPED = (1 << FoxHoundNeighbours.FOX_STEPS) - 1;
+    /** Entry of the grid for an empty square. */
+    private static final byte EMPTY = 0;
+    /** Result of {@link #getFigure} for an empty square. */
+    public static final int NO_FIGURE = -1;
+    /** Result of {@link #unmakeMove} and {@link #redoMove} if there is no move. */
+    public static final int NO_MOVE = -1;
+    /** Initial capacity of the move stack, it grows when a game gets longer. */
+    private static final int INITIAL_HISTORY = 64;
+
+    private final int dimension;
+    private final String[] players;
+    private final int foxIndex;
+    private final int[] foxNeighbours;
+    /** Square of every figure, in the order of the players array. */
+    private final int[] squares;
+    /** Index of the figure on every square plus one, {@link #EMPTY} if the square is empty. */
+    private final byte[] grid;
+    private int fox;
+    /** Moves packed as in {@link FoxHoundBoard#packMove}, played ones first, then the ones taken back. */
+    private int[] history = new int[INITIAL_HISTORY];
+    /** Number of moves played, the top of the move stack. */
+    private int played = 0;
+    /** Number of moves on the stack including the ones which can be redone. */
+    private int recorded = 0;
+    /** Bit k is set if the k-th fox neighbour is outside the board or taken by a hound. */
+    private int blocked;
+    private int status;
+
+    /**
+     * Track the win state of a players array
+     * @param players players' coordinates, the fox last; changed by {@link #updatePositions}
+     * @param dimension
+     * @throws IllegalArgumentException if the dimension or a coordinate is invalid, or they do not match
+     * @throws NullPointerException if players array is null
+     */
+    public FoxHoundGameState(String[] players, int dimension) throws IllegalArgumentException, NullPointerException
+    {
+        FoxHoundUtils.checkInputDimWithPositionList(players, dimension, true);
+        this.dimension = dimension;
+        this.players = players;
+        this.foxIndex = players.length - 1;
+        this.foxNeighbours = FoxHoundNeighbours.foxTable(dimension);
+        this.squares = new int[players.length];
+        this.grid = new byte[dimension * dimension];
+        reset();
+    }
+
+    /**
+     * Rebuild the state from the players array after it was changed from outside.
+     * The move stack is cleared.
+     * @throws IllegalArgumentException if a coordinate is outside the board
+     */
+    public void reset() throws IllegalArgumentException
+    {
+        //Squares are checked before the state changes
+        for (int i = 0; i < players.length; i++) {
+            int square = squareOf(players[i]);
+            if (square == NO_FIGURE) throw new IllegalArgumentException("Coordinate " + players[i] + " is outside the board");
+            squares[i] = square;
+        }
+        Arrays.fill(grid, EMPTY);
+        //The fox goes first, so a hound on its square hides it as in FoxHoundUtils.countFoxMoves
+        grid[squares[foxIndex]] = (byte) (foxIndex + 1);
+        for (int i = 0; i < foxIndex; i++) grid[squares[i]] = (byte) (i + 1);
+        fox = squares[foxIndex];
+        updateFox();
+        played = 0;
+        recorded = 0;
+    }
+
+    /**
+     * Check if a move is valid, with the same result as FoxHoundUtils.isValidMove
+     * for the players array but without comparing coordinates
+     * @param figure figure to move
+     * @param origin
+     * @param destination
+     * @return true if the move is valid, false otherwise
+     * @throws IllegalArgumentException if the figure, origin or destination is not valid
+     * @throws NullPointerException if origin or destination is null
+     */
+    public boolean isValidMove(char figure, String origin, String destination) throws IllegalArgumentException, NullPointerException
+    {
+        FoxHoundUtils.checkInputFigure(figure, true);
+        FoxHoundUtils.checkInputPosition(origin, true);
+        FoxHoundUtils.checkInputPosition(destination, true);
+        int originSquare = squareOf(origin);
+        int destinationSquare = squareOf(destination);
+        if (originSquare == NO_FIGURE || destinationSquare == NO_FIGURE) return false;
+
+        int index = getFigure(originSquare);
+        if (index == NO_FIGURE || getFigure(destinationSquare) != NO_FIGURE) return false;
+        if ((index == foxIndex ? FoxHoundUtils.FOX_FIELD : FoxHoundUtils.HOUND_FIELD) != figure) return false;
+
+        int columnDistance = destinationSquare % dimension - originSquare % dimension;
+        int rowDistance = destinationSquare / dimension - originSquare / dimension;
+        if (Math.abs(columnDistance) != 1) return false;
+        return figure == FoxHoundUtils.FOX_FIELD ? Math.abs(rowDistance) == 1 : rowDistance == 1;
+    }
+
+    /**
+     * Move a figure and update the state from the squares next to it.
+     * Nothing changes if no figure stands on the origin.
+     * Caution: the move is not checked against the rules, use isValidMove at the calling code
+     * @param origin
+     * @param destination
+     * @throws IllegalArgumentException if origin or destination is not a coordinate on the board
+     */
+    public void updatePositions(String origin, String destination) throws IllegalArgumentException
+    {
+        int originSquare = squareOf(origin);
+        int destinationSquare = squareOf(destination);
+        if (originSquare == NO_FIGURE || destinationSquare == NO_FIGURE)
+            throw new IllegalArgumentException("Move " + origin + " " + destination + " leaves the board");
+        int index = getFigure(originSquare);
+        if (index == NO_FIGURE) return;
+        move(index, originSquare, destinationSquare, destination);
+        push(FoxHoundBoard.packMove(originSquare, destinationSquare));
+    }
+
+    /**
+     * Play a move and push it on the move stack, which drops the moves which could be redone.
+     * Caution: the move is not checked against the rules
+     * @param move packed as in {@link FoxHoundBoard#packMove}
+     * @throws IllegalArgumentException if no figure stands on the origin
+     */
+    public void makeMove(int move) throws IllegalArgumentException
+    {
+        int origin = FoxHoundBoard.getMoveOrigin(move);
+        int index = getFigure(origin);
+        if (index == NO_FIGURE) throw new IllegalArgumentException("No figure on square " + origin);
+        int destination = FoxHoundBoard.getMoveDestination(move);
+        move(index, origin, destination, positionOf(destination));
+        push(move);
+    }
+
+    /**
+     * Take back the last move, it can be played again with {@link #redoMove}
+     * @return the move taken back, {@link #NO_MOVE} if no move was played
+     */
+    public int unmakeMove()
+    {
+        if (played == 0) return NO_MOVE;
+        int move = history[--played];
+        int origin = FoxHoundBoard.getMoveOrigin(move);
+        int destination = FoxHoundBoard.getMoveDestination(move);
+        move(getFigure(destination), destination, origin, positionOf(origin));
+        return move;
+    }
+
+    /**
+     * Play the last move taken back again
+     * @return the move played, {@link #NO_MOVE} if no move was taken back
+     */
+    public int redoMove()
+    {
+        if (played == recorded) return NO_MOVE;
+        int move = history[played++];
+        int origin = FoxHoundBoard.getMoveOrigin(move);
+        int destination = FoxHoundBoard.getMoveDestination(move);
+        move(getFigure(origin), origin, destination, positionOf(destination));
+        return move;
+    }
+
+    /** @return number of moves which can be taken back */
+    public int getMoveCount()
+    {
+        return played;
+    }
+
+    /** @return number of moves taken back which can be played again */
+    public int getRedoCount()
+    {
+        return recorded - played;
+    }
+
+    private void push(int move)
+    {
+        if (played == history.length) history = Arrays.copyOf(history, 2 * history.length);
+        history[played++] = move;
+        recorded = played;
+    }
+
+    /**
+     * Move a figure in the coordinates, the piece list and the grid and update the win state
+     * @param index figure to move
+     * @param originSquare its square
+     * @param destinationSquare square to move to
+     * @param destination coordinate of the destination square
+     */
+    private void move(int index, int originSquare, int destinationSquare, String destination)
+    {
+        players[index] = destination;
+        squares[index] = destinationSquare;
+        grid[originSquare] = EMPTY;
+        grid[destinationSquare] = (byte) (index + 1);
+        if (index == foxIndex)
+        {
+            fox = destinationSquare;
+            updateFox();
+            return;
+        }
+        //Only a fox neighbour which the hound left or entered changes
+        int first = fox * FoxHoundNeighbours.FOX_STEPS;
+        for (int k = 0; k < FoxHoundNeighbours.FOX_STEPS; k++) {
+            int neighbour = foxNeighbours[first + k];
+            if (neighbour == originSquare) blocked &= ~(1 << k);
+            else if (neighbour == destinationSquare) blocked |= 1 << k;
+        }
+        updateStatus();
+    }
+
+    /** Recompute the blocked neighbours of the fox square. */
+    private void updateFox()
+    {
+        blocked = 0;
+        int first = fox * FoxHoundNeighbours.FOX_STEPS;
+        for (int k = 0; k < FoxHoundNeighbours.FOX_STEPS; k++) {
+            int neighbour = foxNeighbours[first + k];
+            if (neighbour == FoxHoundNeighbours.NONE || grid[neighbour] != EMPTY) blocked |= 1 << k;
+        }
+        //A hound on the fox square leaves no move, as in FoxHoundUtils.countFoxMoves
+        if (grid[fox] != foxIndex + 1) blocked = TRAPPED;
+        updateStatus();
+    }
+
+    /** Decide the status in the order of the game loop: fox first, then hounds. */
+    private void updateStatus()
+    {
+        if (fox < dimension) status = FoxHoundBoard.FOX_WIN;
+        else if (blocked == TRAPPED) status = FoxHoundBoard.HOUND_WIN;
+        else status = FoxHoundBoard.ONGOING;
+    }
+
+    /** Shared coordinate string of a square. */
+    private String positionOf(int square)
+    {
+        return FoxHoundCoordinates.getPositionString(square % dimension, square / dimension);
+    }
+
+    /** Square of a coordinate, {@link #NO_FIGURE} if it is outside the board. */
+    private int squareOf(String position)
+    {
+        int column = FoxHoundUtils.getColumnNumber(position);
+        int row = FoxHoundUtils.getRowNumber(position);
+        return column >= 0 && row >= 0 && column < dimension && row < dimension ? row * dimension + column : NO_FIGURE;
+    }
+
+    /**
+     * Find the figure on a square
+     * @param square row * dimension + column
+     * @return index of the figure in the players array, {@link #NO_FIGURE} if the square is empty
+     * @throws ArrayIndexOutOfBoundsException if the square is outside the board
+     */
+    public int getFigure(int square) throws ArrayIndexOutOfBoundsException
+    {
+        return grid[square] - 1;
+    }
+
+    /**
+     * Find the square of a figure
+     * @param index index of the figure in the players array
+     * @return row * dimension + column
+     * @throws ArrayIndexOutOfBoundsException if there is no such figure
+     */
+    public int getSquare(int index) throws ArrayIndexOutOfBoundsException
+    {
+        return squares[index];
+    }
+
+    /** @return {@link FoxHoundBoard#ONGOING}, {@link FoxHoundBoard#FOX_WIN} or {@link FoxHoundBoard#HOUND_WIN} */
+    public int getStatus()
+    {
+        return status;
+    }
+
+    /** @return number of squares the fox can move to (0-4) */
+    public int getFoxMobility()
+    {
+        return FoxHoundNeighbours.FOX_STEPS - Integer.bitCount(blocked);
+    }
+
+    /** @return players' coordinates, the array given to the constructor */
+    public String[] getPlayers()
+    {
+        return players;
+    }
+
+    /** @return dimension of the board */
+    public int getDimension()
+    {
+        return dimension;
+    }
+}
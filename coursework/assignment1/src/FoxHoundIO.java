@@ -4,19 +4,49 @@ import java.util.StringJoiner;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Scanner;
+import java.util.zip.CRC32;
 
 /**
  * A utility class for the fox hound program.
  * 
  * It contains helper functions for all file input / output related operations
  * such as saving and loading a game.
+ * 
+ * Games are saved either as a text line (8-dim only), which is kept for
+ * import and export, or in a compact binary format for every dimension:
+ * 
+ *     magic "FHSG", version, dimension, next figure ('F' or 'H'),
+ *     one square (row * dimension + column) per figure, the fox last,
+ *     CRC32 of all bytes before it
+ * 
+ * A square takes one byte up to dimension {@value #MAX_BYTE_DIM} and two
+ * bytes (big-endian) above, so an 8-dim game takes 16 bytes.
  */
 public class FoxHoundIO {
 
 
     private static final int MAX_PLAYERS_IN_DIM_8 = 5;
 
+    /** File extension selecting the binary format. */
+    public static final String BINARY_EXTENSION = ".fhs";
+    /** Version of the binary format written by this program. */
+    public static final int BINARY_VERSION = 1;
+    /** Largest dimension whose squares fit in one byte. */
+    public static final int MAX_BYTE_DIM = 16;
+    /** Value returned by the load methods if loading fails. */
+    public static final char LOAD_ERROR = '#';
+
+    /** First bytes of a binary game file. */
+    private static final byte[] BINARY_MAGIC = {'F', 'H', 'S', 'G'};
+    /** Bytes before the figures: magic, version, dimension and next figure. */
+    private static final int BINARY_HEADER_SIZE = 7;
+    /** Bytes of the CRC32 after the figures. */
+    private static final int BINARY_CRC_SIZE = 4;
+
     /**
      * Save the game to a file (8-dim only)
      * @param players
@@ -108,4 +138,181 @@ public class FoxHoundIO {
         }
     }
 
+    /**
+     * Check if a path selects the binary format by its extension
+     * @param filePath
+     * @return true if the file name ends with {@value #BINARY_EXTENSION}
+     * @throws NullPointerException File path is null
+     */
+    public static boolean isBinaryPath(Path filePath) throws NullPointerException
+    {
+        if (filePath == null) throw new NullPointerException("File path is not defined");
+        Path fileName = filePath.getFileName();
+        return fileName != null && fileName.toString().toLowerCase().endsWith(BINARY_EXTENSION);
+    }
+
+    /**
+     * Size of a game in the binary format
+     * @param dimension
+     * @return number of bytes
+     * @throws IllegalArgumentException if dimension is out of range
+     */
+    public static int binarySize(int dimension) throws IllegalArgumentException
+    {
+        FoxHoundUtils.checkInputDimension(dimension, true);
+        return BINARY_HEADER_SIZE + (dimension / 2 + 1) * squareSize(dimension) + BINARY_CRC_SIZE;
+    }
+
+    /**
+     * Bytes of a square in the binary format.
+     * Caution: check the dimension at the calling code
+     * @param dimension
+     * @return 1 or 2
+     */
+    static int squareSize(int dimension)
+    {
+        return dimension <= MAX_BYTE_DIM ? 1 : 2;
+    }
+
+    /**
+     * Write a game in the binary format to a buffer
+     * @param players
+     * @param nextFigure
+     * @param dimension
+     * @param buffer receives {@link #binarySize(int)} bytes at its position
+     * @throws NullPointerException if players or buffer is null
+     * @throws IllegalArgumentException if the figure, dimension or players list is illegal
+     * @throws java.nio.BufferOverflowException if the buffer has not enough space
+     */
+    public static void encodeGame(String[] players, char nextFigure, int dimension, ByteBuffer buffer)
+            throws NullPointerException, IllegalArgumentException
+    {
+        FoxHoundUtils.checkInputPositionList(players, true);
+        FoxHoundUtils.checkInputFigure(nextFigure, true);
+        FoxHoundUtils.checkInputDimWithPositionList(players, dimension, true);
+
+        int start = buffer.position();
+        buffer.put(BINARY_MAGIC).put((byte) BINARY_VERSION).put((byte) dimension).put((byte) nextFigure);
+        for (String player : players) {
+            int column = FoxHoundUtils.getColumnNumber(player);
+            int row = FoxHoundUtils.getRowNumber(player);
+            if (column >= dimension || row >= dimension) throw new IllegalArgumentException("Coordinate outside the board: " + player);
+            int square = row * dimension + column;
+            if (squareSize(dimension) == 1) buffer.put((byte) square);
+            else buffer.putShort((short) square);
+        }
+        buffer.putInt(crc(buffer, start, buffer.position()));
+    }
+
+    /**
+     * Read a game in the binary format from a buffer
+     * @param players receives the loaded coordinates, its length must match the dimension
+     * @param dimension expected dimension of the game
+     * @param buffer game bytes at its position, the position is moved after them
+     * @return the next figure of the loaded game
+     * @throws IOException if the bytes are not a valid game of this dimension
+     * @throws NullPointerException if players or buffer is null
+     */
+    public static char decodeGame(String[] players, int dimension, ByteBuffer buffer) throws IOException, NullPointerException
+    {
+        if (players == null) throw new NullPointerException("Players list is null");
+        if (!FoxHoundUtils.checkInputDimension(dimension, false) || players.length != dimension / 2 + 1)
+            throw new IOException("Player list given does not match the dimension " + dimension);
+        if (buffer.remaining() < binarySize(dimension)) throw new IOException("Truncated game");
+
+        int start = buffer.position();
+        for (byte b : BINARY_MAGIC) {
+            if (buffer.get() != b) throw new IOException("Not a binary game");
+        }
+        int version = buffer.get() & 0xFF;
+        if (version != BINARY_VERSION) throw new IOException("Unsupported version " + version);
+        int loadedDimension = buffer.get() & 0xFF;
+        if (loadedDimension != dimension) throw new IOException("Game has dimension " + loadedDimension + ", expected " + dimension);
+        char loadedFigure = (char) (buffer.get() & 0xFF);
+        if (!FoxHoundUtils.checkInputFigure(loadedFigure, false)) throw new IOException("Invalid next figure");
+
+        //Check all squares before changing the players list
+        int first = buffer.position();
+        for (int i = 0; i < players.length; i++) {
+            int square = squareSize(dimension) == 1 ? buffer.get() & 0xFF : buffer.getShort() & 0xFFFF;
+            if (square >= dimension * dimension) throw new IOException("Square outside the board: " + square);
+        }
+        int crc = crc(buffer, start, buffer.position());
+        if (buffer.getInt() != crc) throw new IOException("Checksum mismatch");
+
+        for (int i = 0; i < players.length; i++) {
+            int square = squareSize(dimension) == 1 ? buffer.get(first + i) & 0xFF : buffer.getShort(first + 2 * i) & 0xFFFF;
+            players[i] = FoxHoundUtils.getPositionString(square % dimension, square / dimension);
+        }
+        return loadedFigure;
+    }
+
+    /** CRC32 of the bytes between two positions of a buffer. */
+    private static int crc(ByteBuffer buffer, int from, int to)
+    {
+        CRC32 crc = new CRC32();
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.limit(to).position(from);
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Save the game to a file in the binary format (any dimension)
+     * @param players
+     * @param nextFigure
+     * @param dimension
+     * @param filePath
+     * @return true if game is saved to a file, false otherwise
+     * @throws NullPointerException Path object is null
+     * @throws IllegalArgumentException the figure, dimension or players list is illegal
+     */
+    public static boolean saveGameBinary(String[] players, char nextFigure, int dimension, Path filePath)
+            throws NullPointerException, IllegalArgumentException
+    {
+        if (filePath == null) throw new NullPointerException("File path is not defined");
+        ByteBuffer buffer = ByteBuffer.allocate(binarySize(dimension));
+        encodeGame(players, nextFigure, dimension, buffer);
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            System.err.println("Failed to create the file: unexpected errors");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Load game from a file in the binary format (any dimension)
+     * @param players receives the loaded coordinates, its length must match the dimension
+     * @param dimension
+     * @param filePath
+     * @return return the next figure of the loaded game. (If {@value #LOAD_ERROR} is returned, it means the loading error)
+     * @throws NullPointerException File path or players is null
+     */
+    public static char loadGameBinary(String[] players, int dimension, Path filePath) throws NullPointerException
+    {
+        if (filePath == null) throw new NullPointerException("File path is not defined");
+        if (players == null) throw new NullPointerException("Players list is null");
+
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            if (!FoxHoundUtils.checkInputDimension(dimension, false) || channel.size() != binarySize(dimension))
+            {
+                System.err.println("Failed to read the file: invalid size");
+                return LOAD_ERROR;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(binarySize(dimension));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) throw new IOException("Truncated game");
+            }
+            buffer.flip();
+            return decodeGame(players, dimension, buffer);
+        } catch (IOException e) {
+            System.err.println("Failed to read the file: " + e.getMessage());
+            return LOAD_ERROR;
+        }
+    }
 }
@@ -0,0 +1,289 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only move journal of the fox hound program.
+ *
+ * A journal starts with the magic "FHJN", a version byte and a snapshot of
+ * the start position in the binary save format of {@link FoxHoundIO}. Every
+ * move played afterwards is appended as its origin and destination square,
+ * one byte each up to dimension {@value FoxHoundIO#MAX_BYTE_DIM} and two
+ * bytes above, so the file never has to be rewritten during a game.
+ *
+ * Moves are written to the file as soon as they are played, which keeps
+ * them if the program crashes. Forcing them to the disk is expensive and
+ * is done for a group of moves at once (group commit): at the move which
+ * makes {@value #DEFAULT_SYNC_MOVES} unforced moves or comes
+ * {@value #DEFAULT_SYNC_MILLIS} ms after the last force, and when the
+ * journal is closed. Both limits are checked when a move is appended, so a
+ * program which waits for input between moves calls {@link #sync} before
+ * waiting, otherwise the last moves stay unforced for the whole wait.
+ *
+ * A new journal is written to a temporary file and moved over the old one,
+ * so a crash while it is created keeps the old journal.
+ *
+ * Opening an existing journal replays it on a {@link FoxHoundBoard}. A torn
+ * record at the end, or a move which is not legal, ends the replay and is
+ * cut off, so the game continues from the last consistent position.
+ */
+public class FoxHoundJournal implements Closeable {
+
+    /** Moves after which the journal is forced to the disk if none is specified. */
+    public static final int DEFAULT_SYNC_MOVES = 16;
+    /** Time in milliseconds after which the journal is forced to the disk if none is specified. */
+    public static final long DEFAULT_SYNC_MILLIS = 1000;
+    /** Version of the journal format written by this program. */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'F', 'H', 'J', 'N'};
+    /** Bytes before the snapshot: magic and version. */
+    private static final int PREFIX_SIZE = 5;
+    /** Position of the dimension in the snapshot. */
+    private static final int SNAPSHOT_DIMENSION = 5;
+
+    private final FileChannel channel;
+    private final FoxHoundBoard board;
+    private final int squareSize;
+    private final ByteBuffer record;
+    private int moves;
+    private int syncMoves = DEFAULT_SYNC_MOVES;
+    private long syncMillis = DEFAULT_SYNC_MILLIS;
+    private int unsynced = 0;
+    private long lastSync = System.nanoTime();
+
+    private FoxHoundJournal(FileChannel channel, FoxHoundBoard board, int moves)
+    {
+        this.channel = channel;
+        this.board = board;
+        this.moves = moves;
+        this.squareSize = FoxHoundIO.squareSize(board.getDimension());
+        this.record = ByteBuffer.allocate(2 * squareSize);
+    }
+
+    /**
+     * Start a new journal, replacing an existing file
+     * @param filePath
+     * @param players start position, the fox last
+     * @param nextFigure figure to move first
+     * @param dimension
+     * @return journal positioned for appending moves
+     * @throws IOException if the file cannot be written
+     * @throws NullPointerException if filePath or players is null
+     * @throws IllegalArgumentException if the figure, dimension or players list is illegal
+     */
+    public static FoxHoundJournal create(Path filePath, String[] players, char nextFigure, int dimension)
+        throws IOException, NullPointerException, IllegalArgumentException
+    {
+        if (filePath == null) throw new NullPointerException("File path is not defined");
+        FoxHoundBoard board = FoxHoundBoard.fromPlayers(players, dimension, nextFigure);
+        ByteBuffer header = ByteBuffer.allocate(PREFIX_SIZE + FoxHoundIO.binarySize(dimension));
+        header.put(MAGIC).put((byte) VERSION);
+        FoxHoundIO.encodeGame(players, nextFigure, dimension, header);
+        header.flip();
+
+        Path temporary = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) channel.write(header);
+            //The start position must survive, otherwise no move can be replayed
+            channel.force(true);
+        }
+        try {
+            Files.move(temporary, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, filePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new FoxHoundJournal(channel, board, 0);
+    }
+
+    /**
+     * Open an existing journal and replay its moves
+     * @param filePath
+     * @return journal holding the replayed position, positioned for appending moves
+     * @throws IOException if the file cannot be read or its start position is invalid
+     * @throws NullPointerException if filePath is null
+     */
+    public static FoxHoundJournal open(Path filePath) throws IOException, NullPointerException
+    {
+        if (filePath == null) throw new NullPointerException("File path is not defined");
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Journal too large");
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) break;
+            }
+            buffer.flip();
+
+            if (buffer.remaining() < PREFIX_SIZE + SNAPSHOT_DIMENSION + 1) throw new IOException("Not a journal");
+            for (byte b : MAGIC) {
+                if (buffer.get() != b) throw new IOException("Not a journal");
+            }
+            int version = buffer.get() & 0xFF;
+            if (version != VERSION) throw new IOException("Unsupported version " + version);
+            int dimension = buffer.get(PREFIX_SIZE + SNAPSHOT_DIMENSION) & 0xFF;
+            if (!FoxHoundUtils.checkInputDimension(dimension, false)) throw new IOException("Invalid dimension " + dimension);
+            String[] players = new String[dimension / 2 + 1];
+            char nextFigure = FoxHoundIO.decodeGame(players, dimension, buffer);
+            FoxHoundBoard board;
+            try {
+                board = FoxHoundBoard.fromPlayers(players, dimension, nextFigure);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid start position: " + e.getMessage());
+            }
+
+            int moves = replay(board, buffer, FoxHoundIO.squareSize(dimension));
+            //Cut off a torn or invalid tail so that new moves follow the last valid one
+            channel.truncate(buffer.position());
+            channel.position(buffer.position());
+            return new FoxHoundJournal(channel, board, moves);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Replay the move records of a buffer while they are complete and legal
+     * @param board position before the first record, receives the position after the last valid one
+     * @param buffer records at its position, the position is moved after the last valid one
+     * @param squareSize bytes per square
+     * @return number of replayed moves
+     */
+    private static int replay(FoxHoundBoard board, ByteBuffer buffer, int squareSize)
+    {
+        int moves = 0;
+        while (buffer.remaining() >= 2 * squareSize && board.getStatus() == FoxHoundBoard.ONGOING) {
+            int start = buffer.position();
+            int origin = squareSize == 1 ? buffer.get() & 0xFF : buffer.getShort() & 0xFFFF;
+            int destination = squareSize == 1 ? buffer.get() & 0xFF : buffer.getShort() & 0xFFFF;
+            if (!board.isValidMove(board.getTurn(), origin, destination))
+            {
+                buffer.position(start);
+                break;
+            }
+            board.makeMove(FoxHoundBoard.packMove(origin, destination));
+            moves++;
+        }
+        return moves;
+    }
+
+    /**
+     * Set when appended moves are forced to the disk
+     * @param moves number of moves after which the journal is forced, 1 forces every move
+     * @param millis time after the last force after which the journal is forced at the next move
+     * @throws IllegalArgumentException if moves is not positive or millis is negative
+     */
+    public void setSync(int moves, long millis) throws IllegalArgumentException
+    {
+        if (moves < 1) throw new IllegalArgumentException("Number of moves must be positive");
+        if (millis < 0) throw new IllegalArgumentException("Time must not be negative");
+        this.syncMoves = moves;
+        this.syncMillis = millis;
+    }
+
+    /**
+     * Append a move of the figure to move
+     * @param origin coordinate of the figure
+     * @param destination coordinate to move to
+     * @throws IOException if the move cannot be written
+     * @throws IllegalArgumentException if the move is not legal in the journal position
+     */
+    public void append(String origin, String destination) throws IOException, IllegalArgumentException
+    {
+        int originSquare = squareOf(origin);
+        int destinationSquare = squareOf(destination);
+        if (!board.isValidMove(board.getTurn(), originSquare, destinationSquare))
+            throw new IllegalArgumentException(String.format("Move %s %s is not legal in the journal", origin, destination));
+
+        record.clear();
+        if (squareSize == 1) record.put((byte) originSquare).put((byte) destinationSquare);
+        else record.putShort((short) originSquare).putShort((short) destinationSquare);
+        record.flip();
+        while (record.hasRemaining()) channel.write(record);
+        board.makeMove(FoxHoundBoard.packMove(originSquare, destinationSquare));
+        moves++;
+
+        unsynced++;
+        if (unsynced >= syncMoves || System.nanoTime() - lastSync >= syncMillis * 1000000) sync();
+    }
+
+    /** Square of a coordinate, -1 if it is outside the board. */
+    private int squareOf(String position)
+    {
+        int column = FoxHoundUtils.getColumnNumber(position);
+        int row = FoxHoundUtils.getRowNumber(position);
+        int dimension = board.getDimension();
+        return column >= 0 && row >= 0 && column < dimension && row < dimension ? board.square(column, row) : -1;
+    }
+
+    /**
+     * Force all appended moves to the disk
+     * @throws IOException if forcing fails
+     */
+    public void sync() throws IOException
+    {
+        if (unsynced > 0) channel.force(false);
+        unsynced = 0;
+        lastSync = System.nanoTime();
+    }
+
+    /** @return dimension of the journal game */
+    public int getDimension()
+    {
+        return board.getDimension();
+    }
+
+    /** @return figure to move in the journal position */
+    public char getTurn()
+    {
+        return board.getTurn();
+    }
+
+    /** @return number of moves after the start position */
+    public int getMoveCount()
+    {
+        return moves;
+    }
+
+    /** @return players' coordinates of the journal position, hounds ordered by square, the fox last */
+    public String[] getPlayers()
+    {
+        return board.toPlayers();
+    }
+
+    /** @return copy of the journal position */
+    public FoxHoundBoard getBoard()
+    {
+        return board.copy();
+    }
+
+    /**
+     * Force the remaining moves to the disk and close the file
+     * @throws IOException if forcing or closing fails
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parallel game search of the fox hound program (Lazy SMP).
+ *
+ * Every thread runs the iterative deepening of its own {@link FoxHoundSearch}
+ * on the same root position. The threads share one lockless
+ * {@link FoxHoundTranspositionTable}, so results found by one thread cut
+ * the trees of the others. Every second helper starts one ply deeper than
+ * the main thread, which spreads the threads over neighbouring depths
+ * instead of searching the same tree in lock step.
+ *
+ * The calling thread is the main thread. When it finishes, the helpers are
+ * stopped and the move of the deepest completed iteration of any thread is
+ * returned, preferring the main thread on equal depth.
+ */
+public class FoxHoundLazySmp {
+
+    /** Board dimension of the speed report if none is specified. */
+    public static final int DEFAULT_REPORT_DIM = 12;
+    /** Search depth of the speed report if none is specified. */
+    public static final int DEFAULT_REPORT_DEPTH = 20;
+    /** Table size of the speed report in megabytes if none is specified. */
+    public static final int DEFAULT_REPORT_HASH_MB = 64;
+
+    /** Time between two stop requests while waiting for a helper. */
+    private static final long STOP_POLL_MILLIS = 1;
+    /** Time budget of a report search, large enough to reach the depth but without overflowing the clock. */
+    private static final long REPORT_MILLIS = 24L * 60 * 60 * 1000;
+    private static final String USAGE = "Usage: java FoxHoundLazySmp [--dimension n] [--depth n] [--threads n] [--hash megabytes]";
+    private static final String HEADER_MSG = "threads  depth  time to depth (ms)        nodes   nodes/s  speedup";
+    private static final String RESULT_MSG = "%7d %6d %18d %12d %9.0f %8.2f%n";
+
+    private final FoxHoundTranspositionTable table;
+    private final FoxHoundSearch[] searches;
+    private final int[] results;
+    private int bestScore;
+    private int completedDepth;
+    private long nodes;
+
+    /**
+     * Create a parallel search with a shared transposition table of the given size
+     * @param hashMegabytes size of the transposition table in megabytes
+     * @param threads number of searching threads including the calling thread
+     * @throws IllegalArgumentException if the size is out of range or threads is not positive
+     */
+    public FoxHoundLazySmp(int hashMegabytes, int threads) throws IllegalArgumentException
+    {
+        if (threads < 1) throw new IllegalArgumentException("Number of threads must be positive");
+        table = new FoxHoundTranspositionTable(hashMegabytes);
+        searches = new FoxHoundSearch[threads];
+        for (int t = 0; t < threads; t++) searches[t] = new FoxHoundSearch(table);
+        results = new int[threads];
+    }
+
+    /**
+     * Search the best move for the side to move within a time budget
+     * @param position position to search, it is not modified
+     * @param timeMillis time budget in milliseconds, at least depth one is always searched
+     * @return packed best move or {@link FoxHoundSearch#NO_MOVE} if the game is over
+     * @throws NullPointerException if position is null
+     * @throws IllegalArgumentException if timeMillis is negative
+     */
+    public int search(FoxHoundBoard position, long timeMillis) throws NullPointerException, IllegalArgumentException
+    {
+        return search(position, timeMillis, FoxHoundSearch.MAX_PLY);
+    }
+
+    /**
+     * Search the best move for the side to move within a time budget and a depth limit
+     * @param position position to search, it must not be modified during the search
+     * @param timeMillis time budget in milliseconds, at least depth one is always searched
+     * @param maxDepth maximum depth in plies (1 - {@value FoxHoundSearch#MAX_PLY})
+     * @return packed best move or {@link FoxHoundSearch#NO_MOVE} if the game is over
+     * @throws NullPointerException if position is null
+     * @throws IllegalArgumentException if timeMillis is negative or maxDepth is out of range
+     */
+    public int search(FoxHoundBoard position, long timeMillis, int maxDepth) throws NullPointerException, IllegalArgumentException
+    {
+        if (position == null) throw new NullPointerException("The position is null");
+        if (timeMillis < 0) throw new IllegalArgumentException("Time budget should not be negative");
+        if (maxDepth < 1 || maxDepth > FoxHoundSearch.MAX_PLY)
+            throw new IllegalArgumentException(String.format("Depth out of range (1-%d)", FoxHoundSearch.MAX_PLY));
+        table.newSearch();
+
+        Thread[] helpers = new Thread[searches.length - 1];
+        for (int t = 1; t < searches.length; t++) {
+            int thread = t;
+            int firstDepth = 1 + t % 2;
+            helpers[t - 1] = new Thread(() -> results[thread] = searches[thread].iterate(position, timeMillis, maxDepth, firstDepth),
+                "FoxHoundLazySmp-" + t);
+            helpers[t - 1].setDaemon(true);
+            helpers[t - 1].start();
+        }
+        results[0] = searches[0].iterate(position, timeMillis, maxDepth, 1);
+
+        //A helper clears its stop flag when it starts, so the request is repeated until it ended
+        for (int t = 1; t < searches.length; t++) {
+            try {
+                while (helpers[t - 1].isAlive()) {
+                    searches[t].stop();
+                    helpers[t - 1].join(STOP_POLL_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                for (FoxHoundSearch search : searches) search.stop();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        int best = 0;
+        nodes = 0;
+        for (int t = 0; t < searches.length; t++) {
+            nodes += searches[t].getNodes();
+            if (searches[t].getDepth() > searches[best].getDepth()) best = t;
+        }
+        bestScore = searches[best].getScore();
+        completedDepth = searches[best].getDepth();
+        return results[best];
+    }
+
+    /**
+     * Stop a running search as soon as possible. Can be called from any thread.
+     */
+    public void stop()
+    {
+        for (FoxHoundSearch search : searches) search.stop();
+    }
+
+    /** @return score of the last search from the view of the side to move */
+    public int getScore()
+    {
+        return bestScore;
+    }
+
+    /** @return depth of the deepest completed iteration of the last search */
+    public int getDepth()
+    {
+        return completedDepth;
+    }
+
+    /** @return number of nodes visited by all threads in the last search */
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    /** @return number of searching threads */
+    public int getThreads()
+    {
+        return searches.length;
+    }
+
+    /** @return transposition table shared by the threads */
+    public FoxHoundTranspositionTable getTable()
+    {
+        return table;
+    }
+
+    /**
+     * Print nodes per second and time to depth of the initial position for 1 to n threads
+     * @param args options, see the usage message
+     */
+    public static void main(String[] args)
+    {
+        int dimension = DEFAULT_REPORT_DIM;
+        int depth = DEFAULT_REPORT_DEPTH;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int hash = DEFAULT_REPORT_HASH_MB;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value of " + args[i]);
+                int value = Integer.parseInt(args[i + 1]);
+                switch (args[i]) {
+                    case "--dimension": dimension = value; break;
+                    case "--depth": depth = value; break;
+                    case "--threads": maxThreads = value; break;
+                    case "--hash": hash = value; break;
+                    default: throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            FoxHoundUtils.checkInputDimension(dimension, true);
+            if (maxThreads < 1) throw new IllegalArgumentException("Number of threads must be positive");
+
+            FoxHoundBoard board = FoxHoundBoard.initial(dimension);
+            System.out.printf("Initial position of dimension %d, depth %d, %d MB table%n", dimension, depth, hash);
+            System.out.println(HEADER_MSG);
+            //The first search also compiles the code, it is not reported
+            new FoxHoundLazySmp(hash, 1).search(board, REPORT_MILLIS, depth);
+            List<Long> times = new ArrayList<>();
+            for (int threads = 1; threads <= maxThreads; threads++) {
+                //Every thread count starts with an empty table
+                FoxHoundLazySmp search = new FoxHoundLazySmp(hash, threads);
+                long start = System.nanoTime();
+                search.search(board, REPORT_MILLIS, depth);
+                long nanos = Math.max(1, System.nanoTime() - start);
+                times.add(nanos);
+                System.out.printf(RESULT_MSG, threads, search.getDepth(), nanos / 1000000, search.getNodes(),
+                    search.getNodes() * 1e9 / nanos, (double) times.get(0) / nanos);
+            }
+        } catch (IllegalArgumentException e) {
+            //Also catches NumberFormatException
+            System.err.println("ERROR: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monte Carlo tree search player of the fox hound program.
+ *
+ * Several threads grow one shared tree. Each iteration selects a path by
+ * UCT, expands the leaf, plays a random game to the end (a playout) and
+ * adds the result to the nodes of the path. While a thread walks a path
+ * its nodes count as lost visits (virtual loss), so other threads prefer
+ * different paths.
+ *
+ * Nodes live in preallocated arrays and are never freed during a search.
+ * Statistics are updated with atomic operations and a node is expanded by
+ * the one thread which wins a compare-and-set, so no locks are needed.
+ * Playouts run on a board owned by each thread and allocate nothing.
+ */
+public class FoxHoundMcts {
+
+    /** Returned if the side to move has no move. */
+    public static final int NO_MOVE = -1;
+    /** Number of tree nodes if none is specified. */
+    public static final int DEFAULT_NODES = 1 << 20;
+
+    /** Exploration constant of UCT. */
+    private static final double EXPLORATION = 1.4;
+    /** Visits added while a thread walks through a node. */
+    private static final int VIRTUAL_LOSS = 3;
+    /** Iterations between two clock checks of a thread. */
+    private static final int CLOCK_INTERVAL = 63;
+
+    private static final int UNEXPANDED = 0;
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+
+    private final int threads;
+    private final int capacity;
+    private final int[] moves;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final AtomicIntegerArray states;
+    private final AtomicIntegerArray visits;
+    private final AtomicIntegerArray wins;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong playouts = new AtomicLong();
+    private final SplittableRandom random = new SplittableRandom();
+    private volatile boolean stopped;
+
+    /**
+     * Create a player using all processors and {@value #DEFAULT_NODES} nodes
+     */
+    public FoxHoundMcts()
+    {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_NODES);
+    }
+
+    /**
+     * Create a player
+     * @param threads number of threads growing the tree
+     * @param nodes maximum number of tree nodes, the tree stops growing when they are used up
+     * @throws IllegalArgumentException if threads is not positive or nodes cannot hold the root moves
+     */
+    public FoxHoundMcts(int threads, int nodes) throws IllegalArgumentException
+    {
+        if (threads < 1) throw new IllegalArgumentException("Number of threads must be positive");
+        if (nodes <= FoxHoundBoard.MAX_MOVES) throw new IllegalArgumentException("Number of nodes must exceed " + FoxHoundBoard.MAX_MOVES);
+        this.threads = threads;
+        this.capacity = nodes;
+        this.moves = new int[nodes];
+        this.firstChild = new int[nodes];
+        this.childCount = new int[nodes];
+        this.states = new AtomicIntegerArray(nodes);
+        this.visits = new AtomicIntegerArray(nodes);
+        this.wins = new AtomicIntegerArray(nodes);
+    }
+
+    /**
+     * Search the best move of a players array
+     * @param dimension the dimension of the game board
+     * @param players current position of all figures, the fox last
+     * @param turn figure to move
+     * @param timeMillis time budget in milliseconds
+     * @return coordinates {origin, destination} or null if the figure cannot move
+     * @throws NullPointerException if players is null
+     * @throws IllegalArgumentException if the position is invalid or timeMillis is negative
+     */
+    public String[] search(int dimension, String[] players, char turn, long timeMillis)
+        throws IllegalArgumentException, NullPointerException
+    {
+        int move = search(FoxHoundBoard.fromPlayers(players, dimension, turn), timeMillis, Long.MAX_VALUE);
+        if (move == NO_MOVE) return null;
+        return new String[]{FoxHoundUtils.getMoveOrigin(move, dimension), FoxHoundUtils.getMoveDestination(move, dimension)};
+    }
+
+    /**
+     * Search the best move within a time budget and a playout limit
+     * @param position position to search, it is not modified
+     * @param timeMillis time budget in milliseconds
+     * @param maxPlayouts the search stops after about this many playouts
+     * @return packed best move or {@link #NO_MOVE} if the game is over
+     * @throws NullPointerException if position is null
+     * @throws IllegalArgumentException if timeMillis or maxPlayouts are negative
+     */
+    public int search(FoxHoundBoard position, long timeMillis, long maxPlayouts)
+        throws IllegalArgumentException, NullPointerException
+    {
+        if (position == null) throw new NullPointerException("The position is null");
+        if (timeMillis < 0 || maxPlayouts < 0) throw new IllegalArgumentException("Budget should not be negative");
+        if (position.getStatus() != FoxHoundBoard.ONGOING) return NO_MOVE;
+
+        //Only the used part of the arrays needs to be reset
+        int used = Math.min(size.get(), capacity);
+        for (int node = 0; node < used; node++) {
+            states.set(node, UNEXPANDED);
+            visits.set(node, 0);
+            wins.set(node, 0);
+        }
+        size.set(1);
+        playouts.set(0);
+        stopped = false;
+        long deadline = System.nanoTime() + timeMillis * 1000000L;
+
+        //The root is expanded first, so that every search knows the moves
+        Worker main = new Worker(position, random.split(), deadline, maxPlayouts);
+        states.set(0, EXPANDING);
+        main.expand(0);
+
+        Thread[] workers = new Thread[threads - 1];
+        for (int t = 0; t < workers.length; t++) {
+            Worker worker = new Worker(position, random.split(), deadline, maxPlayouts);
+            workers[t] = new Thread(worker, "FoxHoundMcts-" + t);
+            workers[t].setDaemon(true);
+            workers[t].start();
+        }
+        main.run();
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                stopped = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        //The most visited move is the most reliable one
+        int best = NO_MOVE;
+        int bestVisits = -1;
+        for (int child = firstChild[0]; child < firstChild[0] + childCount[0]; child++) {
+            if (visits.get(child) > bestVisits)
+            {
+                bestVisits = visits.get(child);
+                best = moves[child];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Stop a running search as soon as possible. Can be called from any thread.
+     */
+    public void stop()
+    {
+        stopped = true;
+    }
+
+    /** @return number of playouts of the last search */
+    public long getPlayouts()
+    {
+        return playouts.get();
+    }
+
+    /** @return number of tree nodes of the last search */
+    public int getNodes()
+    {
+        return Math.min(size.get(), capacity);
+    }
+
+    /**
+     * @return share of the playouts through the best root move won by the side to move
+     */
+    public double getWinRate()
+    {
+        int bestVisits = 0;
+        int bestWins = 0;
+        for (int child = firstChild[0]; child < firstChild[0] + childCount[0]; child++) {
+            if (visits.get(child) > bestVisits)
+            {
+                bestVisits = visits.get(child);
+                bestWins = wins.get(child);
+            }
+        }
+        return bestVisits == 0 ? 0 : (double) bestWins / bestVisits;
+    }
+
+    /** One thread growing the tree with its own board and random numbers. */
+    private class Worker implements Runnable {
+
+        private final FoxHoundBoard root;
+        private final FoxHoundBoard board;
+        private final SplittableRandom random;
+        private final long deadline;
+        private final long maxPlayouts;
+        private final char rootTurn;
+        private final int[] path;
+        private final int[] buffer = new int[FoxHoundBoard.MAX_MOVES];
+
+        Worker(FoxHoundBoard root, SplittableRandom random, long deadline, long maxPlayouts)
+        {
+            this.root = root;
+            this.board = root.copy();
+            this.random = random;
+            this.deadline = deadline;
+            this.maxPlayouts = maxPlayouts;
+            this.rootTurn = root.getTurn();
+            //Every hound can move at most dimension - 1 times, the fox moves in between
+            int maxPlies = 2 * root.getHoundCount() * (root.getDimension() - 1) + 1;
+            this.path = new int[maxPlies + 1];
+        }
+
+        @Override
+        public void run()
+        {
+            //The first playout is always made, so that every root move can get a visit
+            for (long iteration = 0; !stopped && playouts.get() < maxPlayouts; iteration++) {
+                if (iteration > 0 && (iteration & CLOCK_INTERVAL) == 0 && System.nanoTime() > deadline) break;
+                iterate();
+            }
+        }
+
+        private void iterate()
+        {
+            board.copyFrom(root);
+            int node = 0;
+            int length = 0;
+            path[length++] = node;
+            visits.addAndGet(node, VIRTUAL_LOSS);
+
+            //Selection, applying the moves of the path to the board
+            while (states.get(node) == EXPANDED && childCount[node] > 0) {
+                node = select(node);
+                board.makeMove(moves[node]);
+                path[length++] = node;
+                visits.addAndGet(node, VIRTUAL_LOSS);
+            }
+
+            //Expansion of a visited leaf, by one thread only
+            if (board.getStatus() == FoxHoundBoard.ONGOING && visits.get(node) > VIRTUAL_LOSS
+                && states.compareAndSet(node, UNEXPANDED, EXPANDING))
+            {
+                expand(node);
+                if (childCount[node] > 0)
+                {
+                    node = firstChild[node] + random.nextInt(childCount[node]);
+                    board.makeMove(moves[node]);
+                    path[length++] = node;
+                    visits.addAndGet(node, VIRTUAL_LOSS);
+                }
+            }
+
+            boolean foxWins = playout();
+            playouts.incrementAndGet();
+
+            //Each node counts the wins of the side which made its move, the side to move at the root for odd depths
+            boolean rootFox = rootTurn == FoxHoundUtils.FOX_FIELD;
+            for (int i = 0; i < length; i++) {
+                int current = path[i];
+                visits.addAndGet(current, 1 - VIRTUAL_LOSS);
+                boolean moverFox = (i % 2 == 1) == rootFox;
+                if (i > 0 && foxWins == moverFox) wins.incrementAndGet(current);
+            }
+        }
+
+        private int select(int node)
+        {
+            int first = firstChild[node];
+            int count = childCount[node];
+            double logParent = Math.log(Math.max(1, visits.get(node)));
+            int best = first;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            //The scan starts at a random child, so ties such as unvisited children are broken at random
+            int start = random.nextInt(count);
+            for (int i = 0; i < count; i++) {
+                int child = first + (start + i) % count;
+                int n = visits.get(child);
+                //Unvisited children first
+                double score = n == 0 ? Double.POSITIVE_INFINITY
+                    : (double) wins.get(child) / n + EXPLORATION * Math.sqrt(logParent / n);
+                if (score > bestScore)
+                {
+                    bestScore = score;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        private void expand(int node)
+        {
+            int count = board.generateMoves(buffer);
+            //A full tree keeps the node as a leaf, it stays marked as expanding and is never tried again
+            if (size.get() + count > capacity) return;
+            int first = size.getAndAdd(count);
+            if (first + count > capacity) return;
+            for (int i = 0; i < count; i++) moves[first + i] = buffer[i];
+            firstChild[node] = first;
+            childCount[node] = count;
+            states.set(node, EXPANDED);
+        }
+
+        /**
+         * Play random moves to the end, the fox takes a winning move if it has one
+         * @return true if the fox wins
+         */
+        private boolean playout()
+        {
+            int status = board.getStatus();
+            while (status == FoxHoundBoard.ONGOING) {
+                int count = board.generateMoves(buffer);
+                int move = buffer[random.nextInt(count)];
+                if (board.getTurn() == FoxHoundUtils.FOX_FIELD)
+                {
+                    for (int i = 0; i < count; i++) {
+                        if (board.row(FoxHoundBoard.getMoveDestination(buffer[i])) == 0) move = buffer[i];
+                    }
+                }
+                board.makeMove(move);
+                status = board.getStatus();
+            }
+            return status == FoxHoundBoard.FOX_WIN;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Precomputed neighbour tables of the fox hound program.
+ *
+ * For every board dimension the squares a figure can step to are stored
+ * in a flat array, so that finding the neighbours of a square needs no
+ * bounds checks and never builds coordinates outside the board. Squares
+ * are numbered row * dimension + column (zero-based) as in {@link FoxHoundBoard}.
+ */
+public class FoxHoundNeighbours {
+
+    /** Number of diagonal neighbours stored per square for the fox. */
+    public static final int FOX_STEPS = 4;
+    /** Number of diagonal neighbours stored per square for a hound. */
+    public static final int HOUND_STEPS = 2;
+    /** Entry of a neighbour which lies outside the board. */
+    public static final int NONE = -1;
+
+    /** Fox neighbours per dimension: up-left, up-right, down-left, down-right. */
+    private static final int[][] FOX_TABLES = new int[FoxHoundUtils.MAX_DIM + 1][];
+    /** Hound neighbours per dimension: down-left, down-right. */
+    private static final int[][] HOUND_TABLES = new int[FoxHoundUtils.MAX_DIM + 1][];
+
+    static {
+        for (int dimension = FoxHoundUtils.MIN_DIM; dimension <= FoxHoundUtils.MAX_DIM; dimension++) {
+            int squares = dimension * dimension;
+            int[] fox = new int[squares * FOX_STEPS];
+            int[] hound = new int[squares * HOUND_STEPS];
+            for (int square = 0; square < squares; square++) {
+                int column = square % dimension;
+                int row = square / dimension;
+                fox[square * FOX_STEPS] = neighbour(dimension, column - 1, row - 1);
+                fox[square * FOX_STEPS + 1] = neighbour(dimension, column + 1, row - 1);
+                fox[square * FOX_STEPS + 2] = neighbour(dimension, column - 1, row + 1);
+                fox[square * FOX_STEPS + 3] = neighbour(dimension, column + 1, row + 1);
+                hound[square * HOUND_STEPS] = fox[square * FOX_STEPS + 2];
+                hound[square * HOUND_STEPS + 1] = fox[square * FOX_STEPS + 3];
+            }
+            FOX_TABLES[dimension] = fox;
+            HOUND_TABLES[dimension] = hound;
+        }
+    }
+
+    /**
+     * Get the fox neighbour table of a dimension. The neighbours of a square
+     * are stored at square * {@value #FOX_STEPS} and the following entries.
+     * Caution: the table is shared and must not be modified
+     * @param dimension
+     * @return neighbour table, {@value #NONE} for neighbours outside the board
+     * @throws IllegalArgumentException if dimension is out of range
+     */
+    public static int[] foxTable(int dimension) throws IllegalArgumentException
+    {
+        FoxHoundUtils.checkInputDimension(dimension, true);
+        return FOX_TABLES[dimension];
+    }
+
+    /**
+     * Get the hound neighbour table of a dimension. The neighbours of a square
+     * are stored at square * {@value #HOUND_STEPS} and the following entry.
+     * Caution: the table is shared and must not be modified
+     * @param dimension
+     * @return neighbour table, {@value #NONE} for neighbours outside the board
+     * @throws IllegalArgumentException if dimension is out of range
+     */
+    public static int[] houndTable(int dimension) throws IllegalArgumentException
+    {
+        FoxHoundUtils.checkInputDimension(dimension, true);
+        return HOUND_TABLES[dimension];
+    }
+
+    private static int neighbour(int dimension, int column, int row)
+    {
+        if (column < 0 || column >= dimension || row < 0 || row >= dimension) return NONE;
+        return row * dimension + column;
+    }
+}
@@ -0,0 +1,130 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free array of 2 bit values shared by the threads of
+ * {@link FoxHoundParallelSolver}.
+ *
+ * Values are packed 32 to a long. Neighbouring values may be written by
+ * different threads, so every write is a compare-and-set loop on its long.
+ * In files the longs are stored little-endian, i.e. value i is found in
+ * byte i / 4 at bit (i % 4) * 2, as read by {@link FoxHoundTablebase}.
+ */
+public class FoxHoundPackedStore {
+
+    /** Number of bits per value. */
+    public static final int BITS = 2;
+
+    private static final int VALUES_PER_WORD = Long.SIZE / BITS;
+    private static final int WORD_SHIFT = 5;
+    private static final long VALUE_MASK = (1L << BITS) - 1;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final long size;
+    private final AtomicLongArray words;
+
+    /**
+     * Create a store of zero values
+     * @param size number of values
+     * @throws IllegalArgumentException if size is negative or too large
+     */
+    public FoxHoundPackedStore(long size) throws IllegalArgumentException
+    {
+        long words = (size + VALUES_PER_WORD - 1) >>> WORD_SHIFT;
+        if (size < 0 || words > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Store size out of range: " + size);
+        this.size = size;
+        this.words = new AtomicLongArray((int) words);
+    }
+
+    /** @return number of values */
+    public long size()
+    {
+        return size;
+    }
+
+    /** @return number of bytes of the values in a file */
+    public long bytes()
+    {
+        return (size + 3) / 4;
+    }
+
+    /**
+     * @param index value index
+     * @return value (0 - 3)
+     */
+    public int get(long index)
+    {
+        int shift = (int) (index & (VALUES_PER_WORD - 1)) * BITS;
+        return (int) (words.get((int) (index >>> WORD_SHIFT)) >>> shift & VALUE_MASK);
+    }
+
+    /**
+     * Replace a value, other values of the same long may be written concurrently
+     * @param index value index
+     * @param value new value (0 - 3)
+     */
+    public void set(long index, int value)
+    {
+        int word = (int) (index >>> WORD_SHIFT);
+        int shift = (int) (index & (VALUES_PER_WORD - 1)) * BITS;
+        long bits = (value & VALUE_MASK) << shift;
+        long old;
+        do {
+            old = words.get(word);
+        } while (!words.compareAndSet(word, old, (old & ~(VALUE_MASK << shift)) | bits));
+    }
+
+    /**
+     * Write all values at the current position of a channel
+     * @param channel open channel
+     * @throws IOException if writing fails
+     */
+    public void write(FileChannel channel) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long remaining = bytes();
+        for (int w = 0; w < words.length(); w++) {
+            buffer.putLong(words.get(w));
+            if (!buffer.hasRemaining() || w == words.length() - 1)
+            {
+                buffer.flip();
+                //The last long may hold bytes beyond the values
+                if (buffer.remaining() > remaining) buffer.limit((int) remaining);
+                remaining -= buffer.remaining();
+                while (buffer.hasRemaining()) channel.write(buffer);
+                buffer.clear();
+            }
+        }
+    }
+
+    /**
+     * Read all values from the current position of a channel
+     * @param channel open channel
+     * @throws IOException if reading fails or the channel ends early
+     */
+    public void read(FileChannel channel) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long remaining = bytes();
+        int w = 0;
+        while (remaining > 0) {
+            buffer.clear();
+            if (buffer.remaining() > remaining) buffer.limit((int) remaining);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) throw new IOException("Unexpected end of file");
+            }
+            remaining -= buffer.limit();
+            buffer.flip();
+            while (buffer.remaining() >= Long.BYTES) words.set(w++, buffer.getLong());
+            //Bytes of the last, partial long
+            long last = 0;
+            for (int shift = 0; buffer.hasRemaining(); shift += Byte.SIZE) {
+                last |= (buffer.get() & 0xFFL) << shift;
+            }
+            if (w < words.length() && remaining == 0) words.set(w, last);
+        }
+    }
+}
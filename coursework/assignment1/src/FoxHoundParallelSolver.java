@@ -0,0 +1,397 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-threaded retrograde solver of the fox hound game for large dimensions.
+ *
+ * Positions are solved in the same layers as in {@link FoxHoundSolver}.
+ * The hound configurations of one layer only depend on the layer before,
+ * so each layer is split into ranges of configurations which are solved
+ * by the threads of a {@link ForkJoinPool}. Only the winner is stored, in
+ * a {@link FoxHoundPackedStore} of 2 bits per position, which keeps the
+ * 12x12 board at about 5.6 GB.
+ *
+ * After a layer the solver can write a checkpoint holding the store and
+ * the next layer. A solver given the same checkpoint file continues from
+ * there instead of starting again.
+ */
+public class FoxHoundParallelSolver {
+
+    /** Magic bytes at the start of every checkpoint file. */
+    public static final String CHECKPOINT_MAGIC = "FHCP";
+    /** Time between two checkpoints in milliseconds if none is specified. */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 5 * 60 * 1000;
+    /** Time between two progress reports in milliseconds if none is specified. */
+    public static final long DEFAULT_PROGRESS_INTERVAL = 10 * 1000;
+
+    private static final int CHECKPOINT_VERSION = 1;
+    /** Magic (4), version (1), dimension (1), reserved (2), next layer (4), entries (8). */
+    private static final int CHECKPOINT_HEADER_BYTES = 20;
+    /** Configurations solved by one task without splitting further. */
+    private static final int LEAF_CONFIGURATIONS = 256;
+    private static final String USAGE =
+        "Usage: java FoxHoundParallelSolver <dimension> <output file> [--threads n] [--checkpoint file]";
+
+    private final FoxHoundTablebaseIndex index;
+    private final int dimension;
+    private final int threads;
+    private final int[] foxNeighbours;
+    private final int[] houndNeighbours;
+    private final FoxHoundPackedStore store;
+    private final AtomicLong solvedConfigurations = new AtomicLong();
+    private Path checkpoint;
+    private long checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+    private PrintStream progress;
+    private long progressInterval = DEFAULT_PROGRESS_INTERVAL;
+    /** Layer to solve next, -1 if all are solved. */
+    private int nextLayer;
+    private boolean started;
+
+    /**
+     * Create a solver
+     * @param dimension dimension of the board to solve
+     * @param threads number of worker threads
+     * @throws IllegalArgumentException if dimension or threads are out of range
+     */
+    public FoxHoundParallelSolver(int dimension, int threads) throws IllegalArgumentException
+    {
+        if (threads < 1) throw new IllegalArgumentException("Number of threads must be positive");
+        this.index = new FoxHoundTablebaseIndex(dimension);
+        this.dimension = dimension;
+        this.threads = threads;
+        this.foxNeighbours = FoxHoundNeighbours.foxTable(dimension);
+        this.houndNeighbours = FoxHoundNeighbours.houndTable(dimension);
+        this.store = new FoxHoundPackedStore(index.size());
+    }
+
+    /** @return numbering of the positions */
+    public FoxHoundTablebaseIndex getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * Write checkpoints to a file and resume from it if it exists
+     * @param path checkpoint file, null to disable checkpoints
+     * @param intervalMillis least time between two checkpoints, 0 to write one after every layer
+     */
+    public void setCheckpoint(Path path, long intervalMillis)
+    {
+        this.checkpoint = path;
+        this.checkpointInterval = Math.max(0, intervalMillis);
+    }
+
+    /**
+     * Report the progress while solving
+     * @param out stream to print to, null to be silent
+     * @param intervalMillis time between two reports within a layer
+     */
+    public void setProgress(PrintStream out, long intervalMillis)
+    {
+        this.progress = out;
+        this.progressInterval = Math.max(1, intervalMillis);
+    }
+
+    /**
+     * Solve all positions, continuing from the checkpoint if there is one
+     * @throws IOException if the checkpoint cannot be read or written
+     */
+    public void solve() throws IOException
+    {
+        solveUntil(0);
+    }
+
+    /**
+     * Solve the layers down to the given row sum
+     * @param lowestLayer last layer to solve
+     * @throws IOException if the checkpoint cannot be read or written
+     */
+    void solveUntil(int lowestLayer) throws IOException
+    {
+        long[][] layers = FoxHoundSolver.layers(index);
+        if (!started)
+        {
+            nextLayer = layers.length - 1;
+            if (checkpoint != null && Files.exists(checkpoint)) readCheckpoint();
+            started = true;
+        }
+        if (nextLayer < lowestLayer) return;
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            long lastCheckpoint = start;
+            while (nextLayer >= lowestLayer) {
+                long[] layer = layers[nextLayer];
+                solvedConfigurations.set(0);
+                ForkJoinTask<Void> task = pool.submit(new LayerTask(layer, 0, layer.length));
+                while (!waitFor(task)) {
+                    report("Layer %d: %d of %d configurations%n", nextLayer, solvedConfigurations.get(), layer.length);
+                }
+                nextLayer--;
+                long now = System.nanoTime();
+                report("Layer %d solved, %d layers left, %d s%n", nextLayer + 1, nextLayer + 1,
+                    TimeUnit.NANOSECONDS.toSeconds(now - start));
+                if (checkpoint != null && (nextLayer < 0 || now - lastCheckpoint >= TimeUnit.MILLISECONDS.toNanos(checkpointInterval)))
+                {
+                    writeCheckpoint();
+                    lastCheckpoint = now;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Wait for a layer until the next progress report, return true if it is solved. */
+    private boolean waitFor(ForkJoinTask<Void> task) throws IOException
+    {
+        try {
+            task.get(progressInterval, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Solver was interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Solving a layer failed", e.getCause());
+        }
+    }
+
+    private void report(String format, Object... args)
+    {
+        if (progress != null) progress.printf(format, args);
+    }
+
+    /** Solves a range of the configurations of one layer, split into halves while it is large. */
+    private class LayerTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] layer;
+        private final int from;
+        private final int to;
+
+        LayerTask(long[] layer, int from, int to)
+        {
+            this.layer = layer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > LEAF_CONFIGURATIONS)
+            {
+                int middle = (from + to) >>> 1;
+                invokeAll(new LayerTask(layer, from, middle), new LayerTask(layer, middle, to));
+                return;
+            }
+            int[] combination = new int[index.getHoundCount()];
+            boolean[] occupied = new boolean[dimension * dimension];
+            long[] childRanks = new long[FoxHoundBoard.MAX_MOVES];
+            int[] childSquares = new int[FoxHoundBoard.MAX_MOVES];
+            for (int i = from; i < to; i++) {
+                solveConfiguration(layer[i], combination, occupied, childRanks, childSquares);
+            }
+            solvedConfigurations.addAndGet(to - from);
+        }
+    }
+
+    private void solveConfiguration(long rank, int[] combination, boolean[] occupied,
+                                    long[] childRanks, int[] childSquares)
+    {
+        int houndCount = index.getHoundCount();
+        index.unrank(rank, combination);
+        for (int i = 0; i < houndCount; i++) occupied[index.houndSquare(combination[i])] = true;
+
+        int moves = 0;
+        for (int i = 0; i < houndCount; i++) {
+            int square = index.houndSquare(combination[i]);
+            for (int k = 0; k < FoxHoundNeighbours.HOUND_STEPS; k++) {
+                int destination = houndNeighbours[square * FoxHoundNeighbours.HOUND_STEPS + k];
+                if (destination == FoxHoundNeighbours.NONE || occupied[destination]) continue;
+                childRanks[moves] = index.rankAfterMove(combination, i, index.houndIndexOf(destination));
+                childSquares[moves++] = destination;
+            }
+        }
+
+        int foxSquares = index.getFoxSquareCount();
+        for (int f = 0; f < foxSquares; f++) {
+            int fox = index.foxSquare(f);
+            if (occupied[fox]) continue;
+            int winner = terminal(fox, occupied);
+            if (winner == FoxHoundBoard.ONGOING)
+            {
+                //The hounds win if one of their moves wins, and lose if they cannot move
+                winner = FoxHoundBoard.FOX_WIN;
+                for (int m = 0; m < moves && winner == FoxHoundBoard.FOX_WIN; m++) {
+                    if (childSquares[m] == fox) continue;
+                    winner = store.get(index.index(childRanks[m], f, FoxHoundTablebaseIndex.FOX_SIDE));
+                }
+            }
+            store.set(index.index(rank, f, FoxHoundTablebaseIndex.HOUND_SIDE), winner);
+        }
+        for (int f = 0; f < foxSquares; f++) {
+            int fox = index.foxSquare(f);
+            if (occupied[fox]) continue;
+            int winner = terminal(fox, occupied);
+            if (winner == FoxHoundBoard.ONGOING)
+            {
+                winner = FoxHoundBoard.HOUND_WIN;
+                for (int k = 0; k < FoxHoundNeighbours.FOX_STEPS && winner == FoxHoundBoard.HOUND_WIN; k++) {
+                    int destination = foxNeighbours[fox * FoxHoundNeighbours.FOX_STEPS + k];
+                    if (destination == FoxHoundNeighbours.NONE || occupied[destination]) continue;
+                    winner = store.get(index.index(rank, index.foxIndexOf(destination), FoxHoundTablebaseIndex.HOUND_SIDE));
+                }
+            }
+            store.set(index.index(rank, f, FoxHoundTablebaseIndex.FOX_SIDE), winner);
+        }
+
+        for (int i = 0; i < houndCount; i++) occupied[index.houndSquare(combination[i])] = false;
+    }
+
+    /** Winner of a finished game as in {@link FoxHoundBoard#getStatus()}, or ongoing. */
+    private int terminal(int fox, boolean[] occupied)
+    {
+        if (fox < dimension) return FoxHoundBoard.FOX_WIN;
+        for (int k = 0; k < FoxHoundNeighbours.FOX_STEPS; k++) {
+            int destination = foxNeighbours[fox * FoxHoundNeighbours.FOX_STEPS + k];
+            if (destination != FoxHoundNeighbours.NONE && !occupied[destination]) return FoxHoundBoard.ONGOING;
+        }
+        return FoxHoundBoard.HOUND_WIN;
+    }
+
+    /**
+     * Read the winner of a solved position
+     * @param position position index, see {@link FoxHoundTablebaseIndex}
+     * @return {@link FoxHoundBoard#FOX_WIN}, {@link FoxHoundBoard#HOUND_WIN} or
+     * {@link FoxHoundBoard#ONGOING} if the position is not solved
+     */
+    public int get(long position)
+    {
+        return store.get(position);
+    }
+
+    /**
+     * Write the solved positions as a tablebase file of 2 bit entries
+     * @param path path of the file, replaced if it exists
+     * @throws IOException if writing fails
+     * @throws IllegalStateException if the positions are not solved yet
+     */
+    public void write(Path path) throws IOException, IllegalStateException
+    {
+        if (!started || nextLayer >= 0) throw new IllegalStateException("Positions are not solved yet");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = FoxHoundTablebase.header(dimension, FoxHoundTablebase.WINNER_BITS, store.size());
+            while (header.hasRemaining()) channel.write(header);
+            store.write(channel);
+        }
+    }
+
+    /** Write the checkpoint to a temporary file first, so a crash never leaves a broken checkpoint. */
+    private void writeCheckpoint() throws IOException
+    {
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(CHECKPOINT_HEADER_BYTES);
+            header.put(CHECKPOINT_MAGIC.getBytes(StandardCharsets.US_ASCII));
+            header.put((byte) CHECKPOINT_VERSION);
+            header.put((byte) dimension);
+            header.putShort((short) 0);
+            header.putInt(nextLayer);
+            header.putLong(store.size());
+            header.flip();
+            while (header.hasRemaining()) channel.write(header);
+            store.write(channel);
+            channel.force(true);
+        }
+        try {
+            Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, checkpoint, StandardCopyOption.REPLACE_EXISTING);
+        }
+        report("Checkpoint written, next layer %d%n", nextLayer);
+    }
+
+    private void readCheckpoint() throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(CHECKPOINT_HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) throw new IOException("Checkpoint header is truncated");
+            }
+            header.flip();
+            byte[] magic = new byte[CHECKPOINT_MAGIC.length()];
+            header.get(magic);
+            if (!CHECKPOINT_MAGIC.equals(new String(magic, StandardCharsets.US_ASCII))) throw new IOException("Not a checkpoint file");
+            if (header.get() != CHECKPOINT_VERSION) throw new IOException("Unsupported checkpoint version");
+            if (header.get() != dimension) throw new IOException("Checkpoint belongs to another dimension");
+            header.getShort();
+            int layer = header.getInt();
+            if (header.getLong() != store.size() || layer < -1 || layer > nextLayer) throw new IOException("Checkpoint is corrupt");
+            store.read(channel);
+            nextLayer = layer;
+        }
+        report("Resuming from checkpoint, next layer %d%n", nextLayer);
+    }
+
+    /**
+     * Solve a dimension on all cores and write its tablebase file
+     * @param args dimension, path of the output file and options
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 2)
+        {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        try {
+            int dimension = Integer.parseInt(args[0]);
+            int threads = Runtime.getRuntime().availableProcessors();
+            Path checkpoint = null;
+            for (int i = 2; i + 1 < args.length; i += 2) {
+                if (args[i].equals("--threads")) threads = Integer.parseInt(args[i + 1]);
+                else if (args[i].equals("--checkpoint")) checkpoint = Paths.get(args[i + 1]);
+                else throw new NumberFormatException();
+            }
+            FoxHoundParallelSolver solver = new FoxHoundParallelSolver(dimension, threads);
+            solver.setCheckpoint(checkpoint, DEFAULT_CHECKPOINT_INTERVAL);
+            solver.setProgress(System.out, DEFAULT_PROGRESS_INTERVAL);
+            System.out.printf("Solving %d positions with %d threads%n", solver.index.size(), threads);
+            solver.solve();
+            solver.write(Paths.get(args[1]));
+
+            int winner = solver.get(solver.index.index(FoxHoundBoard.initial(dimension)));
+            System.out.printf("Start position: %s win%n", winner == FoxHoundBoard.FOX_WIN ? "Fox" : "Hounds");
+        } catch (NumberFormatException e) {
+            System.err.println(USAGE);
+            System.exit(1);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
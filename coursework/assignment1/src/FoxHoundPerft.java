@@ -0,0 +1,255 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Move path counter (perft) of the fox hound program.
+ *
+ * Counts the positions reached after exactly N plies from a position.
+ * Finished games are not continued, as in the game loop. The counts
+ * are fixed numbers, so they check the move generator of
+ * {@link FoxHoundBoard} and measure its speed. In verify mode every
+ * generated move list is compared with the moves accepted by
+ * {@link FoxHoundUtils#isValidMove}, which is much slower but proves that
+ * both agree on every position of the tree.
+ */
+public class FoxHoundPerft {
+
+    private static final String USAGE = "Usage: java FoxHoundPerft <depth> [--dimension n] [--load file]"
+        + " [--threads n] [--divide] [--verify]";
+    private static final String MOVE_MSG = "%s %s: %d%n";
+    private static final String RESULT_MSG = "Depth %d: %d positions in %d ms (%.0f positions/s)%n";
+
+    /**
+     * Count the positions after a number of plies
+     * @param board start position, it is restored before returning
+     * @param depth number of plies
+     * @return number of positions
+     * @throws IllegalArgumentException if depth is negative
+     */
+    public static long perft(FoxHoundBoard board, int depth) throws IllegalArgumentException
+    {
+        if (depth < 0) throw new IllegalArgumentException("Depth should not be negative");
+        return count(board, depth, new int[depth + 1][FoxHoundBoard.MAX_MOVES]);
+    }
+
+    private static long count(FoxHoundBoard board, int depth, int[][] moves)
+    {
+        if (depth == 0) return 1;
+        if (board.getStatus() != FoxHoundBoard.ONGOING) return 0;
+        int[] buffer = moves[depth];
+        int count = board.generateMoves(buffer);
+        //Every move of the last ply ends in exactly one position
+        if (depth == 1) return count;
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(buffer[i]);
+            total += count(board, depth - 1, moves);
+            board.unmakeMove(buffer[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Count the positions after each move of a position, the root moves are shared between threads
+     * @param board start position, it is not modified
+     * @param depth number of plies including the root move, at least 1
+     * @param threads number of threads
+     * @param moves buffer receiving the root moves, at least {@link FoxHoundBoard#MAX_MOVES} long
+     * @param counts buffer receiving the number of positions after each root move
+     * @return number of root moves
+     * @throws IllegalArgumentException if depth or threads are out of range
+     */
+    public static int divide(FoxHoundBoard board, int depth, int threads, int[] moves, long[] counts)
+        throws IllegalArgumentException
+    {
+        if (depth < 1) throw new IllegalArgumentException("Depth must be at least 1");
+        if (threads < 1) throw new IllegalArgumentException("Number of threads must be positive");
+        if (board.getStatus() != FoxHoundBoard.ONGOING) return 0;
+        int count = board.generateMoves(moves);
+
+        if (threads == 1)
+        {
+            FoxHoundBoard copy = board.copy();
+            for (int i = 0; i < count; i++) {
+                copy.makeMove(moves[i]);
+                counts[i] = perft(copy, depth - 1);
+                copy.unmakeMove(moves[i]);
+            }
+            return count;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, count));
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                FoxHoundBoard copy = board.copy();
+                copy.makeMove(moves[i]);
+                results.add(pool.submit(() -> perft(copy, depth - 1)));
+            }
+            for (int i = 0; i < count; i++) counts[i] = results.get(i).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Perft was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Perft failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return count;
+    }
+
+    /**
+     * Count the positions like {@link #perft(FoxHoundBoard, int)}, checking every
+     * generated move list against {@link FoxHoundUtils#isValidMove}
+     * @param board start position, it is restored before returning
+     * @param depth number of plies
+     * @return number of positions
+     * @throws IllegalArgumentException if depth is negative
+     * @throws IllegalStateException if the move lists differ in some position
+     */
+    public static long verify(FoxHoundBoard board, int depth) throws IllegalArgumentException, IllegalStateException
+    {
+        if (depth < 0) throw new IllegalArgumentException("Depth should not be negative");
+        String[] players = new String[board.getHoundCount() + 1];
+        return verify(board, depth, players, new int[depth + 1][FoxHoundBoard.MAX_MOVES]);
+    }
+
+    private static long verify(FoxHoundBoard board, int depth, String[] players, int[][] moves)
+    {
+        if (depth == 0) return 1;
+        if (board.getStatus() != FoxHoundBoard.ONGOING) return 0;
+        int[] buffer = moves[depth];
+        int count = board.generateMoves(buffer);
+
+        board.copyToPlayers(players);
+        int[] expected = validMoves(board, players);
+        int[] generated = Arrays.copyOf(buffer, count);
+        Arrays.sort(generated);
+        if (!Arrays.equals(expected, generated))
+            throw new IllegalStateException(String.format("Move lists differ for %s to move in %s: expected %s, generated %s",
+                board.getTurn(), Arrays.toString(players), describe(expected, board.getDimension()),
+                describe(generated, board.getDimension())));
+
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(buffer[i]);
+            total += verify(board, depth - 1, players, moves);
+            board.unmakeMove(buffer[i]);
+        }
+        return total;
+    }
+
+    /** All moves accepted by the rules of {@link FoxHoundUtils}, sorted. */
+    private static int[] validMoves(FoxHoundBoard board, String[] players)
+    {
+        int dimension = board.getDimension();
+        char turn = board.getTurn();
+        int first = turn == FoxHoundUtils.FOX_FIELD ? players.length - 1 : 0;
+        int last = turn == FoxHoundUtils.FOX_FIELD ? players.length - 1 : players.length - 2;
+        int[] valid = new int[(last - first + 1) * dimension * dimension];
+        int count = 0;
+        for (int p = first; p <= last; p++) {
+            String origin = players[p];
+            for (int square = 0; square < dimension * dimension; square++) {
+                String destination = FoxHoundCoordinates.getPositionString(board.column(square), board.row(square));
+                if (FoxHoundUtils.isValidMove(dimension, players, turn, origin, destination))
+                {
+                    int originSquare = board.square(FoxHoundUtils.getColumnNumber(origin), FoxHoundUtils.getRowNumber(origin));
+                    valid[count++] = FoxHoundBoard.packMove(originSquare, square);
+                }
+            }
+        }
+        int[] sorted = Arrays.copyOf(valid, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static String describe(int[] moves, int dimension)
+    {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < moves.length; i++) {
+            if (i > 0) text.append(", ");
+            text.append(FoxHoundUtils.getMoveOrigin(moves[i], dimension)).append('-')
+                .append(FoxHoundUtils.getMoveDestination(moves[i], dimension));
+        }
+        return text.append(']').toString();
+    }
+
+    /**
+     * Count the positions of the start position or a saved game and print the result
+     * @param args depth and options, see the usage message
+     */
+    public static void main(String[] args)
+    {
+        try {
+            if (args.length < 1) throw new IllegalArgumentException("Missing depth");
+            int depth = Integer.parseInt(args[0]);
+            int dimension = FoxHoundUtils.DEFAULT_DIM;
+            String load = null;
+            int threads = 1;
+            boolean divide = false;
+            boolean verify = false;
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--dimension": dimension = Integer.parseInt(args[++i]); break;
+                    case "--load": load = args[++i]; break;
+                    case "--threads": threads = Integer.parseInt(args[++i]); break;
+                    case "--divide": divide = true; break;
+                    case "--verify": verify = true; break;
+                    default: throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+
+            String[] players = FoxHoundUtils.initialisePositions(dimension);
+            char turn = FoxHoundUtils.FOX_FIELD;
+            if (load != null)
+            {
+                Path loadPath = Paths.get(load);
+                turn = FoxHoundIO.isBinaryPath(loadPath) ? FoxHoundIO.loadGameBinary(players, dimension, loadPath)
+                    : FoxHoundIO.loadGame(players, loadPath);
+                if (!FoxHoundUtils.checkInputFigure(turn, false)) throw new IllegalArgumentException("Loading " + load + " failed");
+            }
+            FoxHoundBoard board = FoxHoundBoard.fromPlayers(players, dimension, turn);
+
+            long start = System.nanoTime();
+            long total;
+            if (verify)
+            {
+                total = verify(board, depth);
+            }
+            else if (divide || threads > 1)
+            {
+                int[] moves = new int[FoxHoundBoard.MAX_MOVES];
+                long[] counts = new long[FoxHoundBoard.MAX_MOVES];
+                int count = depth == 0 ? 0 : divide(board, depth, threads, moves, counts);
+                total = depth == 0 ? 1 : 0;
+                for (int i = 0; i < count; i++) {
+                    if (divide) System.out.printf(MOVE_MSG, FoxHoundUtils.getMoveOrigin(moves[i], dimension),
+                        FoxHoundUtils.getMoveDestination(moves[i], dimension), counts[i]);
+                    total += counts[i];
+                }
+            }
+            else
+            {
+                total = perft(board, depth);
+            }
+            long nanos = Math.max(1, System.nanoTime() - start);
+            System.out.printf(RESULT_MSG, depth, total, nanos / 1000000, total * 1e9 / nanos);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            //Also catches NumberFormatException
+            System.err.println("ERROR: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        } catch (IllegalStateException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.SplittableRandom;
+
+/**
+ * A way of choosing moves without user interaction, used by
+ * {@link FoxHoundSimulator}.
+ *
+ * Policies may keep buffers between moves and are not thread safe, every
+ * thread creates its own with {@link #create(String, int)}.
+ */
+public interface FoxHoundPolicy {
+
+    /** Name of the policy choosing uniformly among the legal moves. */
+    String RANDOM = "random";
+    /** Name of the policy choosing the best move after one ply. */
+    String GREEDY = "greedy";
+    /** Name of the policy searching with {@link FoxHoundSearch}. */
+    String SEARCH = "search";
+
+    /**
+     * Choose a move for the side to move
+     * @param board position, it may be changed while choosing but is restored
+     * @param moves legal moves of the position
+     * @param count number of legal moves, at least one
+     * @param random random numbers of the calling thread
+     * @return one of the given moves
+     */
+    int chooseMove(FoxHoundBoard board, int[] moves, int count, SplittableRandom random);
+
+    /**
+     * Create a policy by name
+     * @param name {@value #RANDOM}, {@value #GREEDY} or {@value #SEARCH}
+     * @param searchDepth depth in plies of the {@value #SEARCH} policy
+     * @return new policy
+     * @throws IllegalArgumentException if the name is unknown or the depth is out of range
+     */
+    static FoxHoundPolicy create(String name, int searchDepth) throws IllegalArgumentException
+    {
+        switch (name) {
+            case RANDOM:
+                return (board, moves, count, random) -> moves[random.nextInt(count)];
+            case GREEDY:
+                return new GreedyPolicy();
+            case SEARCH:
+                return new SearchPolicy(searchDepth);
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+
+    /**
+     * Chooses the move with the best evaluation of the fox distance and
+     * mobility, see {@link FoxHoundSearch}. Equal moves are chosen at random.
+     */
+    final class GreedyPolicy implements FoxHoundPolicy {
+
+        private final int[] queue = new int[FoxHoundBoard.MAX_SQUARES];
+        private final int[] visited = new int[FoxHoundBoard.MAX_SQUARES];
+        private int stamp;
+
+        @Override
+        public int chooseMove(FoxHoundBoard board, int[] moves, int count, SplittableRandom random)
+        {
+            boolean fox = board.getTurn() == FoxHoundUtils.FOX_FIELD;
+            int best = moves[0];
+            int bestScore = Integer.MIN_VALUE;
+            int ties = 0;
+            for (int i = 0; i < count; i++) {
+                board.makeMove(moves[i]);
+                int status = board.getStatus();
+                int score;
+                if (status == FoxHoundBoard.FOX_WIN) score = FoxHoundSearch.WIN_SCORE;
+                else if (status == FoxHoundBoard.HOUND_WIN) score = -FoxHoundSearch.WIN_SCORE;
+                else score = FoxHoundSearch.evaluateFox(board, queue, visited, ++stamp);
+                board.unmakeMove(moves[i]);
+                if (!fox) score = -score;
+
+                //Reservoir sampling picks each of the equal moves with the same chance
+                if (score > bestScore)
+                {
+                    bestScore = score;
+                    best = moves[i];
+                    ties = 1;
+                }
+                else if (score == bestScore && random.nextInt(++ties) == 0)
+                {
+                    best = moves[i];
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Chooses the move of an alpha-beta search to a fixed depth, so that
+     * results do not depend on the speed of the machine.
+     */
+    final class SearchPolicy implements FoxHoundPolicy {
+
+        /** Memory of the search of each thread in megabytes. */
+        private static final int HASH_MEGABYTES = 1;
+        /** Time budget large enough to always reach the depth. */
+        private static final long UNLIMITED_MILLIS = 24L * 60 * 60 * 1000;
+
+        private final FoxHoundSearch search = new FoxHoundSearch(HASH_MEGABYTES);
+        private final int depth;
+
+        /**
+         * @param depth search depth in plies
+         * @throws IllegalArgumentException if depth is out of range
+         */
+        public SearchPolicy(int depth) throws IllegalArgumentException
+        {
+            if (depth < 1 || depth > FoxHoundSearch.MAX_PLY)
+                throw new IllegalArgumentException(String.format("Depth out of range (1-%d)", FoxHoundSearch.MAX_PLY));
+            this.depth = depth;
+        }
+
+        @Override
+        public int chooseMove(FoxHoundBoard board, int[] moves, int count, SplittableRandom random)
+        {
+            int move = search.search(board, UNLIMITED_MILLIS, depth);
+            return move == FoxHoundSearch.NO_MOVE ? moves[random.nextInt(count)] : move;
+        }
+    }
+}
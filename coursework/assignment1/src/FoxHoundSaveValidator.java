@@ -0,0 +1,422 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Bulk validator of fox hound save files.
+ *
+ * Walks a directory tree and checks every regular file on a thread pool,
+ * text saves of {@link FoxHoundIO#saveGame} as well as binary saves of
+ * {@link FoxHoundIO#saveGameBinary}. Every file is checked for
+ *
+ *     syntax: figure, coordinates, one line (or header and checksum of binary saves)
+ *     dimension: number of figures and coordinates fit one board dimension
+ *     overlap: no two figures on the same square
+ *     reachable: the position can arise from the initial position
+ *
+ * Reachability uses the invariants of the rules: figures keep the colour
+ * of their square, every hound move raises the sum of the hound rows by
+ * one, the fox moves first and changes its row parity with every move,
+ * and nothing moves after the fox reached the first row. These are
+ * necessary conditions; a position passing them is not searched.
+ *
+ * Text saves do not store the dimension. Unless it is given, both
+ * dimensions with the right number of hounds are tried and the smallest
+ * one holding a valid position is reported.
+ *
+ * The report is streamed as JSON lines, one object per file in the order
+ * the files are finished.
+ */
+public class FoxHoundSaveValidator {
+
+    /** Error code of malformed files. */
+    public static final String SYNTAX = "syntax";
+    /** Error code of positions which fit no board dimension. */
+    public static final String DIMENSION = "dimension";
+    /** Error code of two figures on the same square. */
+    public static final String OVERLAP = "overlap";
+    /** Error code of positions which cannot arise in a game. */
+    public static final String UNREACHABLE = "unreachable";
+    /** Error code of files which cannot be read. */
+    public static final String IO = "io";
+    /** Value of the dimension parameter to infer the dimension of text saves. */
+    public static final int ANY_DIMENSION = 0;
+    /** Largest file which is read, anything longer is no save file. */
+    public static final int MAX_FILE_BYTES = 4096;
+
+    private static final String USAGE = "Usage: java FoxHoundSaveValidator <directory> [--threads n] [--dimension n] [--output file]";
+    private static final String SUMMARY_MSG = "%d files, %d invalid, %d ms (%.0f files/s)%n";
+
+    /** Result of the validation of one file. */
+    public static final class Result {
+
+        private final String file;
+        private String format = "text";
+        private int dimension = ANY_DIMENSION;
+        private char turn = 0;
+        private final List<String> codes = new ArrayList<>();
+        private final List<String> messages = new ArrayList<>();
+
+        private Result(String file)
+        {
+            this.file = file;
+        }
+
+        private void error(String code, String message)
+        {
+            codes.add(code);
+            messages.add(message);
+        }
+
+        /** @return name of the file */
+        public String getFile()
+        {
+            return file;
+        }
+
+        /** @return "text" or "binary" */
+        public String getFormat()
+        {
+            return format;
+        }
+
+        /** @return dimension of the position, {@value FoxHoundSaveValidator#ANY_DIMENSION} if unknown */
+        public int getDimension()
+        {
+            return dimension;
+        }
+
+        /** @return figure to move, 0 if unknown */
+        public char getTurn()
+        {
+            return turn;
+        }
+
+        /** @return error codes, empty if the file is valid */
+        public List<String> getCodes()
+        {
+            return codes;
+        }
+
+        /** @return true if no error was found */
+        public boolean isValid()
+        {
+            return codes.isEmpty();
+        }
+
+        /** @return the result as one line of JSON */
+        public String toJson()
+        {
+            StringBuilder json = new StringBuilder("{\"file\":");
+            quote(json, file);
+            json.append(",\"format\":\"").append(format).append('"');
+            json.append(",\"dimension\":").append(dimension == ANY_DIMENSION ? "null" : Integer.toString(dimension));
+            json.append(",\"turn\":");
+            if (turn == 0) json.append("null");
+            else quote(json, Character.toString(turn));
+            json.append(",\"valid\":").append(isValid()).append(",\"errors\":[");
+            for (int i = 0; i < codes.size(); i++) {
+                if (i > 0) json.append(',');
+                json.append("{\"code\":\"").append(codes.get(i)).append("\",\"message\":");
+                quote(json, messages.get(i));
+                json.append('}');
+            }
+            return json.append("]}").toString();
+        }
+    }
+
+    /** Append a JSON string, escaping quotes, backslashes and control characters. */
+    private static void quote(StringBuilder json, String text)
+    {
+        json.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') json.append('\\').append(c);
+            else if (c < ' ') json.append(String.format("\\u%04x", (int) c));
+            else json.append(c);
+        }
+        json.append('"');
+    }
+
+    /**
+     * Validate one save file
+     * @param path file to check
+     * @param dimension expected dimension, or {@value #ANY_DIMENSION} to infer it
+     * @return result of the checks
+     * @throws NullPointerException if path is null
+     */
+    public static Result validate(Path path, int dimension) throws NullPointerException
+    {
+        if (path == null) throw new NullPointerException("File path is not defined");
+        byte[] content;
+        try {
+            if (Files.size(path) > MAX_FILE_BYTES)
+            {
+                Result result = new Result(path.toString());
+                result.error(SYNTAX, "File is larger than " + MAX_FILE_BYTES + " bytes");
+                return result;
+            }
+            content = Files.readAllBytes(path);
+        } catch (IOException e) {
+            Result result = new Result(path.toString());
+            result.error(IO, "Cannot read the file: " + e.getMessage());
+            return result;
+        }
+        return validate(path.toString(), content, dimension);
+    }
+
+    /**
+     * Validate the content of a save file
+     * @param file name of the file for the report
+     * @param content bytes of the file
+     * @param dimension expected dimension, or {@value #ANY_DIMENSION} to infer it
+     * @return result of the checks
+     * @throws NullPointerException if file or content is null
+     */
+    public static Result validate(String file, byte[] content, int dimension) throws NullPointerException
+    {
+        Result result = new Result(file);
+        if (content.length >= 4 && content[0] == 'F' && content[1] == 'H' && content[2] == 'S' && content[3] == 'G')
+        {
+            validateBinary(result, content, dimension);
+            return result;
+        }
+
+        //Text save: the figure and the coordinates separated by single spaces on one line
+        String text = new String(content, StandardCharsets.US_ASCII);
+        if (text.endsWith("\r\n")) text = text.substring(0, text.length() - 2);
+        else if (text.endsWith("\n")) text = text.substring(0, text.length() - 1);
+        if (text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0)
+        {
+            result.error(SYNTAX, "Save must be one line");
+            return result;
+        }
+        String[] tokens = text.split(" ", -1);
+        if (tokens[0].length() != 1 || !FoxHoundUtils.checkInputFigure(tokens[0].charAt(0), false))
+        {
+            result.error(SYNTAX, "Invalid figure to move: " + tokens[0]);
+            return result;
+        }
+        result.turn = tokens[0].charAt(0);
+        String[] players = new String[tokens.length - 1];
+        for (int i = 1; i < tokens.length; i++) {
+            if (!FoxHoundUtils.checkInputPosition(tokens[i], false))
+            {
+                result.error(SYNTAX, "Invalid coordinate: " + tokens[i]);
+                return result;
+            }
+            players[i - 1] = tokens[i];
+        }
+        if (players.length < FoxHoundUtils.MIN_DIM / 2 + 1)
+        {
+            result.error(DIMENSION, "Too few figures: " + players.length);
+            return result;
+        }
+
+        if (dimension != ANY_DIMENSION)
+        {
+            result.dimension = dimension;
+            checkPosition(result, players, dimension);
+            return result;
+        }
+        //Both dimensions with this number of hounds are tried, the first valid one is reported
+        Result first = null;
+        for (int candidate = 2 * (players.length - 1); candidate <= 2 * (players.length - 1) + 1; candidate++) {
+            if (!FoxHoundUtils.checkInputDimension(candidate, false)) continue;
+            Result attempt = new Result(file);
+            attempt.turn = result.turn;
+            attempt.dimension = candidate;
+            checkPosition(attempt, players, candidate);
+            if (attempt.isValid()) return attempt;
+            if (first == null) first = attempt;
+        }
+        if (first != null) return first;
+        result.error(DIMENSION, "No board dimension has " + (players.length - 1) + " hounds");
+        return result;
+    }
+
+    private static void validateBinary(Result result, byte[] content, int dimension)
+    {
+        result.format = "binary";
+        int stored = content.length > 5 ? content[5] & 0xFF : ANY_DIMENSION;
+        if (!FoxHoundUtils.checkInputDimension(stored, false))
+        {
+            result.error(SYNTAX, "Invalid dimension in the header");
+            return;
+        }
+        result.dimension = stored;
+        if (dimension != ANY_DIMENSION && dimension != stored)
+        {
+            result.error(DIMENSION, "Dimension " + stored + " instead of " + dimension);
+            return;
+        }
+        String[] players = new String[stored / 2 + 1];
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        try {
+            result.turn = FoxHoundIO.decodeGame(players, stored, buffer);
+        } catch (IOException e) {
+            result.error(SYNTAX, e.getMessage());
+            return;
+        }
+        if (buffer.hasRemaining())
+        {
+            result.error(SYNTAX, "Unexpected bytes after the checksum");
+            return;
+        }
+        checkPosition(result, players, stored);
+    }
+
+    /**
+     * Check the dimension, overlaps and reachability of a syntactically valid position
+     * @param result receives the errors
+     * @param players coordinates, the fox last
+     * @param dimension
+     */
+    private static void checkPosition(Result result, String[] players, int dimension)
+    {
+        if (players.length != dimension / 2 + 1)
+        {
+            result.error(DIMENSION, players.length + " figures do not match dimension " + dimension);
+            return;
+        }
+        boolean[] occupied = new boolean[dimension * dimension];
+        int houndRows = 0;
+        for (int i = 0; i < players.length; i++) {
+            int column = FoxHoundUtils.getColumnNumber(players[i]);
+            int row = FoxHoundUtils.getRowNumber(players[i]);
+            if (column >= dimension || row >= dimension)
+            {
+                result.error(DIMENSION, "Coordinate " + players[i] + " is outside the board of dimension " + dimension);
+                return;
+            }
+            int square = row * dimension + column;
+            if (occupied[square]) result.error(OVERLAP, "Two figures on " + players[i]);
+            occupied[square] = true;
+            if (i < players.length - 1)
+            {
+                houndRows += row;
+                //Hounds start on B1, D1, ... and keep the colour of their square
+                if ((column + row) % 2 != 1) result.error(UNREACHABLE, "Hound " + players[i] + " is on the wrong colour");
+            }
+        }
+        if (!result.isValid()) return;
+
+        String foxPosition = players[players.length - 1];
+        int foxColumn = FoxHoundUtils.getColumnNumber(foxPosition);
+        int foxRow = FoxHoundUtils.getRowNumber(foxPosition);
+        int startRow = dimension - 1;
+        if ((foxColumn + foxRow) % 2 != (dimension / 2 + startRow) % 2)
+        {
+            result.error(UNREACHABLE, "Fox " + foxPosition + " is on the wrong colour");
+            return;
+        }
+        //Every hound move raises the hound rows by one and the fox moves first
+        int foxMoves = result.turn == FoxHoundUtils.FOX_FIELD ? houndRows : houndRows + 1;
+        if (Math.floorMod(startRow - foxRow - foxMoves, 2) != 0)
+            result.error(UNREACHABLE, "Fox row does not match " + foxMoves + " fox moves with the given turn");
+        else if (foxRow == 0 && result.turn == FoxHoundUtils.FOX_FIELD)
+            result.error(UNREACHABLE, "Game continued after the fox won");
+    }
+
+    /**
+     * Validate all regular files below a directory in parallel and stream the report
+     * @param root directory to walk, or a single file
+     * @param dimension expected dimension, or {@value #ANY_DIMENSION} to infer it
+     * @param threads number of threads
+     * @param out receives one JSON line per file
+     * @return number of files {checked, invalid}
+     * @throws IOException if the directory cannot be walked or the report cannot be written
+     * @throws IllegalArgumentException if threads is not positive
+     */
+    public static long[] validateTree(Path root, int dimension, int threads, Writer out) throws IOException, IllegalArgumentException
+    {
+        if (threads < 1) throw new IllegalArgumentException("Number of threads must be positive");
+        AtomicLong files = new AtomicLong();
+        AtomicLong invalid = new AtomicLong();
+        IOException[] failure = new IOException[1];
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.filter(Files::isRegularFile).forEach(path -> pool.execute(() -> {
+                Result result = validate(path, dimension);
+                String line = result.toJson();
+                files.incrementAndGet();
+                if (!result.isValid()) invalid.incrementAndGet();
+                synchronized (out) {
+                    try {
+                        out.write(line);
+                        out.write('\n');
+                    } catch (IOException e) {
+                        failure[0] = e;
+                    }
+                }
+            }));
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (out) {
+            out.flush();
+            if (failure[0] != null) throw failure[0];
+        }
+        return new long[]{files.get(), invalid.get()};
+    }
+
+    /**
+     * Validate a directory tree and print the report
+     * @param args directory and options, see the usage message
+     */
+    public static void main(String[] args)
+    {
+        try {
+            if (args.length < 1) throw new IllegalArgumentException("Missing directory");
+            int threads = Runtime.getRuntime().availableProcessors();
+            int dimension = ANY_DIMENSION;
+            String output = null;
+            for (int i = 1; i < args.length; i += 2) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value of " + args[i]);
+                switch (args[i]) {
+                    case "--threads": threads = Integer.parseInt(args[i + 1]); break;
+                    case "--dimension":
+                        dimension = Integer.parseInt(args[i + 1]);
+                        FoxHoundUtils.checkInputDimension(dimension, true);
+                        break;
+                    case "--output": output = args[i + 1]; break;
+                    default: throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+
+            long start = System.nanoTime();
+            long[] counts;
+            try (Writer out = output == null ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                    : Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+                counts = validateTree(Paths.get(args[0]), dimension, threads, out);
+            }
+            long nanos = Math.max(1, System.nanoTime() - start);
+            System.err.printf(SUMMARY_MSG, counts[0], counts[1], nanos / 1000000, counts[0] * 1e9 / nanos);
+            if (counts[1] > 0) System.exit(1);
+        } catch (IOException | IllegalArgumentException e) {
+            //Also catches NumberFormatException
+            System.err.println("ERROR: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,427 @@
+import java.util.Arrays;
+
+/**
+ * A computer player for the fox hound program.
+ *
+ * It runs an iterative deepening alpha-beta search (negamax form) on a
+ * {@link FoxHoundBoard} within a time budget. Moves are ordered by the
+ * best move of the previous iteration or the transposition table,
+ * killer moves and a history table.
+ * Results are kept in a {@link FoxHoundTranspositionTable}, which
+ * lives as long as the instance and is shared by all of its searches.
+ * Leaf positions are evaluated by the shortest path of the fox to the
+ * first row, so that closed walls of hounds are recognised long before
+ * the fox is trapped.
+ *
+ * One instance keeps its buffers between searches and must only be used
+ * by one thread at a time.
+ */
+public class FoxHoundSearch {
+
+    /** Returned by a search if the side to move has no move. */
+    public static final int NO_MOVE = -1;
+    /** Score of a won position at the root, reduced by one per ply. */
+    public static final int WIN_SCORE = 100000;
+    /** Maximum search depth in plies. */
+    public static final int MAX_PLY = 128;
+    /** Scores beyond this bound are forced wins or losses. */
+    private static final int WIN_BOUND = WIN_SCORE - MAX_PLY;
+    /** Score difference for each step the fox is away from the first row. */
+    private static final int DISTANCE_WEIGHT = 20;
+    /** Score difference for each free square next to the fox. */
+    private static final int MOBILITY_WEIGHT = 5;
+    /** Score penalty for a fox which cannot reach the first row at all. */
+    private static final int BLOCKED_PENALTY = 2000;
+    /** Number of nodes between two checks of the clock. */
+    private static final int CLOCK_INTERVAL = 1023;
+
+    /** Receives the result of every completed iteration of a search. */
+    public interface Listener {
+
+        /**
+         * Called by the searching thread after each completed iteration
+         * @param depth depth of the iteration
+         * @param move packed best move
+         * @param score score from the view of the side to move
+         * @param nodes nodes visited so far
+         */
+        void iterationCompleted(int depth, int move, int score, long nodes);
+    }
+
+    private final FoxHoundTranspositionTable table;
+    private final int[][] moveStack = new int[MAX_PLY + 1][FoxHoundBoard.MAX_MOVES];
+    private final int[][] orderStack = new int[MAX_PLY + 1][FoxHoundBoard.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[2][FoxHoundBoard.MAX_SQUARES * FoxHoundNeighbours.FOX_STEPS];
+    private final int[] queue = new int[FoxHoundBoard.MAX_SQUARES];
+    private final int[] visited = new int[FoxHoundBoard.MAX_SQUARES];
+    private int visitStamp;
+
+    private FoxHoundBoard board;
+    private long deadline;
+    private long nodes;
+    private volatile boolean stopped;
+    private boolean clockEnabled;
+    private boolean aborted;
+    private int bestMove;
+    private int bestScore;
+    private int completedDepth;
+    private Listener listener;
+
+    /**
+     * Create a search with a transposition table of
+     * {@value FoxHoundTranspositionTable#DEFAULT_SIZE_MB} megabytes
+     */
+    public FoxHoundSearch()
+    {
+        this(FoxHoundTranspositionTable.DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * Create a search with a transposition table of the given size
+     * @param hashMegabytes size of the transposition table in megabytes
+     * @throws IllegalArgumentException if the size is out of range
+     */
+    public FoxHoundSearch(int hashMegabytes) throws IllegalArgumentException
+    {
+        this(new FoxHoundTranspositionTable(hashMegabytes));
+    }
+
+    /**
+     * Create a search using a transposition table shared with other searches
+     * @param table transposition table, it may be used by other threads at the same time
+     * @throws NullPointerException if table is null
+     */
+    public FoxHoundSearch(FoxHoundTranspositionTable table) throws NullPointerException
+    {
+        if (table == null) throw new NullPointerException("The table is null");
+        this.table = table;
+    }
+
+    /**
+     * Search the best move for the side to move within a time budget
+     * @param position position to search, it is not modified
+     * @param timeMillis time budget in milliseconds, at least depth one is always searched
+     * @return packed best move or {@link #NO_MOVE} if the game is over
+     * @throws NullPointerException if position is null
+     * @throws IllegalArgumentException if timeMillis is negative
+     */
+    public int search(FoxHoundBoard position, long timeMillis) throws NullPointerException, IllegalArgumentException
+    {
+        return search(position, timeMillis, MAX_PLY);
+    }
+
+    /**
+     * Search the best move for the side to move within a time budget and a depth limit
+     * @param position position to search, it is not modified
+     * @param timeMillis time budget in milliseconds, at least depth one is always searched
+     * @param maxDepth maximum depth in plies (1 - {@value #MAX_PLY})
+     * @return packed best move or {@link #NO_MOVE} if the game is over
+     * @throws NullPointerException if position is null
+     * @throws IllegalArgumentException if timeMillis is negative or maxDepth is out of range
+     */
+    public int search(FoxHoundBoard position, long timeMillis, int maxDepth) throws NullPointerException, IllegalArgumentException
+    {
+        if (position == null) throw new NullPointerException("The position is null");
+        if (timeMillis < 0) throw new IllegalArgumentException("Time budget should not be negative");
+        if (maxDepth < 1 || maxDepth > MAX_PLY) throw new IllegalArgumentException(String.format("Depth out of range (1-%d)", MAX_PLY));
+        table.newSearch();
+        return iterate(position, timeMillis, maxDepth, 1);
+    }
+
+    /**
+     * Iterative deepening without starting a new search of the table, so that
+     * helper threads of a parallel search can join the search of the main thread
+     * @param position position to search, it is not modified
+     * @param timeMillis valid time budget in milliseconds
+     * @param maxDepth valid maximum depth
+     * @param firstDepth depth of the first iteration, only the first iteration at depth one ignores the clock
+     * @return packed best move or {@link #NO_MOVE} if the game is over or no iteration was completed
+     */
+    int iterate(FoxHoundBoard position, long timeMillis, int maxDepth, int firstDepth)
+    {
+        if (board == null || board.getDimension() != position.getDimension()) board = position.copy();
+        else board.copyFrom(position);
+        deadline = System.nanoTime() + timeMillis * 1000000L;
+        nodes = 0;
+        stopped = false;
+        aborted = false;
+        bestMove = NO_MOVE;
+        bestScore = 0;
+        completedDepth = 0;
+        for (int[] killer : killers) {
+            killer[0] = NO_MOVE;
+            killer[1] = NO_MOVE;
+        }
+        for (int[] side : history) Arrays.fill(side, 0);
+
+        if (board.getStatus() != FoxHoundBoard.ONGOING) return NO_MOVE;
+
+        for (int depth = firstDepth; depth <= maxDepth; depth++) {
+            //Depth one is always completed, so that a move is known
+            clockEnabled = depth > 1;
+            int score = searchRoot(depth);
+            if (aborted) break;
+            bestScore = score;
+            completedDepth = depth;
+            if (listener != null) listener.iterationCompleted(depth, bestMove, score, nodes);
+            //A forced result does not change with more depth
+            if (Math.abs(score) > WIN_BOUND) break;
+            if (System.nanoTime() > deadline || stopped) break;
+        }
+        return bestMove;
+    }
+
+    /**
+     * Stop a running search as soon as possible. The best move of the last
+     * completed iteration is returned by the search. Can be called from any thread.
+     */
+    public void stop()
+    {
+        stopped = true;
+    }
+
+    /**
+     * Set the listener of completed iterations, used to follow a search running in another thread
+     * @param listener receives every iteration, null for none
+     */
+    public void setListener(Listener listener)
+    {
+        this.listener = listener;
+    }
+
+    /** @return score of the last search from the view of the side to move */
+    public int getScore()
+    {
+        return bestScore;
+    }
+
+    /** @return depth of the last completed iteration */
+    public int getDepth()
+    {
+        return completedDepth;
+    }
+
+    /** @return number of nodes visited by the last search */
+    public long getNodes()
+    {
+        return nodes;
+    }
+
+    /**
+     * Check if a score announces a forced result
+     * @param score search score
+     * @return true if one side wins by force
+     */
+    public static boolean isWinScore(int score)
+    {
+        return Math.abs(score) > WIN_BOUND;
+    }
+
+    /** @return transposition table of this search */
+    public FoxHoundTranspositionTable getTable()
+    {
+        return table;
+    }
+
+    private int searchRoot(int depth)
+    {
+        int[] moves = moveStack[0];
+        int count = board.generateMoves(moves);
+        //Search the best move of the previous iteration (or of the table) first
+        int firstMove = bestMove;
+        if (firstMove == NO_MOVE)
+        {
+            long entry = table.probe(board.getHash());
+            if (entry != FoxHoundTranspositionTable.MISS) firstMove = FoxHoundTranspositionTable.getMove(entry);
+        }
+        for (int i = 1; i < count; i++) {
+            if (moves[i] == firstMove)
+            {
+                moves[i] = moves[0];
+                moves[0] = firstMove;
+            }
+        }
+
+        int alpha = -WIN_SCORE - 1;
+        int beta = WIN_SCORE + 1;
+        int iterationMove = moves[0];
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            int score = -alphaBeta(depth - 1, -beta, -alpha, 1);
+            board.unmakeMove(moves[i]);
+            if (aborted) return alpha;
+            if (score > alpha)
+            {
+                alpha = score;
+                iterationMove = moves[i];
+            }
+        }
+        bestMove = iterationMove;
+        table.store(board.getHash(), bestMove, alpha, depth, FoxHoundTranspositionTable.EXACT);
+        return alpha;
+    }
+
+    private int alphaBeta(int depth, int alpha, int beta, int ply)
+    {
+        if ((++nodes & CLOCK_INTERVAL) == 0 && clockEnabled && (stopped || System.nanoTime() > deadline)) aborted = true;
+        if (aborted) return 0;
+
+        int status = board.getStatus();
+        if (status != FoxHoundBoard.ONGOING)
+        {
+            char winner = status == FoxHoundBoard.FOX_WIN ? FoxHoundUtils.FOX_FIELD : FoxHoundUtils.HOUND_FIELD;
+            return winner == board.getTurn() ? WIN_SCORE - ply : -(WIN_SCORE - ply);
+        }
+        if (depth == 0 || ply >= MAX_PLY) return evaluate();
+
+        //Use the stored result if it was searched deep enough
+        long key = board.getHash();
+        long entry = table.probe(key);
+        int tableMove = NO_MOVE;
+        if (entry != FoxHoundTranspositionTable.MISS)
+        {
+            tableMove = FoxHoundTranspositionTable.getMove(entry);
+            if (FoxHoundTranspositionTable.getDepth(entry) >= depth)
+            {
+                int score = scoreFromTable(FoxHoundTranspositionTable.getScore(entry), ply);
+                int bound = FoxHoundTranspositionTable.getBound(entry);
+                if (bound == FoxHoundTranspositionTable.EXACT) return score;
+                if (bound == FoxHoundTranspositionTable.LOWER_BOUND && score >= beta) return score;
+                if (bound == FoxHoundTranspositionTable.UPPER_BOUND && score <= alpha) return score;
+            }
+        }
+
+        int[] moves = moveStack[ply];
+        int[] order = orderStack[ply];
+        int count = board.generateMoves(moves);
+        int side = board.getTurn() == FoxHoundUtils.FOX_FIELD ? 0 : 1;
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == tableMove) order[i] = Integer.MAX_VALUE;
+            else if (moves[i] == killers[ply][0] || moves[i] == killers[ply][1]) order[i] = Integer.MAX_VALUE - 1;
+            else order[i] = history[side][historyIndex(moves[i])];
+        }
+
+        int originalAlpha = alpha;
+        int best = -WIN_SCORE - 1;
+        int bestMoveHere = NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            //Pick the most promising remaining move
+            int pick = i;
+            for (int j = i + 1; j < count; j++) if (order[j] > order[pick]) pick = j;
+            int move = moves[pick];
+            moves[pick] = moves[i];
+            moves[i] = move;
+            int orderValue = order[pick];
+            order[pick] = order[i];
+            order[i] = orderValue;
+
+            board.makeMove(move);
+            int score = -alphaBeta(depth - 1, -beta, -alpha, ply + 1);
+            board.unmakeMove(move);
+            if (aborted) return 0;
+
+            if (score > best)
+            {
+                best = score;
+                bestMoveHere = move;
+            }
+            if (score > alpha) alpha = score;
+            if (alpha >= beta)
+            {
+                if (move != killers[ply][0])
+                {
+                    killers[ply][1] = killers[ply][0];
+                    killers[ply][0] = move;
+                }
+                history[side][historyIndex(move)] += depth * depth;
+                break;
+            }
+        }
+
+        int bound = best <= originalAlpha ? FoxHoundTranspositionTable.UPPER_BOUND
+            : best >= beta ? FoxHoundTranspositionTable.LOWER_BOUND : FoxHoundTranspositionTable.EXACT;
+        table.store(key, bestMoveHere, scoreToTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Convert a win score relative to the root into one relative to the stored position
+     */
+    private static int scoreToTable(int score, int ply)
+    {
+        if (score > WIN_BOUND) return score + ply;
+        if (score < -WIN_BOUND) return score - ply;
+        return score;
+    }
+
+    /**
+     * Convert a stored win score back into one relative to the root
+     */
+    private static int scoreFromTable(int score, int ply)
+    {
+        if (score > WIN_BOUND) return score - ply;
+        if (score < -WIN_BOUND) return score + ply;
+        return score;
+    }
+
+    /**
+     * Index of a move in the history table: origin square and direction
+     */
+    private int historyIndex(int move)
+    {
+        int origin = FoxHoundBoard.getMoveOrigin(move);
+        int destination = FoxHoundBoard.getMoveDestination(move);
+        int direction = (destination > origin ? 2 : 0) + (board.column(destination) > board.column(origin) ? 1 : 0);
+        return origin * FoxHoundNeighbours.FOX_STEPS + direction;
+    }
+
+    /**
+     * Evaluate a quiet position from the view of the side to move
+     */
+    private int evaluate()
+    {
+        int score = evaluateFox(board, queue, visited, ++visitStamp);
+        return board.getTurn() == FoxHoundUtils.FOX_FIELD ? score : -score;
+    }
+
+    /**
+     * Evaluate a position from the view of the fox. The fox distance to the
+     * first row is found by a breadth first search over empty squares.
+     * @param board position to evaluate
+     * @param queue buffer of at least the number of squares
+     * @param visited buffer of at least the number of squares, entries equal to stamp count as visited
+     * @param stamp value not yet used in visited
+     * @return score, positive if the fox is better
+     */
+    static int evaluateFox(FoxHoundBoard board, int[] queue, int[] visited, int stamp)
+    {
+        int dimension = board.getDimension();
+        int[] neighbours = FoxHoundNeighbours.foxTable(dimension);
+        int fox = board.getFoxSquare();
+        int mobility = board.countFoxMoves();
+
+        //Breadth first search, level by level, until the first row is reached
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = fox;
+        visited[fox] = stamp;
+        int distance = 0;
+        while (head < tail) {
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                int square = queue[head++];
+                if (square < dimension) return -distance * DISTANCE_WEIGHT + mobility * MOBILITY_WEIGHT;
+                for (int k = square * FoxHoundNeighbours.FOX_STEPS; k < (square + 1) * FoxHoundNeighbours.FOX_STEPS; k++) {
+                    int next = neighbours[k];
+                    if (next == FoxHoundNeighbours.NONE || visited[next] == stamp || board.isOccupied(next)) continue;
+                    visited[next] = stamp;
+                    queue[tail++] = next;
+                }
+            }
+            distance++;
+        }
+        //The hounds closed the way, the more room the fox has the longer it survives
+        return -BLOCKED_PENALTY + tail;
+    }
+}
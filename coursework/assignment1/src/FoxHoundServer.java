@@ -0,0 +1,303 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server of many concurrent fox hound games.
+ *
+ * Clients connect to a local TCP port and send one command per line, each
+ * answered by one line starting with "OK" or "ERR":
+ *
+ *     NEW [dimension]              OK id
+ *     MOVE id origin destination   OK ONGOING, OK FOX_WIN or OK HOUND_WIN
+ *     BOARD id                     OK figure coordinates (the text save format)
+ *     END id                       OK
+ *     GAMES                        OK number of games
+ *     QUIT                         OK, then the connection is closed
+ *
+ * Games are not bound to a connection, any client may move in any game by
+ * its id, e.g. one client for the fox and one for the hounds. Moves are
+ * checked with the rules of {@link FoxHoundUtils#isValidMove} for the figure
+ * to move, looked up on the occupancy grid of {@link FoxHoundGameState}.
+ *
+ * Every connection is served by its own thread: a virtual thread where the
+ * Java runtime has them, otherwise a pooled platform thread. Games are held
+ * in a {@link ConcurrentHashMap}, which locks single bins rather than the
+ * whole map, and every game is locked on its own, so connections only wait
+ * for each other when they move in the same game. A game keeps just its
+ * coordinates, the figure to move and its {@link FoxHoundGameState}.
+ */
+public class FoxHoundServer implements Closeable {
+
+    /** Port of the server if none is specified. */
+    public static final int DEFAULT_PORT = 7070;
+    /** Game status after a move: the game goes on. */
+    public static final String ONGOING = "ONGOING";
+    /** Game status after a move: the fox reached the first row. */
+    public static final String FOX_WIN = "FOX_WIN";
+    /** Game status after a move: the fox cannot move. */
+    public static final String HOUND_WIN = "HOUND_WIN";
+
+    private static final String USAGE = "Usage: java FoxHoundServer [--port n]";
+    private static final String START_MSG = "Serving games on port %d with %s threads%n";
+
+    /** One game, guarded by its own monitor. */
+    private static final class Session {
+
+        private final String[] players;
+        private final FoxHoundGameState state;
+        private char turn = FoxHoundUtils.FOX_FIELD;
+
+        private Session(int dimension)
+        {
+            this.players = FoxHoundUtils.initialisePositions(dimension);
+            this.state = new FoxHoundGameState(players, dimension);
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Session> games = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    /** Open connections, closed by {@link #close} since interrupts do not end a blocking read. */
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections;
+    private final boolean virtual;
+    private volatile boolean closed = false;
+
+    /**
+     * Open the server on the loopback interface, the games are served after {@link #start}
+     * @param port port to listen on, 0 for any free port
+     * @throws IOException if the port cannot be opened
+     */
+    public FoxHoundServer(int port) throws IOException
+    {
+        serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        ExecutorService executor = newVirtualThreadExecutor();
+        virtual = executor != null;
+        connections = virtual ? executor : Executors.newCachedThreadPool();
+    }
+
+    /**
+     * Executor with a virtual thread per task, looked up reflectively so
+     * that the program still runs on runtimes without virtual threads
+     * @return the executor, null if the runtime has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor()
+    {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            //Also thrown while virtual threads are a preview feature which is not enabled
+            return null;
+        }
+    }
+
+    /** @return port the server listens on */
+    public int getPort()
+    {
+        return serverSocket.getLocalPort();
+    }
+
+    /** @return true if connections are served by virtual threads */
+    public boolean isVirtual()
+    {
+        return virtual;
+    }
+
+    /** @return number of games held by the server */
+    public int getGameCount()
+    {
+        return games.size();
+    }
+
+    /**
+     * Accept connections on a background thread
+     */
+    public void start()
+    {
+        Thread acceptor = new Thread(this::acceptLoop, "FoxHoundServer-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private void acceptLoop()
+    {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) System.err.println("ERROR: accepting a connection failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Answer the commands of one connection until it sends QUIT or closes
+     */
+    private void serve(Socket socket)
+    {
+        sockets.add(socket);
+        //A connection accepted while the server closes is not in the set when close runs
+        if (closed)
+        {
+            sockets.remove(socket);
+            closeQuietly(socket);
+            return;
+        }
+        try (Socket connection = socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String answer = execute(line);
+                out.write(answer);
+                out.write('\n');
+                out.flush();
+                if (line.trim().equalsIgnoreCase("QUIT")) break;
+            }
+        } catch (SocketException e) {
+            //The client went away or the server is closed
+        } catch (IOException e) {
+            if (!closed) System.err.println("ERROR: serving a connection failed: " + e.getMessage());
+        } finally {
+            sockets.remove(socket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket)
+    {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            //The connection is gone either way
+        }
+    }
+
+    /**
+     * Execute one command of the line protocol
+     * @param line command and its arguments separated by spaces
+     * @return answer line without the line break
+     */
+    public String execute(String line)
+    {
+        String[] words = line.trim().split("\\s+");
+        try {
+            switch (words[0].toUpperCase()) {
+                case "NEW": return newGame(words.length > 1 ? Integer.parseInt(words[1]) : FoxHoundUtils.DEFAULT_DIM);
+                case "MOVE":
+                    if (words.length != 4) return "ERR MOVE needs a game, an origin and a destination";
+                    return move(session(words[1]), words[2].toUpperCase(), words[3].toUpperCase());
+                case "BOARD": return board(session(words.length > 1 ? words[1] : ""));
+                case "END": return games.remove(id(words.length > 1 ? words[1] : "")) == null ? "ERR Unknown game" : "OK";
+                case "GAMES": return "OK " + games.size();
+                case "QUIT": return "OK";
+                default: return "ERR Unknown command " + words[0];
+            }
+        } catch (IllegalArgumentException e) {
+            //Also catches NumberFormatException
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    private String newGame(int dimension)
+    {
+        FoxHoundUtils.checkInputDimension(dimension, true);
+        long id = nextId.getAndIncrement();
+        games.put(id, new Session(dimension));
+        return "OK " + id;
+    }
+
+    private static long id(String word)
+    {
+        try {
+            return Long.parseLong(word);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid game " + word);
+        }
+    }
+
+    private Session session(String word)
+    {
+        Session session = games.get(id(word));
+        if (session == null) throw new IllegalArgumentException("Unknown game " + word);
+        return session;
+    }
+
+    private static String move(Session session, String origin, String destination)
+    {
+        synchronized (session) {
+            if (session.state.getStatus() != FoxHoundBoard.ONGOING) return "ERR Game is over";
+            if (!session.state.isValidMove(session.turn, origin, destination))
+                return "ERR Invalid move for " + session.turn;
+            session.state.updatePositions(origin, destination);
+            session.turn = session.turn == FoxHoundUtils.FOX_FIELD ? FoxHoundUtils.HOUND_FIELD : FoxHoundUtils.FOX_FIELD;
+            switch (session.state.getStatus()) {
+                case FoxHoundBoard.FOX_WIN: return "OK " + FOX_WIN;
+                case FoxHoundBoard.HOUND_WIN: return "OK " + HOUND_WIN;
+                default: return "OK " + ONGOING;
+            }
+        }
+    }
+
+    private static String board(Session session)
+    {
+        synchronized (session) {
+            return "OK " + session.turn + " " + String.join(" ", session.players);
+        }
+    }
+
+    /**
+     * Stop accepting connections and close the open ones
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        serverSocket.close();
+        for (Socket socket : sockets) closeQuietly(socket);
+        connections.shutdownNow();
+    }
+
+    /**
+     * Serve games until the program is stopped
+     * @param args options, see the usage message
+     */
+    public static void main(String[] args)
+    {
+        int port = DEFAULT_PORT;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value of " + args[i]);
+                if (!args[i].equals("--port")) throw new IllegalArgumentException("Unknown option " + args[i]);
+                port = Integer.parseInt(args[i + 1]);
+            }
+            FoxHoundServer server = new FoxHoundServer(port);
+            System.out.printf(START_MSG, server.getPort(), server.isVirtual() ? "virtual" : "platform");
+            server.acceptLoop();
+        } catch (IOException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            //Also catches NumberFormatException
+            System.err.println("ERROR: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+}
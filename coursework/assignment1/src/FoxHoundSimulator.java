@@ -0,0 +1,259 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless self-play of the fox hound program.
+ *
+ * Plays many games between two {@link FoxHoundPolicy} instances on a
+ * thread pool, without any console interaction, and reports the speed,
+ * the win rates and the game length for each board dimension.
+ *
+ * Games are split evenly between the threads and every thread draws its
+ * random numbers from its own generator split off one seed, so a run is
+ * repeatable for the same seed and number of threads. The games can be
+ * stored in a {@link FoxHoundArchive} for later queries.
+ */
+public class FoxHoundSimulator {
+
+    /** Number of games per dimension if none is specified. */
+    public static final int DEFAULT_GAMES = 1000;
+    /** Search depth of the search policy if none is specified. */
+    public static final int DEFAULT_DEPTH = 4;
+
+    private static final String USAGE = "Usage: java FoxHoundSimulator [--games n] [--fox policy] [--hounds policy]"
+        + " [--threads n] [--seed n] [--depth n] [--dimension n] [--archive file]";
+    private static final String HEADER_MSG = "dim     games   games/s   fox wins  hound wins  avg plies";
+    private static final String RESULT_MSG = "%3d %9d %9.0f %9.1f%% %10.1f%% %10.1f%n";
+
+    /** Results of the games of one dimension. */
+    public static final class Statistics {
+
+        private long games;
+        private long foxWins;
+        private long houndWins;
+        private long plies;
+        private long nanos;
+
+        /** @return number of games played */
+        public long getGames()
+        {
+            return games;
+        }
+
+        /** @return number of games won by the fox */
+        public long getFoxWins()
+        {
+            return foxWins;
+        }
+
+        /** @return number of games won by the hounds */
+        public long getHoundWins()
+        {
+            return houndWins;
+        }
+
+        /** @return number of plies of all games */
+        public long getPlies()
+        {
+            return plies;
+        }
+
+        /** @return wall time of all games in nanoseconds */
+        public long getNanos()
+        {
+            return nanos;
+        }
+
+        /** @return games per second of wall time */
+        public double gamesPerSecond()
+        {
+            return nanos == 0 ? 0 : games * 1e9 / nanos;
+        }
+
+        /** @return average number of plies per game */
+        public double averagePlies()
+        {
+            return games == 0 ? 0 : (double) plies / games;
+        }
+
+        private void add(Statistics other)
+        {
+            games += other.games;
+            foxWins += other.foxWins;
+            houndWins += other.houndWins;
+            plies += other.plies;
+        }
+    }
+
+    /**
+     * Play games of one dimension
+     * @param dimension
+     * @param foxPolicy policy name of the fox
+     * @param houndPolicy policy name of the hounds
+     * @param searchDepth depth of the search policy
+     * @param games number of games
+     * @param threads number of threads
+     * @param seed seed of the random numbers
+     * @return results of the games
+     * @throws IllegalArgumentException if an argument is out of range or a policy is unknown
+     */
+    public static Statistics simulate(int dimension, String foxPolicy, String houndPolicy, int searchDepth,
+                                      int games, int threads, long seed) throws IllegalArgumentException
+    {
+        return simulate(dimension, foxPolicy, houndPolicy, searchDepth, games, threads, seed, null);
+    }
+
+    /**
+     * Play games of one dimension and store them in an archive
+     * @param dimension
+     * @param foxPolicy policy name of the fox
+     * @param houndPolicy policy name of the hounds
+     * @param searchDepth depth of the search policy
+     * @param games number of games
+     * @param threads number of threads
+     * @param seed seed of the random numbers
+     * @param archive receives every game, null to keep no games
+     * @return results of the games
+     * @throws IllegalArgumentException if an argument is out of range, a policy is unknown
+     * or the archive has another dimension
+     * @throws IllegalStateException if writing the archive fails
+     */
+    public static Statistics simulate(int dimension, String foxPolicy, String houndPolicy, int searchDepth,
+                                      int games, int threads, long seed, FoxHoundArchive.Writer archive)
+        throws IllegalArgumentException, IllegalStateException
+    {
+        FoxHoundUtils.checkInputDimension(dimension, true);
+        if (games < 0) throw new IllegalArgumentException("Number of games should not be negative");
+        if (threads < 1) throw new IllegalArgumentException("Number of threads must be positive");
+        //Fail before starting threads if a name is wrong
+        FoxHoundPolicy.create(foxPolicy, searchDepth);
+        FoxHoundPolicy.create(houndPolicy, searchDepth);
+
+        SplittableRandom root = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Statistics total = new Statistics();
+        long start = System.nanoTime();
+        try {
+            List<Future<Statistics>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int share = games / threads + (t < games % threads ? 1 : 0);
+                SplittableRandom random = root.split();
+                results.add(pool.submit(() -> play(dimension, FoxHoundPolicy.create(foxPolicy, searchDepth),
+                    FoxHoundPolicy.create(houndPolicy, searchDepth), share, random, archive)));
+            }
+            for (Future<Statistics> result : results) total.add(result.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        total.nanos = System.nanoTime() - start;
+        return total;
+    }
+
+    /**
+     * Play games in the calling thread, reusing one board and one move buffer
+     */
+    private static Statistics play(int dimension, FoxHoundPolicy fox, FoxHoundPolicy hounds, int games, SplittableRandom random,
+                                   FoxHoundArchive.Writer archive) throws IOException
+    {
+        Statistics statistics = new Statistics();
+        FoxHoundBoard initial = FoxHoundBoard.initial(dimension);
+        FoxHoundBoard board = initial.copy();
+        int[] moves = new int[FoxHoundBoard.MAX_MOVES];
+        //Moves of the current game, only kept for the archive
+        int[] history = new int[archive == null ? 0 : FoxHoundArchive.MAX_PLIES];
+        for (int game = 0; game < games; game++) {
+            board.copyFrom(initial);
+            int status = board.getStatus();
+            int plies = 0;
+            while (status == FoxHoundBoard.ONGOING) {
+                int count = board.generateMoves(moves);
+                FoxHoundPolicy policy = board.getTurn() == FoxHoundUtils.FOX_FIELD ? fox : hounds;
+                int move = policy.chooseMove(board, moves, count, random);
+                board.makeMove(move);
+                if (archive != null) history[plies] = move;
+                plies++;
+                status = board.getStatus();
+            }
+            if (archive != null) archive.add(initial, history, plies, status);
+            statistics.plies += plies;
+            statistics.games++;
+            if (status == FoxHoundBoard.FOX_WIN) statistics.foxWins++;
+            else statistics.houndWins++;
+        }
+        return statistics;
+    }
+
+    /**
+     * Play games for every dimension, or one dimension if given, and print the results
+     * @param args options, see the usage message
+     */
+    public static void main(String[] args)
+    {
+        int games = DEFAULT_GAMES;
+        String foxPolicy = FoxHoundPolicy.RANDOM;
+        String houndPolicy = FoxHoundPolicy.RANDOM;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        int depth = DEFAULT_DEPTH;
+        int minDimension = FoxHoundUtils.MIN_DIM;
+        int maxDimension = FoxHoundUtils.MAX_DIM;
+        String archivePath = null;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value of " + args[i]);
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--games": games = Integer.parseInt(value); break;
+                    case "--fox": foxPolicy = value; break;
+                    case "--hounds": houndPolicy = value; break;
+                    case "--threads": threads = Integer.parseInt(value); break;
+                    case "--seed": seed = Long.parseLong(value); break;
+                    case "--depth": depth = Integer.parseInt(value); break;
+                    case "--dimension":
+                        minDimension = Integer.parseInt(value);
+                        maxDimension = minDimension;
+                        break;
+                    case "--archive": archivePath = value; break;
+                    default: throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+
+            if (archivePath != null && minDimension != maxDimension)
+                throw new IllegalArgumentException("An archive holds one dimension, use --dimension");
+            FoxHoundArchive.Writer archive = archivePath == null ? null : FoxHoundArchive.Writer.create(Paths.get(archivePath), minDimension);
+            System.out.printf("%s fox against %s hounds, %d threads, seed %d%n", foxPolicy, houndPolicy, threads, seed);
+            System.out.println(HEADER_MSG);
+            for (int dimension = minDimension; dimension <= maxDimension; dimension++) {
+                Statistics result = simulate(dimension, foxPolicy, houndPolicy, depth, games, threads, seed, archive);
+                double percent = result.getGames() == 0 ? 0 : 100.0 / result.getGames();
+                System.out.printf(RESULT_MSG, dimension, result.getGames(), result.gamesPerSecond(),
+                    result.getFoxWins() * percent, result.getHoundWins() * percent, result.averagePlies());
+            }
+            if (archive != null)
+            {
+                archive.close();
+                System.out.printf("Stored %d games in %s%n", archive.getGameCount(), archivePath);
+            }
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            //Also catches NumberFormatException
+            System.err.println("ERROR: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Retrograde solver of the fox hound game.
+ *
+ * Hounds only move forward, so every hound move increases the sum of the
+ * hound rows by one and no position can repeat. Positions are solved in
+ * layers of this sum, from the last layer to the first:
+ *
+ * - positions with the hounds to move only lead to the next layer, which
+ *   is already solved,
+ * - positions with the fox to move only lead to positions of the same
+ *   hound configuration with the hounds to move, which are solved first.
+ *
+ * Every position is therefore computed exactly once, without the repeated
+ * passes of a general retrograde analysis. The result is written as a
+ * tablebase file which is read with {@link FoxHoundTablebase}.
+ */
+public class FoxHoundSolver {
+
+    /** Largest number of positions held in one array. */
+    public static final long MAX_POSITIONS = Integer.MAX_VALUE - 8;
+
+    private static final String USAGE = "Usage: java FoxHoundSolver <dimension> <output file>";
+
+    private final FoxHoundTablebaseIndex index;
+    private final int dimension;
+    private final int[] foxNeighbours;
+    private final int[] houndNeighbours;
+    private final byte[] values;
+    private boolean solved;
+
+    /**
+     * Create a solver
+     * @param dimension dimension of the board to solve
+     * @throws IllegalArgumentException if dimension is out of range or has too many positions
+     */
+    public FoxHoundSolver(int dimension) throws IllegalArgumentException
+    {
+        this.index = new FoxHoundTablebaseIndex(dimension);
+        if (index.size() > MAX_POSITIONS)
+            throw new IllegalArgumentException("Dimension has too many positions to be solved: " + dimension);
+        this.dimension = dimension;
+        this.foxNeighbours = FoxHoundNeighbours.foxTable(dimension);
+        this.houndNeighbours = FoxHoundNeighbours.houndTable(dimension);
+        this.values = new byte[(int) index.size()];
+    }
+
+    /** @return numbering of the positions */
+    public FoxHoundTablebaseIndex getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * Solve all positions, does nothing if they are solved already
+     */
+    public void solve()
+    {
+        if (solved) return;
+        long[][] layers = layers(index);
+        int[] combination = new int[index.getHoundCount()];
+        boolean[] occupied = new boolean[dimension * dimension];
+        long[] childRanks = new long[FoxHoundBoard.MAX_MOVES];
+        int[] childSquares = new int[FoxHoundBoard.MAX_MOVES];
+        for (int sum = layers.length - 1; sum >= 0; sum--) {
+            for (long rank : layers[sum]) {
+                solveConfiguration(rank, combination, occupied, childRanks, childSquares);
+            }
+        }
+        solved = true;
+    }
+
+    /**
+     * Group the hound configurations by the sum of the hound rows
+     * @param index numbering of the positions
+     * @return configuration ranks per row sum
+     */
+    static long[][] layers(FoxHoundTablebaseIndex index)
+    {
+        int dimension = index.getDimension();
+        int houndCount = index.getHoundCount();
+        long[][] layers = new long[houndCount * (dimension - 1) + 1][];
+        int[] sizes = new int[layers.length];
+        int[] combination = new int[houndCount];
+        //Count first, then fill, the configurations are visited in rank order twice
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < houndCount; i++) combination[i] = i;
+            long rank = 0;
+            do {
+                int sum = 0;
+                for (int i = 0; i < houndCount; i++) sum += index.houndSquare(combination[i]) / dimension;
+                if (pass == 0) sizes[sum]++;
+                else layers[sum][sizes[sum]++] = rank;
+                rank++;
+            } while (index.next(combination));
+            if (pass == 0)
+            {
+                for (int sum = 0; sum < layers.length; sum++) layers[sum] = new long[sizes[sum]];
+                Arrays.fill(sizes, 0);
+            }
+        }
+        return layers;
+    }
+
+    private void solveConfiguration(long rank, int[] combination, boolean[] occupied,
+                                    long[] childRanks, int[] childSquares)
+    {
+        int houndCount = index.getHoundCount();
+        index.unrank(rank, combination);
+        for (int i = 0; i < houndCount; i++) occupied[index.houndSquare(combination[i])] = true;
+
+        //Hound moves do not depend on the fox, except that it may block a destination
+        int moves = 0;
+        for (int i = 0; i < houndCount; i++) {
+            int square = index.houndSquare(combination[i]);
+            for (int k = 0; k < FoxHoundNeighbours.HOUND_STEPS; k++) {
+                int destination = houndNeighbours[square * FoxHoundNeighbours.HOUND_STEPS + k];
+                if (destination == FoxHoundNeighbours.NONE || occupied[destination]) continue;
+                childRanks[moves] = index.rankAfterMove(combination, i, index.houndIndexOf(destination));
+                childSquares[moves++] = destination;
+            }
+        }
+
+        int foxSquares = index.getFoxSquareCount();
+        for (int f = 0; f < foxSquares; f++) {
+            int fox = index.foxSquare(f);
+            if (occupied[fox]) continue;
+            int value = terminal(fox, occupied);
+            if (value == FoxHoundTablebase.UNKNOWN) value = houndTurn(f, fox, moves, childRanks, childSquares);
+            values[(int) index.index(rank, f, FoxHoundTablebaseIndex.HOUND_SIDE)] = (byte) value;
+        }
+        for (int f = 0; f < foxSquares; f++) {
+            int fox = index.foxSquare(f);
+            if (occupied[fox]) continue;
+            int value = terminal(fox, occupied);
+            if (value == FoxHoundTablebase.UNKNOWN) value = foxTurn(rank, fox, occupied);
+            values[(int) index.index(rank, f, FoxHoundTablebaseIndex.FOX_SIDE)] = (byte) value;
+        }
+
+        for (int i = 0; i < houndCount; i++) occupied[index.houndSquare(combination[i])] = false;
+    }
+
+    /** Value of a finished game as in {@link FoxHoundBoard#getStatus()}, or unknown if it goes on. */
+    private int terminal(int fox, boolean[] occupied)
+    {
+        if (fox < dimension) return FoxHoundTablebase.encode(FoxHoundBoard.FOX_WIN, 0);
+        for (int k = 0; k < FoxHoundNeighbours.FOX_STEPS; k++) {
+            int destination = foxNeighbours[fox * FoxHoundNeighbours.FOX_STEPS + k];
+            if (destination != FoxHoundNeighbours.NONE && !occupied[destination]) return FoxHoundTablebase.UNKNOWN;
+        }
+        return FoxHoundTablebase.encode(FoxHoundBoard.HOUND_WIN, 0);
+    }
+
+    private int houndTurn(int foxIndex, int fox, int moves, long[] childRanks, int[] childSquares)
+    {
+        int best = FoxHoundTablebase.UNKNOWN;
+        for (int m = 0; m < moves; m++) {
+            if (childSquares[m] == fox) continue;
+            int child = values[(int) index.index(childRanks[m], foxIndex, FoxHoundTablebaseIndex.FOX_SIDE)] & 0xFF;
+            best = better(FoxHoundBoard.HOUND_WIN, best, child);
+        }
+        //Hounds which cannot move lose
+        if (best == FoxHoundTablebase.UNKNOWN) return FoxHoundTablebase.encode(FoxHoundBoard.FOX_WIN, 0);
+        return next(best);
+    }
+
+    private int foxTurn(long rank, int fox, boolean[] occupied)
+    {
+        int best = FoxHoundTablebase.UNKNOWN;
+        for (int k = 0; k < FoxHoundNeighbours.FOX_STEPS; k++) {
+            int destination = foxNeighbours[fox * FoxHoundNeighbours.FOX_STEPS + k];
+            if (destination == FoxHoundNeighbours.NONE || occupied[destination]) continue;
+            int f = index.foxIndexOf(destination);
+            int child = values[(int) index.index(rank, f, FoxHoundTablebaseIndex.HOUND_SIDE)] & 0xFF;
+            best = better(FoxHoundBoard.FOX_WIN, best, child);
+        }
+        //The fox can move, otherwise the position is terminal
+        return next(best);
+    }
+
+    /** Choose the better of two child values for the mover: fastest win, else slowest loss. */
+    private static int better(int mover, int current, int child)
+    {
+        if (current == FoxHoundTablebase.UNKNOWN) return child;
+        boolean currentWins = FoxHoundTablebase.getWinner(current) == mover;
+        boolean childWins = FoxHoundTablebase.getWinner(child) == mover;
+        if (currentWins != childWins) return childWins ? child : current;
+        int currentDistance = FoxHoundTablebase.getDistance(current);
+        int childDistance = FoxHoundTablebase.getDistance(child);
+        if (currentWins) return childDistance < currentDistance ? child : current;
+        return childDistance > currentDistance ? child : current;
+    }
+
+    /** Value of a position one ply before the given child value. */
+    private static int next(int child)
+    {
+        return FoxHoundTablebase.encode(FoxHoundTablebase.getWinner(child), FoxHoundTablebase.getDistance(child) + 1);
+    }
+
+    /**
+     * Read a solved value
+     * @param position position index, see {@link FoxHoundTablebaseIndex}
+     * @return value as stored in the tablebase
+     * @throws IllegalStateException if the positions are not solved yet
+     */
+    public int get(long position) throws IllegalStateException
+    {
+        if (!solved) throw new IllegalStateException("Positions are not solved yet");
+        return values[(int) position] & 0xFF;
+    }
+
+    /**
+     * Write the solved positions as a tablebase file
+     * @param path path of the file, replaced if it exists
+     * @throws IOException if writing fails
+     * @throws IllegalStateException if the positions are not solved yet
+     */
+    public void write(Path path) throws IOException, IllegalStateException
+    {
+        if (!solved) throw new IllegalStateException("Positions are not solved yet");
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = FoxHoundTablebase.header(dimension, FoxHoundTablebase.DISTANCE_BITS, values.length);
+            while (header.hasRemaining()) channel.write(header);
+            ByteBuffer data = ByteBuffer.wrap(values);
+            while (data.hasRemaining()) channel.write(data);
+        }
+    }
+
+    /**
+     * Solve a dimension and write its tablebase file
+     * @param args dimension and path of the output file
+     */
+    public static void main(String[] args)
+    {
+        if (args.length != 2)
+        {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        try {
+            FoxHoundSolver solver = new FoxHoundSolver(Integer.parseInt(args[0]));
+            long start = System.nanoTime();
+            solver.solve();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            solver.write(Paths.get(args[1]));
+
+            FoxHoundBoard board = FoxHoundBoard.initial(solver.dimension);
+            int value = solver.get(solver.index.index(board));
+            String winner = FoxHoundTablebase.getWinner(value) == FoxHoundBoard.FOX_WIN ? "Fox" : "Hounds";
+            System.out.printf("Solved %d positions in %d ms%n", solver.values.length, millis);
+            System.out.printf("Start position: %s win in %d plies%n", winner, FoxHoundTablebase.getDistance(value));
+        } catch (NumberFormatException e) {
+            System.err.println(USAGE);
+            System.exit(1);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("ERROR: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A solved fox hound tablebase, read from a memory-mapped file.
+ *
+ * The file starts with a header of {@value #HEADER_BYTES} bytes:
+ *
+ *     "FHTB", version (1 byte), dimension (1 byte),
+ *     bits per entry (1 byte), reserved (1 byte), entry count (8 bytes)
+ *
+ * followed by one entry per position in the order of
+ * {@link FoxHoundTablebaseIndex}. An entry of 8 bits holds the winner
+ * and the number of plies until the game ends with perfect play (the
+ * winner hurries, the loser delays), see {@link #getWinner(int)} and
+ * {@link #getDistance(int)}. Large dimensions are stored with entries
+ * of 2 bits holding only the winner ({@link FoxHoundBoard#FOX_WIN} or
+ * {@link FoxHoundBoard#HOUND_WIN}), four entries per byte starting at the
+ * lowest bits. Entries which do not belong to a position (the fox on a
+ * hound) are {@value #UNKNOWN}.
+ *
+ * The file is never read into the heap, so probing a position costs one
+ * page access of the operating system cache.
+ */
+public class FoxHoundTablebase implements Closeable {
+
+    /** Magic bytes at the start of every tablebase file. */
+    public static final String MAGIC = "FHTB";
+    /** Version of the file format. */
+    public static final int VERSION = 1;
+    /** Size of the file header in bytes. */
+    public static final int HEADER_BYTES = 16;
+    /** Entry size of files storing the distance. */
+    public static final int DISTANCE_BITS = 8;
+    /** Entry size of files storing only the winner. */
+    public static final int WINNER_BITS = 2;
+    /** Value of positions which are not in the tablebase. */
+    public static final int UNKNOWN = 0;
+    /** Largest stored distance, longer games are stored with this distance. */
+    public static final int MAX_DISTANCE = 126;
+    /** Returned by {@link #bestMove(FoxHoundBoard)} if no move is known. */
+    public static final int NO_MOVE = -1;
+
+    /** First value of a hound win, smaller values are fox wins. */
+    private static final int HOUND_WIN_BASE = 128;
+    /** Files are mapped in chunks since one mapping is limited to 2 GB. */
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final FoxHoundTablebaseIndex index;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final int bitsPerEntry;
+
+    private FoxHoundTablebase(FoxHoundTablebaseIndex index, FileChannel channel, MappedByteBuffer[] chunks, int bitsPerEntry)
+    {
+        this.index = index;
+        this.channel = channel;
+        this.chunks = chunks;
+        this.bitsPerEntry = bitsPerEntry;
+    }
+
+    /**
+     * Open and map a tablebase file
+     * @param path path of the file
+     * @return tablebase reading the file
+     * @throws IOException if the file cannot be read or is not a valid tablebase
+     * @throws NullPointerException if path is null
+     */
+    public static FoxHoundTablebase open(Path path) throws IOException, NullPointerException
+    {
+        if (path == null) throw new NullPointerException("Path is null");
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) throw new IOException("Tablebase header is truncated");
+            }
+            header.flip();
+            byte[] magic = new byte[MAGIC.length()];
+            header.get(magic);
+            if (!MAGIC.equals(new String(magic, StandardCharsets.US_ASCII))) throw new IOException("Not a tablebase file");
+            if (header.get() != VERSION) throw new IOException("Unsupported tablebase version");
+            int dimension = header.get();
+            int bits = header.get();
+            header.get();
+            long entries = header.getLong();
+            if (!FoxHoundUtils.checkInputDimension(dimension, false)) throw new IOException("Invalid tablebase dimension");
+            if (bits != DISTANCE_BITS && bits != WINNER_BITS) throw new IOException("Unsupported tablebase entry size");
+
+            FoxHoundTablebaseIndex index = new FoxHoundTablebaseIndex(dimension);
+            long bytes = (entries * bits + Byte.SIZE - 1) / Byte.SIZE;
+            if (entries != index.size() || channel.size() < HEADER_BYTES + bytes)
+                throw new IOException("Tablebase file is truncated");
+
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((bytes + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_SHIFT;
+                long length = Math.min(bytes - start, 1L << CHUNK_SHIFT);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + start, length);
+            }
+            return new FoxHoundTablebase(index, channel, chunks, bits);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Build the header of a tablebase file
+     * @param dimension
+     * @param bitsPerEntry size of one entry
+     * @param entries number of entries
+     * @return header ready to be written
+     */
+    static ByteBuffer header(int dimension, int bitsPerEntry, long entries)
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.put(MAGIC.getBytes(StandardCharsets.US_ASCII));
+        header.put((byte) VERSION);
+        header.put((byte) dimension);
+        header.put((byte) bitsPerEntry);
+        header.put((byte) 0);
+        header.putLong(entries);
+        header.flip();
+        return header;
+    }
+
+    /** @return dimension of the solved board */
+    public int getDimension()
+    {
+        return index.getDimension();
+    }
+
+    /** @return true if the file stores the distance, otherwise all distances are 0 */
+    public boolean hasDistance()
+    {
+        return bitsPerEntry == DISTANCE_BITS;
+    }
+
+    /** @return numbering of the positions */
+    public FoxHoundTablebaseIndex getIndex()
+    {
+        return index;
+    }
+
+    /**
+     * Read an entry
+     * @param position position index, see {@link FoxHoundTablebaseIndex}
+     * @return stored value, with distance 0 if the file stores only the winner
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public int get(long position) throws IndexOutOfBoundsException
+    {
+        if (position < 0 || position >= index.size()) throw new IndexOutOfBoundsException("Position index out of range");
+        if (bitsPerEntry == DISTANCE_BITS) return readByte(position);
+        int winner = readByte(position >>> 2) >>> (int) (position & 3) * WINNER_BITS & 3;
+        return winner == FoxHoundBoard.ONGOING ? UNKNOWN : encode(winner, 0);
+    }
+
+    private int readByte(long offset)
+    {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].get((int) (offset & CHUNK_MASK)) & 0xFF;
+    }
+
+    /**
+     * Look up a position
+     * @param board position of the tablebase dimension
+     * @return stored value or {@value #UNKNOWN} if the position is not in the tablebase
+     * @throws IllegalArgumentException if the dimension of the board differs
+     */
+    public int probe(FoxHoundBoard board) throws IllegalArgumentException
+    {
+        long position = index.index(board);
+        if (position == FoxHoundTablebaseIndex.NO_INDEX) return UNKNOWN;
+        return get(position);
+    }
+
+    /**
+     * Find the move of perfect play: the fastest win, or the slowest loss.
+     * Without distances any winning move is returned, which still wins
+     * since no position repeats. The board is changed while searching and restored before returning
+     * @param board position of the tablebase dimension
+     * @return packed move as in {@link FoxHoundBoard#packMove(int, int)} or {@value #NO_MOVE}
+     * @throws IllegalArgumentException if the dimension of the board differs
+     */
+    public int bestMove(FoxHoundBoard board) throws IllegalArgumentException
+    {
+        int mover = board.getTurn() == FoxHoundUtils.FOX_FIELD ? FoxHoundBoard.FOX_WIN : FoxHoundBoard.HOUND_WIN;
+        int[] moves = new int[FoxHoundBoard.MAX_MOVES];
+        int count = board.generateMoves(moves);
+        int best = NO_MOVE;
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            int value = probe(board);
+            board.unmakeMove(moves[i]);
+            if (value == UNKNOWN) continue;
+            //Wins rank above losses, short wins above long wins, long losses above short losses
+            int rank = getWinner(value) == mover ? 2 * MAX_DISTANCE - getDistance(value) : getDistance(value);
+            if (rank > bestRank)
+            {
+                bestRank = rank;
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Encode a value
+     * @param winner {@link FoxHoundBoard#FOX_WIN} or {@link FoxHoundBoard#HOUND_WIN}
+     * @param distance plies until the game ends, stored up to {@value #MAX_DISTANCE}
+     * @return value of an 8 bit entry
+     */
+    public static int encode(int winner, int distance)
+    {
+        int base = winner == FoxHoundBoard.FOX_WIN ? 1 : HOUND_WIN_BASE;
+        return base + Math.min(distance, MAX_DISTANCE);
+    }
+
+    /**
+     * @param value stored value
+     * @return {@link FoxHoundBoard#FOX_WIN}, {@link FoxHoundBoard#HOUND_WIN} or
+     * {@link FoxHoundBoard#ONGOING} if the value is {@value #UNKNOWN}
+     */
+    public static int getWinner(int value)
+    {
+        if (value == UNKNOWN) return FoxHoundBoard.ONGOING;
+        return value < HOUND_WIN_BASE ? FoxHoundBoard.FOX_WIN : FoxHoundBoard.HOUND_WIN;
+    }
+
+    /**
+     * @param value stored value other than {@value #UNKNOWN}
+     * @return plies until the game ends with perfect play
+     */
+    public static int getDistance(int value)
+    {
+        return value < HOUND_WIN_BASE ? value - 1 : value - HOUND_WIN_BASE;
+    }
+
+    /**
+     * Close the file. The mapping stays valid until it is garbage collected,
+     * but the tablebase must not be used any more
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+}
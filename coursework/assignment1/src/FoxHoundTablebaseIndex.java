@@ -0,0 +1,279 @@
+/**
+ * The position numbering of the fox hound tablebase.
+ *
+ * All figures keep the colour of their starting square, since they only
+ * move diagonally. A position is therefore numbered by the set of hound
+ * squares among the hound-coloured squares (a combination, ranked in
+ * colexicographic order), the fox square among the fox-coloured squares
+ * and the figure to move:
+ *
+ *     index = (houndRank * foxSquares + foxIndex) * 2 + side
+ *
+ * where side is 0 if the fox and 1 if the hounds are to move. Hounds
+ * are not told apart, so every order of the players array maps to the
+ * same index.
+ */
+public class FoxHoundTablebaseIndex {
+
+    /** Side number of the fox. */
+    public static final int FOX_SIDE = 0;
+    /** Side number of the hounds. */
+    public static final int HOUND_SIDE = 1;
+    /** Returned for positions which cannot be numbered. */
+    public static final long NO_INDEX = -1L;
+    /** Returned for squares which have the wrong colour. */
+    public static final int NO_SQUARE = -1;
+
+    private final int dimension;
+    private final int houndCount;
+    private final int[] houndSquares;
+    private final int[] foxSquares;
+    private final int[] houndIndexOfSquare;
+    private final int[] foxIndexOfSquare;
+    private final long[][] binomials;
+    private final long configurations;
+
+    /**
+     * Create the numbering for a dimension
+     * @param dimension
+     * @throws IllegalArgumentException if dimension is out of range
+     */
+    public FoxHoundTablebaseIndex(int dimension) throws IllegalArgumentException
+    {
+        FoxHoundUtils.checkInputDimension(dimension, true);
+        this.dimension = dimension;
+        this.houndCount = dimension / 2;
+
+        //Hounds start on B1, D1, ... and the fox in the middle of the last row
+        int houndColour = 1;
+        int foxColour = (dimension / 2 + dimension - 1) % 2;
+        int squares = dimension * dimension;
+        int houndTotal = 0;
+        int foxTotal = 0;
+        for (int square = 0; square < squares; square++) {
+            int colour = (square % dimension + square / dimension) % 2;
+            if (colour == houndColour) houndTotal++;
+            if (colour == foxColour) foxTotal++;
+        }
+        houndSquares = new int[houndTotal];
+        foxSquares = new int[foxTotal];
+        houndIndexOfSquare = new int[squares];
+        foxIndexOfSquare = new int[squares];
+        houndTotal = 0;
+        foxTotal = 0;
+        for (int square = 0; square < squares; square++) {
+            int colour = (square % dimension + square / dimension) % 2;
+            houndIndexOfSquare[square] = NO_SQUARE;
+            foxIndexOfSquare[square] = NO_SQUARE;
+            if (colour == houndColour)
+            {
+                houndIndexOfSquare[square] = houndTotal;
+                houndSquares[houndTotal++] = square;
+            }
+            if (colour == foxColour)
+            {
+                foxIndexOfSquare[square] = foxTotal;
+                foxSquares[foxTotal++] = square;
+            }
+        }
+
+        binomials = new long[houndTotal + 1][houndCount + 2];
+        for (int n = 0; n <= houndTotal; n++) {
+            binomials[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, houndCount + 1); k++) {
+                binomials[n][k] = binomials[n - 1][k - 1] + (k <= n - 1 ? binomials[n - 1][k] : 0);
+            }
+        }
+        configurations = binomials[houndTotal][houndCount];
+    }
+
+    /** @return dimension of the numbering */
+    public int getDimension()
+    {
+        return dimension;
+    }
+
+    /** @return number of hounds */
+    public int getHoundCount()
+    {
+        return houndCount;
+    }
+
+    /** @return number of hound configurations */
+    public long getConfigurations()
+    {
+        return configurations;
+    }
+
+    /** @return number of squares of the hound colour */
+    public int getHoundSquareCount()
+    {
+        return houndSquares.length;
+    }
+
+    /** @return number of squares of the fox colour */
+    public int getFoxSquareCount()
+    {
+        return foxSquares.length;
+    }
+
+    /** @return number of positions */
+    public long size()
+    {
+        return configurations * foxSquares.length * 2;
+    }
+
+    /**
+     * @param houndIndex index among the hound-coloured squares
+     * @return board square
+     */
+    public int houndSquare(int houndIndex)
+    {
+        return houndSquares[houndIndex];
+    }
+
+    /**
+     * @param foxIndex index among the fox-coloured squares
+     * @return board square
+     */
+    public int foxSquare(int foxIndex)
+    {
+        return foxSquares[foxIndex];
+    }
+
+    /**
+     * @param square board square
+     * @return index among the hound-coloured squares or {@link #NO_SQUARE}
+     */
+    public int houndIndexOf(int square)
+    {
+        return houndIndexOfSquare[square];
+    }
+
+    /**
+     * @param square board square
+     * @return index among the fox-coloured squares or {@link #NO_SQUARE}
+     */
+    public int foxIndexOf(int square)
+    {
+        return foxIndexOfSquare[square];
+    }
+
+    /**
+     * @param configuration hound configuration rank
+     * @param foxIndex index of the fox among the fox-coloured squares
+     * @param side {@link #FOX_SIDE} or {@link #HOUND_SIDE}
+     * @return position index
+     */
+    public long index(long configuration, int foxIndex, int side)
+    {
+        return (configuration * foxSquares.length + foxIndex) * 2 + side;
+    }
+
+    /**
+     * Number a board position
+     * @param board position of the same dimension
+     * @return position index or {@link #NO_INDEX} if a figure stands on a square of the wrong colour
+     * @throws IllegalArgumentException if the dimension of the board differs
+     */
+    public long index(FoxHoundBoard board) throws IllegalArgumentException
+    {
+        if (board.getDimension() != dimension) throw new IllegalArgumentException("Board dimension does not match the tablebase");
+        int foxIndex = foxIndexOfSquare[board.getFoxSquare()];
+        if (foxIndex == NO_SQUARE) return NO_INDEX;
+        //Hound squares are visited in increasing order, so the combination is already sorted
+        long rank = 0;
+        int k = 0;
+        for (int i = 0; i < houndSquares.length && k < houndCount; i++) {
+            if (board.isHound(houndSquares[i])) rank += binomials[i][++k];
+        }
+        if (k != houndCount || countHounds(board) != houndCount) return NO_INDEX;
+        int side = board.getTurn() == FoxHoundUtils.FOX_FIELD ? FOX_SIDE : HOUND_SIDE;
+        return index(rank, foxIndex, side);
+    }
+
+    private int countHounds(FoxHoundBoard board)
+    {
+        int count = 0;
+        for (int square = 0; square < dimension * dimension; square++) {
+            if (board.isHound(square)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Rank a sorted hound combination
+     * @param combination strictly increasing indices among the hound-coloured squares
+     * @return configuration rank
+     */
+    public long rank(int[] combination)
+    {
+        long rank = 0;
+        for (int i = 0; i < houndCount; i++) {
+            rank += binomials[combination[i]][i + 1];
+        }
+        return rank;
+    }
+
+    /**
+     * Turn a configuration rank back into its sorted hound combination
+     * @param rank configuration rank
+     * @param combination buffer of length {@link #getHoundCount()} receiving the indices
+     */
+    public void unrank(long rank, int[] combination)
+    {
+        int candidate = houndSquares.length - 1;
+        for (int i = houndCount - 1; i >= 0; i--) {
+            while (binomials[candidate][i + 1] > rank) candidate--;
+            combination[i] = candidate;
+            rank -= binomials[candidate][i + 1];
+            candidate--;
+        }
+    }
+
+    /**
+     * Advance a combination to the next one in colexicographic order, i.e. the next rank
+     * @param combination sorted combination, modified in place
+     * @return false if the combination was the last one
+     */
+    public boolean next(int[] combination)
+    {
+        for (int i = 0; i < houndCount; i++) {
+            int limit = i + 1 < houndCount ? combination[i + 1] : houndSquares.length;
+            if (combination[i] + 1 < limit)
+            {
+                combination[i]++;
+                for (int j = 0; j < i; j++) combination[j] = j;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rank of a combination in which one hound moved, without modifying the combination
+     * @param combination sorted combination
+     * @param position position of the moving hound in the combination
+     * @param target new index among the hound-coloured squares, not part of the combination
+     * @return configuration rank after the move
+     */
+    public long rankAfterMove(int[] combination, int position, int target)
+    {
+        //Hounds only move forward, so the target is larger and moves up in the sorted order
+        long rank = 0;
+        int slot = 0;
+        boolean placed = false;
+        for (int i = 0; i < houndCount; i++) {
+            if (i == position) continue;
+            int value = combination[i];
+            if (!placed && target < value)
+            {
+                rank += binomials[target][++slot];
+                placed = true;
+            }
+            rank += binomials[value][++slot];
+        }
+        if (!placed) rank += binomials[target][++slot];
+        return rank;
+    }
+}
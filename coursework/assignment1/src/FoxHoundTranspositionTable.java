@@ -0,0 +1,200 @@
+import java.util.Arrays;
+
+/**
+ * A transposition table for the game search of the fox hound program.
+ *
+ * Search results are stored under the Zobrist hash of their position
+ * ({@link FoxHoundBoard#getHash()}) in two parallel primitive arrays, one
+ * holding the keys and one holding the packed entries. The number of
+ * entries is a power of two derived from the configured memory size, so
+ * the table never grows during long sessions.
+ *
+ * Entries are grouped in buckets of two: the first slot keeps the deepest
+ * result of the current search, the second slot is always replaced.
+ *
+ * Several search threads may share one table without locks. A slot stores
+ * its key XORed with its entry, so a probe only accepts an entry if key and
+ * entry were written by the same store; a slot torn by two threads writing
+ * at once is read as a miss. Only {@link #newSearch} and {@link #clear} must
+ * not run concurrently with a search.
+ */
+public class FoxHoundTranspositionTable {
+
+    /** Default size of the table in megabytes. */
+    public static final int DEFAULT_SIZE_MB = 16;
+    /** Maximum size of the table in megabytes. */
+    public static final int MAX_SIZE_MB = 8192;
+    /** Returned by {@link #probe(long)} if the position is not stored. */
+    public static final long MISS = 0L;
+
+    /** The stored score is an upper bound of the real score. */
+    public static final int UPPER_BOUND = 1;
+    /** The stored score is a lower bound of the real score. */
+    public static final int LOWER_BOUND = 2;
+    /** The stored score is exact. */
+    public static final int EXACT = 3;
+
+    /** Bytes used by one entry (key and data). */
+    private static final int ENTRY_BYTES = 16;
+    /** Number of entries per bucket. */
+    private static final int BUCKET_SIZE = 2;
+
+    // Layout of the packed data: score (32 bits), move + 1 (20 bits),
+    // depth (7 bits), bound (2 bits), age (3 bits)
+    private static final int MOVE_SHIFT = 32;
+    private static final long MOVE_MASK = (1L << 20) - 1;
+    private static final int DEPTH_SHIFT = 52;
+    private static final int MAX_DEPTH = (1 << 7) - 1;
+    private static final int BOUND_SHIFT = 59;
+    private static final int AGE_SHIFT = 61;
+    private static final int AGE_MASK = (1 << 3) - 1;
+
+    /** Key of every slot XORed with its entry. */
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private int age;
+
+    /**
+     * Create a table with {@value #DEFAULT_SIZE_MB} megabytes
+     */
+    public FoxHoundTranspositionTable()
+    {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * Create a table using at most the given memory size
+     * @param megabytes size of the table (1 - {@value #MAX_SIZE_MB})
+     * @throws IllegalArgumentException if the size is out of range
+     */
+    public FoxHoundTranspositionTable(int megabytes) throws IllegalArgumentException
+    {
+        if (megabytes < 1 || megabytes > MAX_SIZE_MB)
+            throw new IllegalArgumentException(String.format("Table size out of range (1-%d MB)", MAX_SIZE_MB));
+        long entries = Long.highestOneBit(megabytes * 1024L * 1024L / ENTRY_BYTES);
+        //Java arrays are indexed by int
+        entries = Math.min(entries, 1L << 30);
+        keys = new long[(int) entries];
+        data = new long[(int) entries];
+        bucketMask = (int) (entries / BUCKET_SIZE) - 1;
+    }
+
+    /** @return number of entries the table can hold */
+    public int capacity()
+    {
+        return keys.length;
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear()
+    {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+        age = 0;
+    }
+
+    /**
+     * Mark the start of a new search, entries of older searches are replaced first
+     */
+    public void newSearch()
+    {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Look up a position
+     * @param key Zobrist hash of the position
+     * @return packed entry or {@link #MISS}, use the static getters to read it
+     */
+    public long probe(long key)
+    {
+        int slot = ((int) key & bucketMask) * BUCKET_SIZE;
+        //Each slot is read once, so the check and the result belong together
+        long entry = data[slot];
+        if ((keys[slot] ^ entry) == key && entry != MISS) return entry;
+        entry = data[slot + 1];
+        if ((keys[slot + 1] ^ entry) == key && entry != MISS) return entry;
+        return MISS;
+    }
+
+    /**
+     * Store a search result
+     * @param key Zobrist hash of the position
+     * @param move best move found, or a negative number if none
+     * @param score score of the position
+     * @param depth remaining search depth of the result
+     * @param bound {@link #UPPER_BOUND}, {@link #LOWER_BOUND} or {@link #EXACT}
+     */
+    public void store(long key, int move, int score, int depth, int bound)
+    {
+        int slot = ((int) key & bucketMask) * BUCKET_SIZE;
+        long entry = pack(move, score, depth, bound, age);
+        long old = data[slot];
+        boolean sameKey = (keys[slot] ^ old) == key;
+        //The first slot keeps deep results of the current search
+        if (sameKey || old == MISS || getAge(old) != age || depth >= getDepth(old))
+        {
+            //Keep a known best move if the new result has none
+            if (move < 0 && sameKey && old != MISS) entry = pack(getMove(old), score, depth, bound, age);
+            keys[slot] = key ^ entry;
+            data[slot] = entry;
+        }
+        else
+        {
+            keys[slot + 1] = key ^ entry;
+            data[slot + 1] = entry;
+        }
+    }
+
+    private static long pack(int move, int score, int depth, int bound, int age)
+    {
+        long moveBits = (move + 1L) & MOVE_MASK;
+        long depthBits = Math.min(Math.max(depth, 0), MAX_DEPTH);
+        return (score & 0xFFFFFFFFL) | moveBits << MOVE_SHIFT | depthBits << DEPTH_SHIFT
+            | (long) bound << BOUND_SHIFT | (long) age << AGE_SHIFT;
+    }
+
+    /**
+     * @param entry packed entry
+     * @return stored score
+     */
+    public static int getScore(long entry)
+    {
+        return (int) entry;
+    }
+
+    /**
+     * @param entry packed entry
+     * @return stored best move, or a negative number if none
+     */
+    public static int getMove(long entry)
+    {
+        return (int) ((entry >>> MOVE_SHIFT) & MOVE_MASK) - 1;
+    }
+
+    /**
+     * @param entry packed entry
+     * @return stored remaining search depth
+     */
+    public static int getDepth(long entry)
+    {
+        return (int) (entry >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    /**
+     * @param entry packed entry
+     * @return stored bound type
+     */
+    public static int getBound(long entry)
+    {
+        return (int) (entry >>> BOUND_SHIFT) & 3;
+    }
+
+    private static int getAge(long entry)
+    {
+        return (int) (entry >>> AGE_SHIFT) & AGE_MASK;
+    }
+}
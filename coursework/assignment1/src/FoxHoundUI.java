@@ -1,9 +1,9 @@
 import java.util.Scanner;
-import java.util.StringJoiner;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Objects;
+import java.util.function.Supplier;
 
 /**
  * A utility class for the fox hound program.
@@ -15,11 +15,15 @@ public class FoxHoundUI {
 
     /** Error message for null scanner */
     private static final String NULL_STDIN_MSG = "Given Scanner must not be null";
+    /** Input at the position query which asks for a hint. */
+    public static final String HINT_INPUT = "?";
+    /** Line printed at the position query if hints are offered. */
+    private static final String HINT_PROMPT_MSG = "Enter " + HINT_INPUT + " for a hint.";
     /** Number of main menu entries. */
-    private static final int MENU_ENTRIES = 4;
+    private static final int MENU_ENTRIES = 6;
     /** Main menu display string. */
     private static final String MAIN_MENU =
-        "\n1. Move\n2. Save\n3. Load\n4. Exit\n\nEnter 1 - 4:";
+        "\n1. Move\n2. Save\n3. Load\n4. Exit\n5. Undo\n6. Redo\n\nEnter 1 - 6:";
 
     /** Menu entry to select a move action. */
     public static final int MENU_MOVE = 1;
@@ -29,6 +33,15 @@ public class FoxHoundUI {
     public static final int MENU_LOAD = 3;
     /** Menu entry to terminate the program. */
     public static final int MENU_EXIT = 4;
+    /** Menu entry to take back the last move. */
+    public static final int MENU_UNDO = 5;
+    /** Menu entry to play a move taken back again. */
+    public static final int MENU_REDO = 6;
+
+    /** Renderers of the basic board by dimension, created on first use. */
+    private static final FoxHoundBoardRenderer[] RENDERERS = new FoxHoundBoardRenderer[FoxHoundUtils.MAX_DIM + 1];
+    /** Renderers of the fancy board by dimension, created on first use. */
+    private static final FoxHoundBoardRenderer[] FANCY_RENDERERS = new FoxHoundBoardRenderer[FoxHoundUtils.MAX_DIM + 1];
 
     /**
      * Print the basic display board according to the dimension and players' list
@@ -42,24 +55,7 @@ public class FoxHoundUI {
     {
         FoxHoundUtils.checkInputPositionList(players, true);
         FoxHoundUtils.checkInputDimension(dimension, true);
-
-        final boolean LEADING_ZERO = dimension > 9;
-        //get board in char matrix
-        char[][] board = boardMatrix(players, dimension, false);
-
-        StringBuilder output = new StringBuilder();
-        String columnLabelString  = columnLabel(LEADING_ZERO, dimension, false);
-        //print first row label
-        output.append(columnLabelString);
-        output.append("\n");
-        //print board rows
-        output.append(boardRows(LEADING_ZERO, dimension, board, false));
-        output.append("\n");
-        //print last row label
-        output.append(columnLabelString);
-
-        //print output
-        System.out.println(output.toString());
+        printBoard(players, dimension, false);
     }
 
     /**
@@ -74,124 +70,25 @@ public class FoxHoundUI {
     {
         FoxHoundUtils.checkInputPositionList(players, true);
         FoxHoundUtils.checkInputDimension(dimension, true);
-
-        final boolean LEADING_ZERO = dimension > 9;
-        //get board in char matrix
-        char[][] board = boardMatrix(players, dimension, true);
-
-        StringBuilder output = new StringBuilder();
-        String columnLabelString  = columnLabel(LEADING_ZERO, dimension, true);
-        //print first row label
-        output.append(columnLabelString);
-        output.append("\n");
-        //print board rows
-        output.append(boardRows(LEADING_ZERO, dimension, board, true));
-        output.append("\n");
-        //print last row label
-        output.append(columnLabelString);
-
-        //print output
-        System.out.println(output.toString());
+        printBoard(players, dimension, true);
     }
 
     /**
-     * Component of board. 
+     * Print a board with the shared renderer of its dimension and style.
      * Caution: check the input parameters at the calling code 
      * @param players list of players' coordinates
      * @param dimension
      * @param FANCY true if applicable to fancy display board, false otherwise
-     * @return char matrix listing the figure at each coordinate 
-     */
-    private static char[][] boardMatrix (String[] players, int dimension, boolean FANCY)
-    {
-        char emptyChar = FANCY ? ' ' : '.';
-        char[][] board = new char[dimension][dimension];
-        //put dots to the board
-        for (int i=0; i < dimension; i++) for (int j=0; j < dimension;j++) board[i][j] = emptyChar;
-        //put locations on board
-        for (int i=0; i < players.length; i++)
-        {
-            String player = players[i];
-            int row = FoxHoundUtils.getRowNumber(player);
-            int col = FoxHoundUtils.getColumnNumber(player);
-            char field = i == players.length-1 ? FoxHoundUtils.FOX_FIELD : FoxHoundUtils.HOUND_FIELD;
-            board[row][col] = field;
-        }
-        return board;
-    }
-
-    /**
-     * Component of board. 
-     * Caution: check the input parameters at the calling code 
-     * @param LEADING_ZERO if label contains more than one digit (e.g. 01, 02, ...)
-     * @param dimension 
-     * @param FANCY true if applicable to fancy display board, false otherwise
-     * @return Column row in string
-     */
-    private static String columnLabel (boolean LEADING_ZERO, int dimension, boolean FANCY)
-    {
-        String padding = FANCY ? (LEADING_ZERO ? "     " : "    ") : (LEADING_ZERO ? "   " : "  ");
-        String delimiter = FANCY ? "   " : "";
-        StringJoiner output = new StringJoiner(delimiter,padding,padding);
-        for(int i = 0; i < dimension; i++)
-        {
-            char columnChar = FoxHoundUtils.getColumnChar(i);
-            output.add(Character.toString(columnChar));
-        }
-        return output.toString();
-    }
-
-    /**
-     * Component of board. 
-     * Caution: check the input parameters at the calling code 
-     * @param LEADING_ZERO if label contains more than one digit (e.g. 01, 02, ...)
-     * @param dimension
-     * @param board
-     * @param FANCY true if applicable to fancy display board, false otherwise
-     * @return
+     * @throws IllegalArgumentException if a coordinate is outside the board
      */
-    private static String boardRows(boolean LEADING_ZERO, int dimension, char[][] board, boolean FANCY)
+    private static synchronized void printBoard(String[] players, int dimension, boolean FANCY) throws IllegalArgumentException
     {
-        StringJoiner output;
-        //StringJoiner initialisation
-        if(FANCY)
-        {
-            String fancyPadding = LEADING_ZERO ? "   " : "  ";
-            StringJoiner fancyBorderJoiner = new StringJoiner("|", "\n"+fancyPadding + "|", "|" + fancyPadding + "\n");
-            for(int i = 0; i < dimension; i++) fancyBorderJoiner.add("===");
-            String fancyRow = fancyBorderJoiner.toString();
-            output = new StringJoiner(fancyRow, fancyRow, fancyRow);
-        }
-        else
-        {
-            output = new StringJoiner("\n", "\n", "\n");
-        }
-
-        //row builder
-        
-        for (int i = 0; i < dimension; i++) {
-            char[] row = board[i];
-            
-            String rowString;
-            if(FANCY)
-            {
-                StringJoiner rowStringJoiner = new StringJoiner(" | ", "| ", " |");
-                for (char c : row) {
-                    rowStringJoiner.add(Character.toString(c));
-                }
-                rowString = rowStringJoiner.toString();
-            }
-            else
-            {
-                rowString = new String(row);
-            }
-            String rowLabel = (i+1<10 && LEADING_ZERO) ? ("0" + Integer.toString(i+1)) : (Integer.toString(i+1));
-            output.add(String.format("%s %s %s", rowLabel, rowString, rowLabel));
-        }
-        return output.toString();
+        FoxHoundBoardRenderer[] renderers = FANCY ? FANCY_RENDERERS : RENDERERS;
+        if (renderers[dimension] == null) renderers[dimension] = new FoxHoundBoardRenderer(dimension, FANCY);
+        //The frame is printed directly, without building a string
+        System.out.println(renderers[dimension].render(players));
     }
 
-
     /**
      * Print the main menu and query the user for an entry selection.
      * @param figureToMove the figure type that has the next move
@@ -242,6 +139,20 @@ public class FoxHoundUI {
      * @throws NullPointerException if stdin is null
      */
     public static String[] positionQuery(int dimension, Scanner stdin) throws NullPointerException, IllegalArgumentException
+    {
+        return positionQuery(dimension, stdin, null);
+    }
+
+    /**
+     * Ask the coordinate from standard input, answering {@value #HINT_INPUT} with a hint
+     * @param dimension
+     * @param stdin Scanner
+     * @param hints supplies the hint line printed for {@value #HINT_INPUT}, null to offer no hints
+     * @return list containing two coordinates {origin, destination}
+     * @throws IllegalArgumentException if dimension is out of range 
+     * @throws NullPointerException if stdin is null
+     */
+    public static String[] positionQuery(int dimension, Scanner stdin, Supplier<String> hints) throws NullPointerException, IllegalArgumentException
     {
         //Check input dimension
         FoxHoundUtils.checkInputDimension(dimension, true);
@@ -256,8 +167,14 @@ public class FoxHoundUI {
             //Print description
             System.out.println("Provide origin and destination coordinates.");
             System.out.printf("Enter two positions between %s-%s:\n",FoxHoundUtils.getPositionString(0,0), FoxHoundUtils.getPositionString(dimension-1, dimension-1));
+            if (hints != null) System.out.println(HINT_PROMPT_MSG);
             //Receive and process input
             String input = stdin.nextLine();
+            if (hints != null && input.trim().equals(HINT_INPUT))
+            {
+                System.out.println(hints.get());
+                continue;
+            }
             positions = input.toUpperCase().split(" ");
             //Basic input validation
             boolean validationResult = true;
@@ -3,6 +3,11 @@
  * 
  * It contains helper functions to check the state of the game
  * board and validate board coordinates and figure positions.
+ * 
+ * Public methods check all of their input and are meant for user input.
+ * The package-private methods ending with Unchecked skip these checks and
+ * are meant for code which has validated a game state once (e.g. with
+ * checkInputDimWithPositionList) and then queries it many times.
  */
 public class FoxHoundUtils {
 
@@ -27,6 +32,7 @@ public class FoxHoundUtils {
 
     // HINT Write your own constants here to improve code readability ...
 
+
     /**
      * Initialise the board given the dimension 
      * @param dimension
@@ -75,8 +81,20 @@ public class FoxHoundUtils {
     public static int getColumnNumber(String player) throws IllegalArgumentException
     {
         checkInputPosition(player, true);
-        int number = player.charAt(0) - (int)'A';
-        return number;
+        return getColumnNumberUnchecked(player);
+    }
+
+    /**
+     * Internal method for getting the zero-based column number of a coordinate which is already checked
+     * @param player valid position coordinate
+     * @return zero-based column number
+     */
+    static int getColumnNumberUnchecked(String player)
+    {
+        //Plain coordinates are answered by the lookup table
+        int index = FoxHoundCoordinates.indexOf(player);
+        if (index != FoxHoundCoordinates.NOT_FOUND) return FoxHoundCoordinates.getColumnNumber(index);
+        return player.charAt(0) - (int)'A';
     }
 
     /**
@@ -102,8 +120,20 @@ public class FoxHoundUtils {
     public static int getRowNumber(String player) throws IllegalArgumentException
     {
         checkInputPosition(player, true);
-        int number = Integer.parseInt(player.substring(1)) - 1;
-        return number;
+        return getRowNumberUnchecked(player);
+    }
+
+    /**
+     * Internal method for getting the zero-based row number of a coordinate which is already checked
+     * @param player valid position coordinate
+     * @return zero-based row number
+     */
+    static int getRowNumberUnchecked(String player)
+    {
+        //Plain coordinates are answered by the lookup table
+        int index = FoxHoundCoordinates.indexOf(player);
+        if (index != FoxHoundCoordinates.NOT_FOUND) return FoxHoundCoordinates.getRowNumber(index);
+        return Integer.parseInt(player.substring(1)) - 1;
     }
 
     /**
@@ -128,9 +158,10 @@ public class FoxHoundUtils {
      */
     private static String getPositionStringNoThrows(int columnNumber, int rowNumber)
     {
+        if (FoxHoundCoordinates.contains(columnNumber, rowNumber)) return FoxHoundCoordinates.getPositionString(columnNumber, rowNumber);
+        //Coordinates outside the table are built by hand
         char columnChar = (char)('A' + columnNumber);
-        String location = String.format("%c%d", columnChar, rowNumber + 1);
-        return location;
+        return columnChar + Integer.toString(rowNumber + 1);
     }
 
     /**
@@ -149,6 +180,17 @@ public class FoxHoundUtils {
         checkInputPositionList(players, true);
         checkInputPosition(origin, true);
         checkInputPosition(destination, true);
+        updatePositionsUnchecked(players, origin, destination);
+    }
+
+    /**
+     * Internal version of updatePositions for input which is already checked
+     * @param players valid list of coordinates
+     * @param origin valid coordinate
+     * @param destination valid coordinate
+     */
+    static void updatePositionsUnchecked(String[] players, String origin, String destination)
+    {
         //Find the origin in the array, then change this to destination
         for (int i = 0; i < players.length; i++) {
             if(players[i].equals(origin)) players[i] = destination;
@@ -164,7 +206,7 @@ public class FoxHoundUtils {
     public static boolean isFoxWin(String foxPosition) throws IllegalArgumentException
     {
         checkInputPosition(foxPosition, true);
-        return getRowNumber(foxPosition) == 0;
+        return getRowNumberUnchecked(foxPosition) == 0;
     }
 
     /**
@@ -179,25 +221,69 @@ public class FoxHoundUtils {
     public static boolean isHoundWin(String[] players, int dimension)
         throws IllegalArgumentException, NullPointerException
     {
-        checkInputPositionList(players, true);
+        return countFoxMoves(players, dimension) == 0;
+    }
+
+    /**
+     * Count the legal moves of the fox using the precomputed neighbour tables.
+     * Squares outside the board are skipped, so no exception is thrown for valid input.
+     * Caution: you must be sure that fox does not win yet at the calling code
+     * @param players
+     * @param dimension
+     * @return number of squares the fox can move to (0-4)
+     * @throws IllegalArgumentException if players array or dimension is invalid 
+     * @throws NullPointerException if players array is null
+     */
+    public static int countFoxMoves(String[] players, int dimension)
+        throws IllegalArgumentException, NullPointerException
+    {
+        boolean validList = checkInputPositionList(players, true);
         checkInputDimension(dimension, true);
-        String foxPosition = players[players.length - 1];
-        int foxColumn = getColumnNumber(foxPosition);
-        int foxRow = getRowNumber(foxPosition);
-        String[] foxPossibleMove = {
-            getPositionStringNoThrows(foxColumn + 1, foxRow + 1),
-            getPositionStringNoThrows(foxColumn + 1, foxRow - 1),
-            getPositionStringNoThrows(foxColumn - 1, foxRow + 1),
-            getPositionStringNoThrows(foxColumn - 1, foxRow - 1)
-        };
-        for (String move : foxPossibleMove) {
-            try {
-                if(isValidMove(dimension, players, FOX_FIELD, foxPosition, move)) return false;
-            } catch (Exception e) {
-                continue;
+        if (validList)
+        {
+            //A player list which does not fit the dimension allows no move at all
+            if (!checkInputPlayerNumber(players, dimension, false)) return 0;
+        }
+        else
+        {
+            //The list check stops early on coordinates beyond the board, the fox still has to be a coordinate
+            checkInputPosition(players[players.length - 1], true);
+        }
+        return countFoxMovesUnchecked(players, dimension);
+    }
+
+    /**
+     * Internal version of countFoxMoves for input which is already checked.
+     * Only the fox coordinate is parsed, hounds are compared with the neighbour coordinates.
+     * @param players valid list of coordinates
+     * @param dimension valid dimension
+     * @return number of squares the fox can move to (0-4)
+     */
+    static int countFoxMovesUnchecked(String[] players, int dimension)
+    {
+        String fox = players[players.length - 1];
+        int foxColumn = getColumnNumberUnchecked(fox);
+        int foxRow = getRowNumberUnchecked(fox);
+        if (foxColumn >= dimension || foxRow < 0 || foxRow >= dimension) return 0;
+
+        int[] neighbours = FoxHoundNeighbours.foxTable(dimension);
+        int first = (foxRow * dimension + foxColumn) * FoxHoundNeighbours.FOX_STEPS;
+        //Bit k is set if the k-th neighbour is outside the board or occupied
+        int blocked = 0;
+        for (int k = 0; k < FoxHoundNeighbours.FOX_STEPS; k++) {
+            if (neighbours[first + k] == FoxHoundNeighbours.NONE) blocked |= 1 << k;
+        }
+        for (int i = 0; i < players.length - 1; i++) {
+            String hound = players[i];
+            //A hound on the fox coordinate makes the fox origin ambiguous
+            if (hound.equals(fox)) return 0;
+            for (int k = 0; k < FoxHoundNeighbours.FOX_STEPS; k++) {
+                int neighbour = neighbours[first + k];
+                if (neighbour != FoxHoundNeighbours.NONE
+                    && hound.equals(FoxHoundCoordinates.getPositionString(neighbour % dimension, neighbour / dimension))) blocked |= 1 << k;
             }
         }
-        return true;
+        return FoxHoundNeighbours.FOX_STEPS - Integer.bitCount(blocked);
     }
 
     /**
@@ -214,17 +300,36 @@ public class FoxHoundUtils {
     public static boolean isValidMove(int dimension, String[] players, char figure, String origin, String destination)
         throws IllegalArgumentException, NullPointerException
     {
-        //Handle exceptions 
-        checkInputPositionList(players, true);
+        //Handle exceptions, every input is checked exactly once
+        boolean validList = checkInputPositionList(players, true);
         checkInputFigure(figure, true);
         checkInputDimension(dimension, true);
         checkInputPosition(origin, true);
         checkInputPosition(destination, true);
-        checkInputDimWithPositionList(players, dimension, true);
+        if (validList) checkInputPlayerNumber(players, dimension, true);
+
+        return isValidMoveUnchecked(dimension, players, figure, origin, destination);
+    }
 
+    /**
+     * Internal version of isValidMove for input which is already checked.
+     * Each coordinate is parsed at most once.
+     * @param dimension valid dimension
+     * @param players valid list of players' coordinates matching the dimension
+     * @param figure valid figure
+     * @param origin valid coordinate
+     * @param destination valid coordinate
+     * @return true if the move is valid, false otherwise
+     */
+    static boolean isValidMoveUnchecked(int dimension, String[] players, char figure, String origin, String destination)
+    {
         //Check if the origin and destination are valid coordinates
-        if (getColumnNumber(origin) >= dimension || getRowNumber(origin) >= dimension) return false;
-        if (getColumnNumber(destination) >= dimension || getRowNumber(destination) >= dimension) return false;
+        int originColumn = getColumnNumberUnchecked(origin);
+        int originRow = getRowNumberUnchecked(origin);
+        if (originColumn >= dimension || originRow >= dimension) return false;
+        int destinationColumn = getColumnNumberUnchecked(destination);
+        int destinationRow = getRowNumberUnchecked(destination);
+        if (destinationColumn >= dimension || destinationRow >= dimension) return false;
 
         //Check if origin is in player list
         boolean containsOrigin = false;
@@ -244,8 +349,8 @@ public class FoxHoundUtils {
 
 
         //Check if the destination can be arrived from the origin
-        int relativeColumnDistance = getColumnNumber(destination) - getColumnNumber(origin);
-        int relativeRowDistance = getRowNumber(destination) - getRowNumber(origin);
+        int relativeColumnDistance = destinationColumn - originColumn;
+        int relativeRowDistance = destinationRow - originRow;
         if(figure == FOX_FIELD && (Math.abs(relativeColumnDistance) != 1 || Math.abs(relativeRowDistance) != 1)) return false;
         if(figure == HOUND_FIELD && (Math.abs(relativeColumnDistance) != 1 || relativeRowDistance != 1)) return false;
 
@@ -253,6 +358,135 @@ public class FoxHoundUtils {
         return true;
     }
 
+    /**
+     * Generate all valid moves of a figure type, i.e. every pair of board coordinates
+     * for which isValidMove returns true. Moves are packed as in FoxHoundBoard
+     * (origin square and destination square, squares numbered row * dimension + column),
+     * use getMoveOrigin and getMoveDestination to turn them back into coordinates.
+     * @param dimension
+     * @param players list of players' coordinates
+     * @param figure figure type to move
+     * @param moves buffer receiving the packed moves, at least FoxHoundBoard.MAX_MOVES long
+     * @return number of moves written to the buffer
+     * @throws NullPointerException if players or moves is null
+     * @throws IllegalArgumentException if players, figure or dimension are invalid or the buffer is too short
+     */
+    public static int generateMoves(int dimension, String[] players, char figure, int[] moves)
+        throws IllegalArgumentException, NullPointerException
+    {
+        checkInputDimWithPositionList(players, dimension, true);
+        checkInputFigure(figure, true);
+        if (moves == null) throw new NullPointerException("The move buffer is null");
+        int maxMoves = figure == FOX_FIELD ? FoxHoundNeighbours.FOX_STEPS : (players.length - 1) * FoxHoundNeighbours.HOUND_STEPS;
+        if (moves.length < maxMoves) throw new IllegalArgumentException(String.format("Move buffer should have length of at least %d", maxMoves));
+        return generateMovesUnchecked(dimension, players, figure, moves);
+    }
+
+    /**
+     * Internal version of generateMoves for input which is already checked.
+     * Nothing is allocated, coordinates are compared with the shared coordinate strings.
+     * @param dimension valid dimension
+     * @param players valid list of players' coordinates matching the dimension
+     * @param figure valid figure
+     * @param moves buffer large enough for all moves of the figure
+     * @return number of moves written to the buffer
+     */
+    static int generateMovesUnchecked(int dimension, String[] players, char figure, int[] moves)
+    {
+        int count = 0;
+        int foxIndex = players.length - 1;
+        if (figure == FOX_FIELD)
+        {
+            int origin = getBoardSquare(players[foxIndex], dimension);
+            //A hound on the fox coordinate makes the fox origin ambiguous
+            if (origin == FoxHoundNeighbours.NONE || indexOfPlayer(players, players[foxIndex]) != foxIndex) return 0;
+            count = addMoves(dimension, players, origin, FoxHoundNeighbours.foxTable(dimension), FoxHoundNeighbours.FOX_STEPS, moves, count);
+        }
+        else
+        {
+            for (int i = 0; i < foxIndex; i++) {
+                String hound = players[i];
+                int origin = getBoardSquare(hound, dimension);
+                //Skip hounds outside the board, on the fox coordinate and repeated coordinates
+                if (origin == FoxHoundNeighbours.NONE || hound.equals(players[foxIndex]) || indexOfPlayer(players, hound) != i) continue;
+                count = addMoves(dimension, players, origin, FoxHoundNeighbours.houndTable(dimension), FoxHoundNeighbours.HOUND_STEPS, moves, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Internal method adding the moves from one origin to the buffer
+     * @return new number of moves in the buffer
+     */
+    private static int addMoves(int dimension, String[] players, int origin, int[] neighbours, int steps, int[] moves, int count)
+    {
+        for (int k = origin * steps; k < (origin + 1) * steps; k++) {
+            int destination = neighbours[k];
+            if (destination == FoxHoundNeighbours.NONE) continue;
+            String destinationString = FoxHoundCoordinates.getPositionString(destination % dimension, destination / dimension);
+            if (indexOfPlayer(players, destinationString) == -1) moves[count++] = FoxHoundBoard.packMove(origin, destination);
+        }
+        return count;
+    }
+
+    /**
+     * Internal method for finding a coordinate in the players array
+     * @return first index holding the coordinate, -1 if not found
+     */
+    private static int indexOfPlayer(String[] players, String position)
+    {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i].equals(position)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Internal method for getting the square number (row * dimension + column) of a coordinate.
+     * Only coordinates in their shared form can be origins of a valid move, since isValidMove compares strings
+     * @param position valid coordinate
+     * @param dimension
+     * @return square number, or FoxHoundNeighbours.NONE if the coordinate is not on the board in its shared form
+     */
+    private static int getBoardSquare(String position, int dimension)
+    {
+        int index = FoxHoundCoordinates.indexOf(position);
+        if (index == FoxHoundCoordinates.NOT_FOUND || !FoxHoundCoordinates.getPositionString(index).equals(position)) return FoxHoundNeighbours.NONE;
+        int columnNumber = FoxHoundCoordinates.getColumnNumber(index);
+        int rowNumber = FoxHoundCoordinates.getRowNumber(index);
+        if (columnNumber >= dimension || rowNumber >= dimension) return FoxHoundNeighbours.NONE;
+        return rowNumber * dimension + columnNumber;
+    }
+
+    /**
+     * Get the origin coordinate of a packed move
+     * @param move packed move from generateMoves
+     * @param dimension dimension the move was generated for
+     * @return origin coordinate
+     * @throws IllegalArgumentException if dimension is out of range
+     */
+    public static String getMoveOrigin(int move, int dimension) throws IllegalArgumentException
+    {
+        checkInputDimension(dimension, true);
+        int square = FoxHoundBoard.getMoveOrigin(move);
+        return getPositionString(square % dimension, square / dimension);
+    }
+
+    /**
+     * Get the destination coordinate of a packed move
+     * @param move packed move from generateMoves
+     * @param dimension dimension the move was generated for
+     * @return destination coordinate
+     * @throws IllegalArgumentException if dimension is out of range
+     */
+    public static String getMoveDestination(int move, int dimension) throws IllegalArgumentException
+    {
+        checkInputDimension(dimension, true);
+        int square = FoxHoundBoard.getMoveDestination(move);
+        return getPositionString(square % dimension, square / dimension);
+    }
+
     /**
      * Check the input figure
      * @param figure
@@ -296,6 +530,8 @@ public class FoxHoundUtils {
      */
     public static boolean checkInputPosition(String position, boolean THROW_EXCEPTION) throws IllegalArgumentException
     {
+        //Coordinates found in the lookup table are valid
+        if (FoxHoundCoordinates.indexOf(position) != FoxHoundCoordinates.NOT_FOUND) return true;
         if(position.length() < MIN_POSITION_LENGTH || position.length() > MAX_POSITION_LENGTH) 
         {
             if (THROW_EXCEPTION) throw new IllegalArgumentException(String.format("Coordinate should have length of %d-%d", MIN_POSITION_LENGTH, MAX_POSITION_LENGTH));
@@ -336,8 +572,8 @@ public class FoxHoundUtils {
         for (String player : players) {
             boolean isValid = checkInputPosition(player, THROW_EXCEPTION);
             if(!isValid) return false;
-            int columnNumber = getColumnNumber(player);
-            int rowNumber = getRowNumber(player);
+            int columnNumber = getColumnNumberUnchecked(player);
+            int rowNumber = getRowNumberUnchecked(player);
             if(expectedMaxDim <= columnNumber || expectedMaxDim <= rowNumber) isValid = false;
             if(!isValid) return false;
         }
@@ -352,6 +588,21 @@ public class FoxHoundUtils {
         {
             return false;
         }
+        return checkInputPlayerNumber(players, dimension, THROW_EXCEPTION);
+        
+    }
+
+    /**
+     * Check the number of players against the dimension.
+     * Caution: check the players array and the dimension at the calling code
+     * @param players players' coordinates
+     * @param dimension
+     * @param THROW_EXCEPTION true if you want to throw an exception (and crash your software), false otherwise
+     * @return true if valid, false otherwise
+     * @throws IllegalArgumentException if you allow to throw exception if error is found
+     */
+    private static boolean checkInputPlayerNumber(String[] players, int dimension, boolean THROW_EXCEPTION) throws IllegalArgumentException
+    {
         int expectedNumPlayer = dimension / 2 + 1;
         if(expectedNumPlayer != players.length)
         {
@@ -359,7 +610,6 @@ public class FoxHoundUtils {
             return false;
         }
         return true;
-        
     }
 
     /**
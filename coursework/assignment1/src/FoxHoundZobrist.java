@@ -0,0 +1,68 @@
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys of the fox hound program.
+ *
+ * A position is hashed by combining (xor) one random key for each figure
+ * on its square, one key for the board dimension and one key if the hounds
+ * are to move. Moving a figure changes the hash by two keys only, so that
+ * {@link FoxHoundBoard} can keep its hash up to date on every move.
+ *
+ * The keys come from a fixed seed and are the same in every run, so hashes
+ * can be stored in files.
+ */
+public class FoxHoundZobrist {
+
+    /** Seed of the key generator, changing it invalidates stored hashes. */
+    private static final long SEED = 0x466F78486F756E64L;
+
+    private static final long[] HOUND_KEYS = new long[FoxHoundBoard.MAX_SQUARES];
+    private static final long[] FOX_KEYS = new long[FoxHoundBoard.MAX_SQUARES];
+    private static final long[] DIMENSION_KEYS = new long[FoxHoundUtils.MAX_DIM + 1];
+    private static final long HOUND_TURN_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int square = 0; square < FoxHoundBoard.MAX_SQUARES; square++) {
+            HOUND_KEYS[square] = random.nextLong();
+            FOX_KEYS[square] = random.nextLong();
+        }
+        for (int dimension = 0; dimension <= FoxHoundUtils.MAX_DIM; dimension++) {
+            DIMENSION_KEYS[dimension] = random.nextLong();
+        }
+        HOUND_TURN_KEY = random.nextLong();
+    }
+
+    /**
+     * @param square square number
+     * @return key of a hound on the square
+     */
+    public static long hound(int square)
+    {
+        return HOUND_KEYS[square];
+    }
+
+    /**
+     * @param square square number
+     * @return key of the fox on the square
+     */
+    public static long fox(int square)
+    {
+        return FOX_KEYS[square];
+    }
+
+    /**
+     * @param dimension valid dimension
+     * @return key of the board dimension
+     */
+    public static long dimension(int dimension)
+    {
+        return DIMENSION_KEYS[dimension];
+    }
+
+    /** @return key added while the hounds are to move */
+    public static long houndTurn()
+    {
+        return HOUND_TURN_KEY;
+    }
+}
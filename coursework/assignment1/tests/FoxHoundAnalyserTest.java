@@ -0,0 +1,61 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FoxHoundAnalyserTest {
+
+    private static FoxHoundAnalyser.Hint awaitHint(FoxHoundAnalyser analyser, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        FoxHoundAnalyser.Hint hint = analyser.getHint();
+        while ((hint == null || hint.getDepth() < depth) && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+            hint = analyser.getHint();
+        }
+        assertNotNull("Hint expected within the time.", hint);
+        return hint;
+    }
+
+    @Test
+    public void testHintIsLegalMove() throws InterruptedException {
+        try (FoxHoundAnalyser analyser = new FoxHoundAnalyser(1, FoxHoundAnalyser.DEFAULT_ANALYSIS_MILLIS)) {
+            FoxHoundBoard board = FoxHoundBoard.initial(8);
+            analyser.start(board);
+            FoxHoundAnalyser.Hint hint = awaitHint(analyser, 4);
+
+            int[] moves = new int[FoxHoundBoard.MAX_MOVES];
+            int count = board.generateMoves(moves);
+            boolean legal = false;
+            for (int i = 0; i < count; i++) legal |= moves[i] == hint.getMove();
+            assertTrue("Hint expected to be a legal move.", legal);
+            assertTrue(hint.format(8).startsWith("E8 "));
+        }
+    }
+
+    @Test
+    public void testStopIsImmediate() throws InterruptedException {
+        try (FoxHoundAnalyser analyser = new FoxHoundAnalyser(1, FoxHoundAnalyser.DEFAULT_ANALYSIS_MILLIS)) {
+            analyser.start(FoxHoundBoard.initial(26));
+            awaitHint(analyser, 1);
+            long start = System.nanoTime();
+            analyser.stop();
+            assertTrue("Stop expected within 200 ms.", System.nanoTime() - start < 200_000_000L);
+            assertFalse(analyser.isRunning());
+            assertNotNull("Hint expected to be kept after stop.", analyser.getHint());
+        }
+    }
+
+    @Test
+    public void testRestartReplacesHint() throws InterruptedException {
+        try (FoxHoundAnalyser analyser = new FoxHoundAnalyser(1, FoxHoundAnalyser.DEFAULT_ANALYSIS_MILLIS)) {
+            FoxHoundBoard board = FoxHoundBoard.initial(8);
+            analyser.start(board);
+            awaitHint(analyser, 1);
+
+            //Hounds to move, so the hint must be a hound move
+            board.makeMove(FoxHoundBoard.packMove(60, 51));
+            analyser.start(board);
+            FoxHoundAnalyser.Hint hint = awaitHint(analyser, 1);
+            assertTrue("Hint expected to move a hound.", FoxHoundBoard.getMoveOrigin(hint.getMove()) < 8);
+        }
+    }
+}
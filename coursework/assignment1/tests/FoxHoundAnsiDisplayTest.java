@@ -0,0 +1,93 @@
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import org.junit.Test;
+
+public class FoxHoundAnsiDisplayTest {
+
+    /** Terminal tall enough for the largest fancy board. */
+    private static final int TERMINAL_LINES = 100;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final PrintStream out = new PrintStream(bytes);
+
+    private String take() {
+        String text = bytes.toString();
+        bytes.reset();
+        return text;
+    }
+
+    @Test
+    public void testFirstDisplayDrawsWholeBoard() {
+        //A standard terminal is tall enough to keep the 8x8 board fixed
+        FoxHoundAnsiDisplay display = new FoxHoundAnsiDisplay(8, false, out, FoxHoundAnsiDisplay.DEFAULT_TERMINAL_LINES);
+        String[] players = FoxHoundUtils.initialisePositions(8);
+        display.display(players, "Fox to move");
+
+        String expected = "\033[2J\033[H" + new String(new FoxHoundBoardRenderer(8, false).render(players))
+            + "\033[14r\033[14;1H\033[JFox to move\n";
+        assertEquals(expected, take());
+    }
+
+    @Test
+    public void testMoveRedrawsOnlyChangedCells() {
+        FoxHoundAnsiDisplay display = new FoxHoundAnsiDisplay(8, false, out, FoxHoundAnsiDisplay.DEFAULT_TERMINAL_LINES);
+        String[] players = FoxHoundUtils.initialisePositions(8);
+        display.display(players);
+        take();
+
+        FoxHoundUtils.updatePositions(players, "E8", "D7");
+        display.display(players, "Last move: Fox E8 D7");
+        assertEquals("\033[9;6HF\033[10;7H.\033[14;1H\033[JLast move: Fox E8 D7\n", take());
+    }
+
+    @Test
+    public void testFancyUpdateIsSmall() {
+        FoxHoundAnsiDisplay display = new FoxHoundAnsiDisplay(26, true, out, TERMINAL_LINES);
+        String[] players = FoxHoundUtils.initialisePositions(26);
+        int full = display.display(players);
+        FoxHoundUtils.updatePositions(players, players[0], "C2");
+        int update = display.display(players);
+
+        assertTrue("Full frame expected to be large.", full > 5000);
+        assertTrue("Update expected to be a few dozen characters.", update < 40);
+        assertTrue("Fancy cells expected at the right columns.", take().endsWith("\033[4;10H \033[6;14HH\033[59;1H\033[J"));
+    }
+
+    @Test
+    public void testRedrawClearsScreenAgain() {
+        FoxHoundAnsiDisplay display = new FoxHoundAnsiDisplay(4, true, out, TERMINAL_LINES);
+        String[] players = FoxHoundUtils.initialisePositions(4);
+        display.display(players);
+        display.redraw();
+        take();
+        display.display(players);
+        assertTrue("Whole screen expected after redraw.", take().startsWith("\033[2J\033[H"));
+    }
+
+    @Test
+    public void testBoardTallerThanTerminalIsDrawnWhole() {
+        FoxHoundAnsiDisplay display = new FoxHoundAnsiDisplay(26, true, out, 50);
+        String[] players = FoxHoundUtils.initialisePositions(26);
+        display.display(players);
+        take();
+        FoxHoundUtils.updatePositions(players, players[0], "C2");
+        display.display(players, "Last move");
+
+        String expected = "\033[2J\033[H" + new String(new FoxHoundBoardRenderer(26, true).render(players)) + "\n\nLast move\n";
+        assertEquals("Whole board expected without screen positions.", expected, take());
+    }
+
+    @Test
+    public void testCloseLetsWholeScreenScroll() {
+        FoxHoundAnsiDisplay display = new FoxHoundAnsiDisplay(8, true, out, TERMINAL_LINES);
+        display.display(FoxHoundUtils.initialisePositions(8));
+        take();
+        display.close();
+        assertEquals("Cursor expected to be kept around the reset.", "\0337\033[r\0338", take());
+        display.display(FoxHoundUtils.initialisePositions(8));
+        assertTrue("Whole screen expected after close.", take().startsWith("\033[2J\033[H"));
+    }
+}
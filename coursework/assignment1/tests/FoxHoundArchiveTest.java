@@ -0,0 +1,171 @@
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class FoxHoundArchiveTest {
+
+    private static Path tempArchive() throws IOException {
+        Path path = Files.createTempFile("foxhound", ".fha");
+        path.toFile().deleteOnExit();
+        FoxHoundArchive.indexPath(path).toFile().deleteOnExit();
+        return path;
+    }
+
+    /** Play a game by always choosing the first generated move. */
+    private static int playFirstMoves(FoxHoundBoard board, int[] history) {
+        int[] moves = new int[FoxHoundBoard.MAX_MOVES];
+        int plies = 0;
+        while (board.getStatus() == FoxHoundBoard.ONGOING) {
+            board.generateMoves(moves);
+            history[plies++] = moves[0];
+            board.makeMove(moves[0]);
+        }
+        return plies;
+    }
+
+    @Test
+    public void testSimulatedGamesRoundTrip() throws IOException {
+        Path path = tempArchive();
+        try (FoxHoundArchive.Writer writer = FoxHoundArchive.Writer.create(path, 8)) {
+            FoxHoundSimulator.simulate(8, FoxHoundPolicy.RANDOM, FoxHoundPolicy.RANDOM, 1, 200, 2, 18, writer);
+            assertEquals(200, writer.getGameCount());
+        }
+
+        try (FoxHoundArchive archive = FoxHoundArchive.open(path)) {
+            assertEquals(8, archive.getDimension());
+            assertEquals(200, archive.getGameCount());
+            assertFalse("No index expected before it is built.", archive.hasIndex());
+            int[] moves = new int[FoxHoundArchive.MAX_PLIES];
+            for (long game = 0; game < archive.getGameCount(); game++) {
+                FoxHoundBoard board = archive.getStart(game);
+                assertEquals(FoxHoundBoard.initial(8), board);
+                int plies = archive.getMoves(game, moves);
+                for (int ply = 0; ply < plies; ply++) {
+                    assertTrue("Stored move expected to be legal.", board.isValidMove(board.getTurn(),
+                        FoxHoundBoard.getMoveOrigin(moves[ply]), FoxHoundBoard.getMoveDestination(moves[ply])));
+                    board.makeMove(moves[ply]);
+                }
+                assertEquals("Stored winner expected to match the final position.", board.getStatus(), archive.getWinner(game));
+            }
+        }
+    }
+
+    @Test
+    public void testIndexFindsPositions() throws IOException {
+        Path path = tempArchive();
+        int[] history = new int[FoxHoundArchive.MAX_PLIES];
+        FoxHoundBoard board = FoxHoundBoard.initial(10);
+        int plies = playFirstMoves(board, history);
+        int winner = board.getStatus();
+        //A second game starting from a later position of the first one
+        FoxHoundBoard start = FoxHoundBoard.initial(10);
+        for (int ply = 0; ply < 3; ply++) start.makeMove(history[ply]);
+        int[] rest = Arrays.copyOfRange(history, 3, plies);
+
+        try (FoxHoundArchive.Writer writer = FoxHoundArchive.Writer.create(path, 10)) {
+            writer.add(FoxHoundBoard.initial(10), history, plies, winner);
+            writer.add(start, rest, plies - 3, winner);
+            writer.add(FoxHoundBoard.initial(10), history, 2, FoxHoundBoard.ONGOING);
+        }
+
+        try (FoxHoundArchive archive = FoxHoundArchive.open(path)) {
+            archive.buildIndex();
+            assertEquals(plies + 1 + plies - 3 + 1 + 3, archive.getIndexSize());
+            assertEquals("Custom start expected to be restored.", start, archive.getStart(1));
+
+            long[] games = new long[8];
+            int[] found = new int[8];
+            FoxHoundBoard position = archive.getPosition(0, 3);
+            assertEquals(2, archive.find(position, games, found));
+            //Entries of one hash are ordered by game
+            assertArrayEquals(new long[]{0, 1}, new long[]{games[0], games[1]});
+            assertArrayEquals(new int[]{3, 0}, new int[]{found[0], found[1]});
+            long[] results = archive.countResults(position);
+            assertEquals(2, results[winner]);
+
+            assertEquals(2, archive.find(archive.getPosition(0, 1), games, found));
+            assertEquals(0, archive.find(FoxHoundBoard.fromPlayers(new String[]{"A2", "C2", "E2", "G2", "I2", "B10"}, 10,
+                FoxHoundUtils.FOX_FIELD), games, found));
+        }
+
+        //The index is found again when the archive is reopened
+        try (FoxHoundArchive archive = FoxHoundArchive.open(path)) {
+            assertTrue(archive.hasIndex());
+            //The unfinished third game is a prefix of the first one
+            long[] results = archive.countResults(archive.getPosition(2, 2));
+            assertEquals(1, results[FoxHoundBoard.ONGOING]);
+            assertEquals(1, results[winner]);
+        }
+    }
+
+    @Test
+    public void testLargeBoardMovesRoundTrip() throws IOException {
+        Path path = tempArchive();
+        int[] history = new int[FoxHoundArchive.MAX_PLIES];
+        FoxHoundBoard board = FoxHoundBoard.initial(26);
+        int plies = playFirstMoves(board, history);
+        try (FoxHoundArchive.Writer writer = FoxHoundArchive.Writer.create(path, 26)) {
+            writer.add(FoxHoundBoard.initial(26), history, plies, board.getStatus());
+        }
+        try (FoxHoundArchive archive = FoxHoundArchive.open(path)) {
+            int[] moves = new int[plies];
+            assertEquals(plies, archive.getMoves(0, moves));
+            for (int ply = 0; ply < plies; ply++) assertEquals(history[ply], moves[ply]);
+            assertEquals(board, archive.getPosition(0, plies));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMoveIsRejected() throws IOException {
+        try (FoxHoundArchive.Writer writer = FoxHoundArchive.Writer.create(tempArchive(), 8)) {
+            writer.add(FoxHoundBoard.initial(8), new int[]{FoxHoundBoard.packMove(1, 10)}, 1, FoxHoundBoard.ONGOING);
+        }
+    }
+
+    @Test
+    public void testStaleIndexIsNotUsed() throws IOException {
+        Path path = tempArchive();
+        try (FoxHoundArchive.Writer writer = FoxHoundArchive.Writer.create(path, 8)) {
+            FoxHoundSimulator.simulate(8, FoxHoundPolicy.RANDOM, FoxHoundPolicy.RANDOM, 1, 5, 2, 18, writer);
+        }
+        try (FoxHoundArchive archive = FoxHoundArchive.open(path)) {
+            archive.buildIndex();
+        }
+        Path index = FoxHoundArchive.indexPath(path);
+        byte[] staleIndex = Files.readAllBytes(index);
+
+        //Rewriting the archive deletes its index
+        try (FoxHoundArchive.Writer writer = FoxHoundArchive.Writer.create(path, 8)) {
+            writer.add(FoxHoundBoard.initial(8), new int[0], 0, FoxHoundBoard.ONGOING);
+        }
+        assertFalse("Index expected to be deleted with the old archive.", Files.exists(index));
+
+        //An index of another archive, e.g. copied back, is ignored
+        Files.write(index, staleIndex);
+        try (FoxHoundArchive archive = FoxHoundArchive.open(path)) {
+            assertFalse("Stale index not expected to be used.", archive.hasIndex());
+            archive.buildIndex();
+            assertArrayEquals(new long[]{1, 0, 0}, archive.countResults(FoxHoundBoard.initial(8)));
+        }
+        try (FoxHoundArchive archive = FoxHoundArchive.open(path)) {
+            assertTrue("Rebuilt index expected to be used.", archive.hasIndex());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testQueryWithoutIndex() throws IOException {
+        Path path = tempArchive();
+        try (FoxHoundArchive.Writer writer = FoxHoundArchive.Writer.create(path, 8)) {
+            writer.add(FoxHoundBoard.initial(8), new int[0], 0, FoxHoundBoard.ONGOING);
+        }
+        Files.deleteIfExists(FoxHoundArchive.indexPath(path));
+        try (FoxHoundArchive archive = FoxHoundArchive.open(path)) {
+            archive.find(FoxHoundBoard.initial(8), new long[1], new int[1]);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+import java.util.Random;
+import java.util.StringJoiner;
+
+import org.junit.Test;
+
+/**
+ * Compare the board renderer against the original string building
+ * implementation of the board display.
+ */
+public class FoxHoundBoardRendererTest {
+
+    // ------------------------- original implementation --------------------
+
+    private static String referenceBoard(String[] players, int dimension, boolean fancy) {
+        final boolean LEADING_ZERO = dimension > 9;
+        char emptyChar = fancy ? ' ' : '.';
+        char[][] board = new char[dimension][dimension];
+        for (int i = 0; i < dimension; i++) for (int j = 0; j < dimension; j++) board[i][j] = emptyChar;
+        for (int i = 0; i < players.length; i++) {
+            board[FoxHoundUtils.getRowNumber(players[i])][FoxHoundUtils.getColumnNumber(players[i])] =
+                i == players.length - 1 ? FoxHoundUtils.FOX_FIELD : FoxHoundUtils.HOUND_FIELD;
+        }
+
+        String padding = fancy ? (LEADING_ZERO ? "     " : "    ") : (LEADING_ZERO ? "   " : "  ");
+        StringJoiner label = new StringJoiner(fancy ? "   " : "", padding, padding);
+        for (int i = 0; i < dimension; i++) label.add(Character.toString(FoxHoundUtils.getColumnChar(i)));
+
+        StringJoiner rows;
+        if (fancy) {
+            String fancyPadding = LEADING_ZERO ? "   " : "  ";
+            StringJoiner border = new StringJoiner("|", "\n" + fancyPadding + "|", "|" + fancyPadding + "\n");
+            for (int i = 0; i < dimension; i++) border.add("===");
+            String fancyRow = border.toString();
+            rows = new StringJoiner(fancyRow, fancyRow, fancyRow);
+        } else {
+            rows = new StringJoiner("\n", "\n", "\n");
+        }
+        for (int i = 0; i < dimension; i++) {
+            String rowString;
+            if (fancy) {
+                StringJoiner row = new StringJoiner(" | ", "| ", " |");
+                for (char c : board[i]) row.add(Character.toString(c));
+                rowString = row.toString();
+            } else {
+                rowString = new String(board[i]);
+            }
+            String rowLabel = (i + 1 < 10 && LEADING_ZERO) ? ("0" + (i + 1)) : Integer.toString(i + 1);
+            rows.add(String.format("%s %s %s", rowLabel, rowString, rowLabel));
+        }
+        return label + "\n" + rows + "\n" + label;
+    }
+
+    // ------------------------------------------------------------------------
+
+    private static String[] randomPlayers(Random random, int dimension) {
+        String[] players = new String[dimension / 2 + 1];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = FoxHoundUtils.getPositionString(random.nextInt(dimension), random.nextInt(dimension));
+        }
+        return players;
+    }
+
+    @Test
+    public void testMatchesOriginalForAllDimensions() {
+        Random random = new Random(14);
+        for (int dimension = FoxHoundUtils.MIN_DIM; dimension <= FoxHoundUtils.MAX_DIM; dimension++) {
+            for (boolean fancy : new boolean[]{false, true}) {
+                FoxHoundBoardRenderer renderer = new FoxHoundBoardRenderer(dimension, fancy);
+                String[] initial = FoxHoundUtils.initialisePositions(dimension);
+                assertEquals("Initial board differs for dimension " + dimension,
+                    referenceBoard(initial, dimension, fancy), new String(renderer.render(initial)));
+                //Reusing the renderer must clear the figures of the previous board
+                for (int round = 0; round < 20; round++) {
+                    String[] players = randomPlayers(random, dimension);
+                    char[] frame = renderer.render(players);
+                    assertEquals("Frame length expected to be fixed.", renderer.length(), frame.length);
+                    assertEquals("Board differs for dimension " + dimension,
+                        referenceBoard(players, dimension, fancy), new String(frame));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAppendableDestinations() throws IOException {
+        String[] players = FoxHoundUtils.initialisePositions(8);
+        String expected = referenceBoard(players, 8, true);
+        FoxHoundBoardRenderer renderer = new FoxHoundBoardRenderer(8, true);
+
+        StringBuilder builder = new StringBuilder("x");
+        renderer.render(players, builder);
+        assertEquals("x" + expected, builder.toString());
+
+        StringWriter writer = new StringWriter();
+        renderer.render(players, writer);
+        assertEquals(expected, writer.toString());
+
+        CharBuffer buffer = CharBuffer.allocate(renderer.length());
+        renderer.render(players, buffer);
+        buffer.flip();
+        assertEquals(expected, buffer.toString());
+
+        StringBuffer other = new StringBuffer();
+        renderer.render(players, other);
+        renderer.render(players, other);
+        assertEquals(expected + expected, other.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCoordinateOutsideBoard() {
+        new FoxHoundBoardRenderer(4, false).render(new String[]{"A1", "E5"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRowZeroOutsideBoard() {
+        new FoxHoundBoardRenderer(4, false).render(new String[]{"A1", "A0"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDimensionOutOfRange() {
+        new FoxHoundBoardRenderer(27, true);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testNullPlayers() {
+        new FoxHoundBoardRenderer(8, false).render(null);
+    }
+}
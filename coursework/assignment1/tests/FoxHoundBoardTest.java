@@ -0,0 +1,172 @@
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FoxHoundBoardTest {
+
+    private String[] defaultPlayers;
+
+    @Before
+    public void setup() {
+        defaultPlayers = new String[]{"B1","D1","F1","H1","E8"};
+    }
+
+    /**
+     * Create a random but legal looking position (no figure shares a square).
+     */
+    private static String[] randomPlayers(Random random, int dimension) {
+        String[] players = new String[dimension / 2 + 1];
+        boolean[] used = new boolean[dimension * dimension];
+        for (int i = 0; i < players.length; i++) {
+            int square;
+            do {
+                square = random.nextInt(dimension * dimension);
+            } while (used[square]);
+            used[square] = true;
+            players[i] = FoxHoundUtils.getPositionString(square % dimension, square / dimension);
+        }
+        return players;
+    }
+
+    // ------------------------- conversion --------------------
+
+    @Test
+    public void testFromPlayersRoundTrip() {
+        FoxHoundBoard board = FoxHoundBoard.fromPlayers(defaultPlayers, FoxHoundUtils.DEFAULT_DIM, FoxHoundUtils.FOX_FIELD);
+
+        assertArrayEquals("Converted players not as expected.", defaultPlayers, board.toPlayers());
+        assertEquals("Turn not as expected.", FoxHoundUtils.FOX_FIELD, board.getTurn());
+        assertEquals("Board not equal to initial board.", FoxHoundBoard.initial(FoxHoundUtils.DEFAULT_DIM), board);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromPlayersOverlap() {
+        String[] players = {"B1","D1","F1","H1","B1"};
+        FoxHoundBoard.fromPlayers(players, FoxHoundUtils.DEFAULT_DIM, FoxHoundUtils.FOX_FIELD);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromPlayersOutsideBoard() {
+        String[] players = {"B1","D1","F1","H1","I8"};
+        FoxHoundBoard.fromPlayers(players, FoxHoundUtils.DEFAULT_DIM, FoxHoundUtils.FOX_FIELD);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testFromPlayersNull() {
+        FoxHoundBoard.fromPlayers(null, FoxHoundUtils.DEFAULT_DIM, FoxHoundUtils.FOX_FIELD);
+    }
+
+    // ------------------------- rules --------------------
+
+    @Test
+    public void testIsValidMoveMatchesUtils() {
+        Random random = new Random(42);
+        for (int dimension = FoxHoundUtils.MIN_DIM; dimension <= FoxHoundUtils.MAX_DIM; dimension++) {
+            for (int n = 0; n < 5; n++) {
+                String[] players = randomPlayers(random, dimension);
+                FoxHoundBoard board = FoxHoundBoard.fromPlayers(players, dimension, FoxHoundUtils.FOX_FIELD);
+                for (String origin : players) {
+                    int originSquare = board.square(FoxHoundUtils.getColumnNumber(origin), FoxHoundUtils.getRowNumber(origin));
+                    for (int destination = 0; destination < dimension * dimension; destination++) {
+                        String target = FoxHoundUtils.getPositionString(destination % dimension, destination / dimension);
+                        for (char figure : new char[]{FoxHoundUtils.FOX_FIELD, FoxHoundUtils.HOUND_FIELD}) {
+                            assertEquals("Move validity differs for " + origin + " " + target,
+                                FoxHoundUtils.isValidMove(dimension, players, figure, origin, target),
+                                board.isValidMove(figure, originSquare, destination));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testGenerateMovesMatchesIsValidMove() {
+        Random random = new Random(7);
+        int[] moves = new int[FoxHoundBoard.MAX_MOVES];
+        for (int dimension = FoxHoundUtils.MIN_DIM; dimension <= FoxHoundUtils.MAX_DIM; dimension++) {
+            for (int n = 0; n < 5; n++) {
+                FoxHoundBoard board = FoxHoundBoard.fromPlayers(randomPlayers(random, dimension), dimension, FoxHoundUtils.FOX_FIELD);
+                for (char figure : new char[]{FoxHoundUtils.FOX_FIELD, FoxHoundUtils.HOUND_FIELD}) {
+                    board.setTurn(figure);
+                    int count = board.generateMoves(moves);
+                    int expected = 0;
+                    for (int origin = 0; origin < dimension * dimension; origin++)
+                        for (int destination = 0; destination < dimension * dimension; destination++)
+                            if (board.isValidMove(figure, origin, destination)) expected++;
+                    assertEquals("Number of generated moves not as expected.", expected, count);
+                    for (int i = 0; i < count; i++) {
+                        int move = moves[i];
+                        assertTrue("Generated move is expected to be valid.",
+                            board.isValidMove(figure, FoxHoundBoard.getMoveOrigin(move), FoxHoundBoard.getMoveDestination(move)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMakeUnmakeMove() {
+        FoxHoundBoard board = FoxHoundBoard.initial(FoxHoundUtils.DEFAULT_DIM);
+        FoxHoundBoard original = board.copy();
+        int[] moves = new int[FoxHoundBoard.MAX_MOVES];
+        int count = board.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            assertEquals("Turn expected to pass to hounds.", FoxHoundUtils.HOUND_FIELD, board.getTurn());
+            board.unmakeMove(moves[i]);
+            assertEquals("Board expected to be restored.", original, board);
+        }
+    }
+
+    @Test
+    public void testHashUpdatedIncrementally() {
+        Random random = new Random(5);
+        int[] moves = new int[FoxHoundBoard.MAX_MOVES];
+        for (int dimension = FoxHoundUtils.MIN_DIM; dimension <= FoxHoundUtils.MAX_DIM; dimension++) {
+            FoxHoundBoard board = FoxHoundBoard.initial(dimension);
+            while (board.getStatus() == FoxHoundBoard.ONGOING) {
+                int count = board.generateMoves(moves);
+                board.makeMove(moves[random.nextInt(count)]);
+                FoxHoundBoard fresh = FoxHoundBoard.fromPlayers(board.toPlayers(), dimension, board.getTurn());
+                assertEquals("Incremental hash differs from a fresh hash.", fresh.getHash(), board.getHash());
+            }
+        }
+        FoxHoundBoard fox = FoxHoundBoard.initial(FoxHoundUtils.DEFAULT_DIM);
+        FoxHoundBoard hounds = fox.copy();
+        hounds.setTurn(FoxHoundUtils.HOUND_FIELD);
+        assertNotEquals("Hash expected to depend on the figure to move.", fox.getHash(), hounds.getHash());
+    }
+
+    // ------------------------- win checks --------------------
+
+    @Test
+    public void testWinChecksMatchUtils() {
+        String[] houndWin = {"C4","E4","C6","E6","D5"};
+        FoxHoundBoard board = FoxHoundBoard.fromPlayers(houndWin, FoxHoundUtils.DEFAULT_DIM, FoxHoundUtils.FOX_FIELD);
+        assertTrue("Hounds are expected to win in given positions.", board.isHoundWin());
+        assertEquals("Status not as expected.", FoxHoundBoard.HOUND_WIN, board.getStatus());
+
+        String[] foxWin = {"C4","E4","C6","E6","B1"};
+        board = FoxHoundBoard.fromPlayers(foxWin, FoxHoundUtils.DEFAULT_DIM, FoxHoundUtils.HOUND_FIELD);
+        assertTrue("Fox is expected to win in given positions.", board.isFoxWin());
+        assertEquals("Status not as expected.", FoxHoundBoard.FOX_WIN, board.getStatus());
+
+        Random random = new Random(3);
+        for (int dimension = FoxHoundUtils.MIN_DIM; dimension <= FoxHoundUtils.MAX_DIM; dimension++) {
+            for (int n = 0; n < 50; n++) {
+                String[] players = randomPlayers(random, dimension);
+                board = FoxHoundBoard.fromPlayers(players, dimension, FoxHoundUtils.FOX_FIELD);
+                assertEquals("Fox win differs for " + String.join(" ", players),
+                    FoxHoundUtils.isFoxWin(players[players.length - 1]), board.isFoxWin());
+                // isHoundWin may only be asked if the fox has not won yet
+                if (board.isFoxWin()) continue;
+                assertEquals("Hound win differs for " + String.join(" ", players),
+                    FoxHoundUtils.isHoundWin(players, dimension), board.isHoundWin());
+            }
+        }
+    }
+}
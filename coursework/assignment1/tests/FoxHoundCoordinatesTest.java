@@ -0,0 +1,40 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FoxHoundCoordinatesTest {
+
+    @Test
+    public void testTableMatchesFormat() {
+        for (int row = 0; row < FoxHoundUtils.MAX_DIM; row++) {
+            for (int column = 0; column < FoxHoundUtils.MAX_DIM; column++) {
+                String expected = String.format("%c%d", (char)('A' + column), row + 1);
+                String result = FoxHoundUtils.getPositionString(column, row);
+
+                assertEquals("Coordinate string not as expected.", expected, result);
+                assertSame("Coordinate string expected to be shared.", FoxHoundCoordinates.getPositionString(column, row), result);
+                assertEquals("Column number not as expected.", column, FoxHoundUtils.getColumnNumber(expected));
+                assertEquals("Row number not as expected.", row, FoxHoundUtils.getRowNumber(expected));
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOfUncommonForms() {
+        assertEquals("Leading zero expected to be recognised.",
+            FoxHoundCoordinates.indexOf("B3"), FoxHoundCoordinates.indexOf("B03"));
+        assertEquals("Row zero not expected in table.", FoxHoundCoordinates.NOT_FOUND, FoxHoundCoordinates.indexOf("A0"));
+        assertEquals("Signed row not expected in table.", FoxHoundCoordinates.NOT_FOUND, FoxHoundCoordinates.indexOf("A+1"));
+        assertEquals("Lower case not expected in table.", FoxHoundCoordinates.NOT_FOUND, FoxHoundCoordinates.indexOf("a1"));
+        assertEquals("Null not expected in table.", FoxHoundCoordinates.NOT_FOUND, FoxHoundCoordinates.indexOf(null));
+    }
+
+    @Test
+    public void testFallbackOutsideTable() {
+        // coordinates outside the table are still parsed the same way as before
+        assertEquals("Row number not as expected.", -1, FoxHoundUtils.getRowNumber("A0"));
+        assertEquals("Row number not as expected.", 0, FoxHoundUtils.getRowNumber("A+1"));
+        assertEquals("Row number not as expected.", 98, FoxHoundUtils.getRowNumber("Z99"));
+        assertEquals("Coordinate string not as expected.", "B27", FoxHoundUtils.getPositionString(1, 26));
+    }
+}
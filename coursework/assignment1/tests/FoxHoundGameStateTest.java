@@ -0,0 +1,154 @@
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+
+import org.junit.Test;
+
+public class FoxHoundGameStateTest {
+
+    private static int expectedStatus(String[] players, int dimension) {
+        if (FoxHoundUtils.isFoxWin(players[players.length - 1])) return FoxHoundBoard.FOX_WIN;
+        if (FoxHoundUtils.isHoundWin(players, dimension)) return FoxHoundBoard.HOUND_WIN;
+        return FoxHoundBoard.ONGOING;
+    }
+
+    /** Result of a move check, or the name of the exception it threw. */
+    private static String validity(BooleanSupplier check) {
+        try {
+            return String.valueOf(check.getAsBoolean());
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName();
+        }
+    }
+
+    @Test
+    public void testMatchesFullRecomputationInRandomGames() {
+        Random random = new Random(21);
+        int[] moves = new int[FoxHoundBoard.MAX_MOVES];
+        for (int dimension = FoxHoundUtils.MIN_DIM; dimension <= FoxHoundUtils.MAX_DIM; dimension++) {
+            for (int game = 0; game < 20; game++) {
+                FoxHoundBoard board = FoxHoundBoard.initial(dimension);
+                String[] players = FoxHoundUtils.initialisePositions(dimension);
+                FoxHoundGameState state = new FoxHoundGameState(players, dimension);
+                while (state.getStatus() == FoxHoundBoard.ONGOING) {
+                    int count = board.generateMoves(moves);
+                    if (count == 0) break;
+                    int move = moves[random.nextInt(count)];
+                    board.makeMove(move);
+                    state.updatePositions(FoxHoundUtils.getMoveOrigin(move, dimension), FoxHoundUtils.getMoveDestination(move, dimension));
+                    assertEquals("Status not as expected.", expectedStatus(players, dimension), state.getStatus());
+                    assertEquals("Fox mobility not as expected.", FoxHoundUtils.countFoxMoves(players, dimension), state.getFoxMobility());
+                    for (int i = 0; i < players.length; i++) {
+                        int square = state.getSquare(i);
+                        assertEquals("Piece list not as expected.", players[i], FoxHoundUtils.getPositionString(square % dimension, square / dimension));
+                        assertEquals("Occupancy grid not as expected.", i, state.getFigure(square));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testValidMovesMatchFoxHoundUtils() {
+        String[][] positions = {FoxHoundUtils.initialisePositions(8), {"C2", "D1", "F1", "H1", "D7"}, {"B3", "E4", "C6", "E6", "D5"}};
+        for (String[] players : positions) {
+            FoxHoundGameState state = new FoxHoundGameState(players, 8);
+            //Columns from "@" and rows from 0 include coordinates just outside the board on every side
+            List<String> coordinates = new ArrayList<>();
+            for (char column = '@'; column <= 'J'; column++) {
+                for (int row = 0; row <= 10; row++) coordinates.add("" + column + row);
+            }
+            for (String from : coordinates) {
+                for (String to : coordinates) {
+                    for (char figure : new char[]{FoxHoundUtils.FOX_FIELD, FoxHoundUtils.HOUND_FIELD}) {
+                        String move = String.format("Move %c %s %s not as expected.", figure, from, to);
+                        assertEquals(move, validity(() -> FoxHoundUtils.isValidMove(8, players, figure, from, to)),
+                            validity(() -> state.isValidMove(figure, from, to)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnmakeRestoresEveryPosition() {
+        Random random = new Random(23);
+        int[] moves = new int[FoxHoundBoard.MAX_MOVES];
+        for (int dimension : new int[]{4, 8, 13, 26}) {
+            FoxHoundBoard board = FoxHoundBoard.initial(dimension);
+            String[] players = FoxHoundUtils.initialisePositions(dimension);
+            FoxHoundGameState state = new FoxHoundGameState(players, dimension);
+            List<String[]> positions = new ArrayList<>();
+            List<Integer> statuses = new ArrayList<>();
+            while (state.getStatus() == FoxHoundBoard.ONGOING) {
+                int count = board.generateMoves(moves);
+                if (count == 0) break;
+                positions.add(players.clone());
+                statuses.add(state.getStatus());
+                int move = moves[random.nextInt(count)];
+                board.makeMove(move);
+                state.makeMove(move);
+            }
+            String[] last = players.clone();
+            int played = state.getMoveCount();
+            assertEquals(positions.size(), played);
+
+            for (int i = played - 1; i >= 0; i--) {
+                assertNotEquals(FoxHoundGameState.NO_MOVE, state.unmakeMove());
+                assertArrayEquals("Position after undo not as expected.", positions.get(i), players);
+                assertEquals("Status after undo not as expected.", (int) statuses.get(i), state.getStatus());
+            }
+            assertEquals(FoxHoundGameState.NO_MOVE, state.unmakeMove());
+            assertEquals(played, state.getRedoCount());
+
+            for (int i = 0; i < played; i++) assertNotEquals(FoxHoundGameState.NO_MOVE, state.redoMove());
+            assertArrayEquals("Position after redo not as expected.", last, players);
+            assertEquals(0, state.getRedoCount());
+        }
+    }
+
+    @Test
+    public void testNewMoveDropsRedo() {
+        String[] players = FoxHoundUtils.initialisePositions(8);
+        FoxHoundGameState state = new FoxHoundGameState(players, 8);
+        state.updatePositions("E8", "D7");
+        state.unmakeMove();
+        state.updatePositions("E8", "F7");
+        assertEquals(0, state.getRedoCount());
+        assertEquals(FoxHoundGameState.NO_MOVE, state.redoMove());
+        assertEquals("F7", players[4]);
+    }
+
+    @Test
+    public void testResetAfterExternalChange() {
+        String[] players = FoxHoundUtils.initialisePositions(8);
+        FoxHoundGameState state = new FoxHoundGameState(players, 8);
+        assertEquals(2, state.getFoxMobility());
+
+        //Fox trapped in the corner by one hound, as after loading a game
+        String[] loaded = {"B1", "D1", "F1", "G7", "H8"};
+        System.arraycopy(loaded, 0, players, 0, players.length);
+        state.reset();
+        assertEquals(FoxHoundBoard.HOUND_WIN, state.getStatus());
+        assertEquals(0, state.getFoxMobility());
+    }
+
+    @Test
+    public void testMoveFromEmptySquareChangesNothing() {
+        String[] players = FoxHoundUtils.initialisePositions(8);
+        FoxHoundGameState state = new FoxHoundGameState(players, 8);
+        state.updatePositions("A2", "B3");
+        assertArrayEquals(FoxHoundUtils.initialisePositions(8), players);
+        assertEquals(FoxHoundBoard.ONGOING, state.getStatus());
+        assertEquals(FoxHoundGameState.NO_FIGURE, state.getFigure(8));
+        assertEquals(4, state.getFigure(60));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCoordinateOutsideBoard() {
+        new FoxHoundGameState(FoxHoundUtils.initialisePositions(8), 8).updatePositions("E8", "I9");
+    }
+}
@@ -0,0 +1,80 @@
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class FoxHoundIOBinaryTest {
+
+    private static final char LOAD_ERROR = '#';
+
+    private static Path tempGame() throws IOException {
+        Path path = Files.createTempFile("foxhound", FoxHoundIO.BINARY_EXTENSION);
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+    @Test
+    public void testRoundTripAllDimensions() throws IOException {
+        Path path = tempGame();
+        for (int dimension = FoxHoundUtils.MIN_DIM; dimension <= FoxHoundUtils.MAX_DIM; dimension++) {
+            String[] players = FoxHoundUtils.initialisePositions(dimension);
+            players[players.length - 1] = FoxHoundUtils.getPositionString(dimension - 1, dimension - 1);
+            assertTrue("Saving expected to succeed.", FoxHoundIO.saveGameBinary(players, FoxHoundUtils.HOUND_FIELD, dimension, path));
+            assertEquals("File size not as expected.", FoxHoundIO.binarySize(dimension), Files.size(path));
+
+            String[] loaded = FoxHoundUtils.initialisePositions(dimension);
+            assertEquals("Loaded next move not as expected.", FoxHoundUtils.HOUND_FIELD, FoxHoundIO.loadGameBinary(loaded, dimension, path));
+            assertArrayEquals("Loaded player array not as expected.", players, loaded);
+        }
+    }
+
+    @Test
+    public void testLayout() {
+        ByteBuffer buffer = ByteBuffer.allocate(FoxHoundIO.binarySize(8));
+        FoxHoundIO.encodeGame(new String[]{"B1", "D1", "F1", "H1", "E8"}, FoxHoundUtils.FOX_FIELD, 8, buffer);
+
+        assertEquals("8-dim game expected to take 16 bytes.", 16, buffer.position());
+        byte[] bytes = buffer.array();
+        assertArrayEquals(new byte[]{'F', 'H', 'S', 'G', 1, 8, 'F', 1, 3, 5, 7, 60}, Arrays.copyOf(bytes, 12));
+    }
+
+    @Test
+    public void testCorruptedFileIsRejected() throws IOException {
+        Path path = tempGame();
+        String[] players = {"B1", "D1", "F1", "H1", "E8"};
+        FoxHoundIO.saveGameBinary(players, FoxHoundUtils.FOX_FIELD, 8, path);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[8] ^= 1;
+        Files.write(path, bytes);
+
+        String[] loaded = {"A2", "C2", "E2", "G2", "B8"};
+        assertEquals("Checksum error expected.", LOAD_ERROR, FoxHoundIO.loadGameBinary(loaded, 8, path));
+        assertArrayEquals("Players not expected to change.", new String[]{"A2", "C2", "E2", "G2", "B8"}, loaded);
+    }
+
+    @Test
+    public void testWrongDimensionIsRejected() throws IOException {
+        Path path = tempGame();
+        FoxHoundIO.saveGameBinary(FoxHoundUtils.initialisePositions(10), FoxHoundUtils.FOX_FIELD, 10, path);
+        assertEquals(LOAD_ERROR, FoxHoundIO.loadGameBinary(FoxHoundUtils.initialisePositions(8), 8, path));
+        assertEquals("Text file expected to be rejected.", LOAD_ERROR,
+            FoxHoundIO.loadGameBinary(FoxHoundUtils.initialisePositions(8), 8, Paths.get("game01.txt")));
+    }
+
+    @Test
+    public void testBinaryPath() {
+        assertTrue(FoxHoundIO.isBinaryPath(Paths.get("dir", "game.FHS")));
+        assertFalse(FoxHoundIO.isBinaryPath(Paths.get("game.txt")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSaveCoordinateOutsideBoard() {
+        FoxHoundIO.encodeGame(new String[]{"B1", "D1", "F1", "H1", "I8"}, FoxHoundUtils.FOX_FIELD, 8, ByteBuffer.allocate(32));
+    }
+}
@@ -0,0 +1,127 @@
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class FoxHoundJournalTest {
+
+    private static Path tempJournal() throws IOException {
+        Path path = Files.createTempFile("foxhound", ".fhj");
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+    @Test
+    public void testReplayRestoresPosition() throws IOException {
+        Path path = tempJournal();
+        String[] players = FoxHoundUtils.initialisePositions(8);
+        try (FoxHoundJournal journal = FoxHoundJournal.create(path, players, FoxHoundUtils.FOX_FIELD, 8)) {
+            journal.append("E8", "D7");
+            journal.append("B1", "C2");
+            journal.append("D7", "E6");
+        }
+        assertEquals("Snapshot of 21 bytes and two bytes per move expected.", 21 + 3 * 2, Files.size(path));
+
+        try (FoxHoundJournal journal = FoxHoundJournal.open(path)) {
+            assertEquals(3, journal.getMoveCount());
+            assertEquals(FoxHoundUtils.HOUND_FIELD, journal.getTurn());
+            assertArrayEquals(new String[]{"D1", "F1", "H1", "C2", "E6"}, journal.getPlayers());
+            //Moves appended after a replay continue the same game
+            journal.append("C2", "D3");
+        }
+        try (FoxHoundJournal journal = FoxHoundJournal.open(path)) {
+            assertEquals(4, journal.getMoveCount());
+            assertEquals(FoxHoundUtils.FOX_FIELD, journal.getTurn());
+        }
+    }
+
+    @Test
+    public void testTornRecordIsCutOff() throws IOException {
+        Path path = tempJournal();
+        try (FoxHoundJournal journal = FoxHoundJournal.create(path, FoxHoundUtils.initialisePositions(8), FoxHoundUtils.FOX_FIELD, 8)) {
+            journal.append("E8", "D7");
+            journal.append("B1", "C2");
+        }
+        //A crash in the middle of writing the second move leaves one of its bytes
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+
+        try (FoxHoundJournal journal = FoxHoundJournal.open(path)) {
+            assertEquals("Torn move expected to be dropped.", 1, journal.getMoveCount());
+            journal.append("B1", "A2");
+        }
+        try (FoxHoundJournal journal = FoxHoundJournal.open(path)) {
+            assertEquals(2, journal.getMoveCount());
+            assertArrayEquals(new String[]{"D1", "F1", "H1", "A2", "D7"}, journal.getPlayers());
+        }
+    }
+
+    @Test
+    public void testIllegalRecordEndsReplay() throws IOException {
+        Path path = tempJournal();
+        try (FoxHoundJournal journal = FoxHoundJournal.create(path, FoxHoundUtils.initialisePositions(8), FoxHoundUtils.FOX_FIELD, 8)) {
+            journal.append("E8", "D7");
+        }
+        //Garbage after the last move, the fox cannot move from A1
+        byte[] bytes = Files.readAllBytes(path);
+        byte[] garbage = Arrays.copyOf(bytes, bytes.length + 2);
+        Files.write(path, garbage);
+
+        try (FoxHoundJournal journal = FoxHoundJournal.open(path)) {
+            assertEquals(1, journal.getMoveCount());
+        }
+        assertEquals("Invalid tail expected to be cut off.", bytes.length, Files.size(path));
+    }
+
+    @Test
+    public void testLargeBoardUsesTwoBytesPerSquare() throws IOException {
+        Path path = tempJournal();
+        String[] players = FoxHoundUtils.initialisePositions(20);
+        String fox = players[players.length - 1];
+        String destination = FoxHoundUtils.getPositionString(FoxHoundUtils.getColumnNumber(fox) - 1, FoxHoundUtils.getRowNumber(fox) - 1);
+        try (FoxHoundJournal journal = FoxHoundJournal.create(path, players, FoxHoundUtils.FOX_FIELD, 20)) {
+            journal.setSync(1, 0);
+            journal.append(fox, destination);
+        }
+        try (FoxHoundJournal journal = FoxHoundJournal.open(path)) {
+            assertEquals(20, journal.getDimension());
+            assertEquals(destination, journal.getPlayers()[players.length - 1]);
+        }
+    }
+
+    @Test
+    public void testCreateReplacesJournalWithoutTemporaryFile() throws IOException {
+        Path path = tempJournal();
+        try (FoxHoundJournal journal = FoxHoundJournal.create(path, FoxHoundUtils.initialisePositions(8), FoxHoundUtils.FOX_FIELD, 8)) {
+            journal.append("E8", "D7");
+        }
+        String[] players = {"B1", "D1", "F1", "H1", "D7"};
+        try (FoxHoundJournal journal = FoxHoundJournal.create(path, players, FoxHoundUtils.HOUND_FIELD, 8)) {
+            journal.append("B1", "C2");
+        }
+
+        assertFalse("Temporary file expected to be moved.", Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+        try (FoxHoundJournal journal = FoxHoundJournal.open(path)) {
+            assertEquals("Only the moves of the new journal expected.", 1, journal.getMoveCount());
+            assertArrayEquals(new String[]{"D1", "F1", "H1", "C2", "D7"}, journal.getPlayers());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMoveIsRejected() throws IOException {
+        try (FoxHoundJournal journal = FoxHoundJournal.create(tempJournal(), FoxHoundUtils.initialisePositions(8), FoxHoundUtils.FOX_FIELD, 8)) {
+            journal.append("B1", "C2");
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testSaveFileIsNotAJournal() throws IOException {
+        Path path = tempJournal();
+        FoxHoundIO.saveGameBinary(FoxHoundUtils.initialisePositions(8), FoxHoundUtils.FOX_FIELD, 8, path);
+        FoxHoundJournal.open(path);
+    }
+}
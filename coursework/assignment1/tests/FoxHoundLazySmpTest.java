@@ -0,0 +1,77 @@
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class FoxHoundLazySmpTest {
+
+    @Test
+    public void testFindsSameForcedWinAsSingleThread() {
+        FoxHoundBoard position = FoxHoundBoard.fromPlayers(new String[]{"B3", "D3", "F3", "H3", "C2"}, 8, FoxHoundUtils.FOX_FIELD);
+        FoxHoundSearch single = new FoxHoundSearch();
+        single.search(position, 200);
+        FoxHoundLazySmp parallel = new FoxHoundLazySmp(4, 4);
+        int move = parallel.search(position, 200);
+
+        assertEquals("Fox expected to move to the first row.", 0, position.row(FoxHoundBoard.getMoveDestination(move)));
+        assertEquals("Score expected to match the single thread.", single.getScore(), parallel.getScore());
+    }
+
+    @Test
+    public void testSearchReachesDepthAndKeepsPosition() {
+        FoxHoundBoard position = FoxHoundBoard.initial(12);
+        FoxHoundBoard copy = position.copy();
+        FoxHoundLazySmp search = new FoxHoundLazySmp(8, 3);
+        int move = search.search(position, 60000, 8);
+
+        assertEquals("Position expected to be unchanged.", copy, position);
+        assertTrue("Depth expected to be reached.", search.getDepth() >= 8);
+        assertTrue("Nodes of all threads expected.", search.getNodes() > 0);
+        assertTrue("Move expected to be valid.", position.isValidMove(FoxHoundUtils.FOX_FIELD,
+            FoxHoundBoard.getMoveOrigin(move), FoxHoundBoard.getMoveDestination(move)));
+    }
+
+    @Test
+    public void testStopEndsAllThreads() throws InterruptedException {
+        FoxHoundLazySmp search = new FoxHoundLazySmp(8, 4);
+        Thread stopper = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                return;
+            }
+            search.stop();
+        });
+        stopper.start();
+        long start = System.nanoTime();
+        search.search(FoxHoundBoard.initial(FoxHoundUtils.MAX_DIM), 60000);
+        stopper.join();
+        assertTrue("Search expected to stop early.", System.nanoTime() - start < 5_000_000_000L);
+    }
+
+    @Test
+    public void testConcurrentStoresNeverMixEntries() throws InterruptedException {
+        FoxHoundTranspositionTable table = new FoxHoundTranspositionTable(1);
+        int buckets = table.capacity() / 2;
+        AtomicBoolean mixed = new AtomicBoolean();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200000; i++) {
+                    //Keys of all threads fall into the same few buckets, the score identifies the key
+                    long key = (long) (thread * 200000 + i) * buckets + i % 4;
+                    table.store(key, i % 100, (int) (key >>> 8), i % 20, FoxHoundTranspositionTable.EXACT);
+                    long probeKey = (long) ((thread + 1) % threads.length * 200000 + i) * buckets + i % 4;
+                    long entry = table.probe(probeKey);
+                    if (entry == FoxHoundTranspositionTable.MISS) continue;
+                    if (FoxHoundTranspositionTable.getScore(entry) != (int) (probeKey >>> 8)) mixed.set(true);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertFalse("Probe expected to return only entries stored under its key.", mixed.get());
+    }
+}
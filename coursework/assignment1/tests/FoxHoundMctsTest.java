@@ -0,0 +1,56 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FoxHoundMctsTest {
+
+    @Test
+    public void testReturnsLegalMove() {
+        FoxHoundMcts mcts = new FoxHoundMcts(2, 1 << 16);
+        FoxHoundBoard board = FoxHoundBoard.initial(8);
+        int move = mcts.search(board, 10000, 2000);
+
+        assertTrue("Move expected to be legal.", board.isValidMove(FoxHoundUtils.FOX_FIELD,
+            FoxHoundBoard.getMoveOrigin(move), FoxHoundBoard.getMoveDestination(move)));
+        assertEquals("Board not expected to change.", FoxHoundBoard.initial(8), board);
+        assertTrue("Playout limit expected to be reached.", mcts.getPlayouts() >= 2000);
+        assertTrue("Playout limit expected to stop the search.", mcts.getPlayouts() < 2000 + 2);
+    }
+
+    @Test
+    public void testFindsFoxWin() {
+        String[] players = {"B3", "D1", "F1", "H1", "C2"};
+        String[] move = new FoxHoundMcts(2, 1 << 16).search(8, players, FoxHoundUtils.FOX_FIELD, 500);
+
+        assertNotNull("Move expected.", move);
+        assertArrayEquals("Fox expected to reach the first row.", new String[]{"C2", "B1"}, move);
+    }
+
+    @Test
+    public void testHoundsTrapFox() {
+        //The fox on A8 is caught if a hound moves to B7
+        String[] players = {"B1", "D1", "F1", "A6", "A8"};
+        String[] move = new FoxHoundMcts(1, 1 << 16).search(8, players, FoxHoundUtils.HOUND_FIELD, 500);
+
+        assertArrayEquals("Hound expected to close the trap.", new String[]{"A6", "B7"}, move);
+    }
+
+    @Test
+    public void testFinishedGameHasNoMove() {
+        String[] players = {"B1", "D1", "F1", "H1", "C1"};
+        FoxHoundBoard board = FoxHoundBoard.fromPlayers(players, 8, FoxHoundUtils.HOUND_FIELD);
+        assertEquals("No move expected after a fox win.", FoxHoundMcts.NO_MOVE, new FoxHoundMcts(1, 1 << 10).search(board, 100, 100));
+    }
+
+    @Test
+    public void testReusedForSeveralSearches() {
+        FoxHoundMcts mcts = new FoxHoundMcts(2, 1 << 12);
+        FoxHoundBoard board = FoxHoundBoard.initial(16);
+        for (int i = 0; i < 5; i++) {
+            int move = mcts.search(board, 10000, 3000);
+            assertNotEquals("Move expected.", FoxHoundMcts.NO_MOVE, move);
+            board.makeMove(move);
+        }
+        assertTrue("Small tree expected to be full.", mcts.getNodes() <= 1 << 12);
+    }
+}
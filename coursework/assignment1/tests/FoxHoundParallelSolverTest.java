@@ -0,0 +1,84 @@
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+public class FoxHoundParallelSolverTest {
+
+    @Test
+    public void testMatchesSingleThreadedSolver() throws IOException {
+        for (int dimension = 4; dimension <= 8; dimension += 2) {
+            FoxHoundSolver expected = new FoxHoundSolver(dimension);
+            expected.solve();
+            FoxHoundParallelSolver solver = new FoxHoundParallelSolver(dimension, 4);
+            solver.solve();
+            for (long position = 0; position < solver.getIndex().size(); position++) {
+                assertEquals("Winner not as expected for dimension " + dimension + ".",
+                    FoxHoundTablebase.getWinner(expected.get(position)), solver.get(position));
+            }
+        }
+    }
+
+    @Test
+    public void testPackedStore() {
+        FoxHoundPackedStore store = new FoxHoundPackedStore(100);
+        for (int i = 0; i < 100; i++) store.set(i, i % 3);
+        store.set(33, 3);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("Stored value not as expected.", i == 33 ? 3 : i % 3, store.get(i));
+        }
+        assertEquals("Byte size not as expected.", 25, store.bytes());
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() throws IOException {
+        FoxHoundParallelSolver expected = new FoxHoundParallelSolver(6, 2);
+        expected.solve();
+
+        Path checkpoint = Files.createTempFile("foxhound", ".cp");
+        Files.delete(checkpoint);
+        try {
+            FoxHoundParallelSolver first = new FoxHoundParallelSolver(6, 2);
+            first.setCheckpoint(checkpoint, 0);
+            first.solveUntil(7);
+            assertTrue("Checkpoint expected to be written.", Files.exists(checkpoint));
+
+            FoxHoundParallelSolver second = new FoxHoundParallelSolver(6, 2);
+            second.setCheckpoint(checkpoint, 0);
+            second.solve();
+            for (long position = 0; position < expected.getIndex().size(); position++) {
+                assertEquals("Resumed winner not as expected.", expected.get(position), second.get(position));
+            }
+        } finally {
+            Files.deleteIfExists(checkpoint);
+        }
+    }
+
+    @Test
+    public void testWinnerFileRoundTrip() throws IOException {
+        FoxHoundParallelSolver solver = new FoxHoundParallelSolver(6, 2);
+        solver.solve();
+        Path path = Files.createTempFile("foxhound", ".tb");
+        try {
+            solver.write(path);
+            try (FoxHoundTablebase tablebase = FoxHoundTablebase.open(path)) {
+                assertFalse("Winner file expected to have no distances.", tablebase.hasDistance());
+                for (long position = 0; position < solver.getIndex().size(); position++) {
+                    assertEquals("Mapped winner not as expected.", solver.get(position),
+                        FoxHoundTablebase.getWinner(tablebase.get(position)));
+                }
+
+                //Following any winning move keeps the winner
+                FoxHoundBoard board = FoxHoundBoard.initial(6);
+                int winner = FoxHoundTablebase.getWinner(tablebase.probe(board));
+                while (board.getStatus() == FoxHoundBoard.ONGOING) board.makeMove(tablebase.bestMove(board));
+                assertEquals("Winner not as expected.", winner, board.getStatus());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FoxHoundPerftTest {
+
+    @Test
+    public void testStartPositionCounts() {
+        FoxHoundBoard board = FoxHoundBoard.initial(8);
+        //The fox has two moves, then each of the four hounds has two except the one on H1
+        assertEquals("Depth 0 not as expected.", 1, FoxHoundPerft.perft(board, 0));
+        assertEquals("Depth 1 not as expected.", 2, FoxHoundPerft.perft(board, 1));
+        assertEquals("Depth 2 not as expected.", 14, FoxHoundPerft.perft(board, 2));
+        assertEquals("Board expected to be restored.", FoxHoundBoard.initial(8), board);
+    }
+
+    @Test
+    public void testMatchesValidMove() {
+        for (int dimension = FoxHoundUtils.MIN_DIM; dimension <= 10; dimension++) {
+            FoxHoundBoard board = FoxHoundBoard.initial(dimension);
+            int depth = dimension <= 6 ? 8 : 5;
+            assertEquals("Verified count not as expected for dimension " + dimension + ".",
+                FoxHoundPerft.perft(board, depth), FoxHoundPerft.verify(board, depth));
+        }
+    }
+
+    @Test
+    public void testFinishedGamesAreNotContinued() {
+        String[] players = {"B1", "D1", "F1", "H1", "C1"};
+        FoxHoundBoard board = FoxHoundBoard.fromPlayers(players, 8, FoxHoundUtils.HOUND_FIELD);
+        assertEquals("Fox win expected to end the count.", 0, FoxHoundPerft.perft(board, 3));
+    }
+
+    @Test
+    public void testDivideMatchesPerft() {
+        FoxHoundBoard board = FoxHoundBoard.initial(12);
+        int[] moves = new int[FoxHoundBoard.MAX_MOVES];
+        long[] counts = new long[FoxHoundBoard.MAX_MOVES];
+        for (int threads = 1; threads <= 3; threads++) {
+            int count = FoxHoundPerft.divide(board, 6, threads, moves, counts);
+            long total = 0;
+            for (int i = 0; i < count; i++) total += counts[i];
+            assertEquals("Sum of the divided counts not as expected.", FoxHoundPerft.perft(board, 6), total);
+        }
+    }
+}
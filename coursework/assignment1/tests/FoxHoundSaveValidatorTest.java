@@ -0,0 +1,97 @@
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class FoxHoundSaveValidatorTest {
+
+    private static FoxHoundSaveValidator.Result text(String content) {
+        return FoxHoundSaveValidator.validate("game", content.getBytes(StandardCharsets.US_ASCII), FoxHoundSaveValidator.ANY_DIMENSION);
+    }
+
+    @Test
+    public void testValidTextSaves() {
+        FoxHoundSaveValidator.Result result = text("F C2 D1 F1 H1 D7\n");
+        assertTrue("Save after one move each expected to be valid.", result.isValid());
+        assertEquals("Inferred dimension not as expected.", 8, result.getDimension());
+        assertEquals("Turn not as expected.", 'F', result.getTurn());
+
+        assertTrue("Initial position expected to be valid.", text("F B1 D1 F1 H1 E8").isValid());
+        assertTrue("Odd dimension expected to be inferred.", text("F B1 D1 F1 H1 E9").isValid());
+        assertEquals("Odd dimension not as expected.", 9, text("F B1 D1 F1 H1 E9").getDimension());
+    }
+
+    @Test
+    public void testErrorCodes() {
+        assertEquals(Collections.singletonList(FoxHoundSaveValidator.SYNTAX), text("invalid input").getCodes());
+        assertEquals(Collections.singletonList(FoxHoundSaveValidator.SYNTAX), text("X B1 D1 F1 H1 E8").getCodes());
+        assertEquals(Collections.singletonList(FoxHoundSaveValidator.SYNTAX), text("F\nB1 D1 F1 H1 E8").getCodes());
+        assertEquals(Collections.singletonList(FoxHoundSaveValidator.DIMENSION), text("F B1 D1 F1 H1 J8").getCodes());
+        assertEquals(Collections.singletonList(FoxHoundSaveValidator.OVERLAP), text("F B1 D1 D1 H1 E8").getCodes());
+        assertEquals(Collections.singletonList(FoxHoundSaveValidator.UNREACHABLE), text("F B1 D1 F1 H1 D8").getCodes());
+        //Hound moved but the fox is still on its start square
+        assertEquals(Collections.singletonList(FoxHoundSaveValidator.UNREACHABLE), text("F C2 D1 F1 H1 E8").getCodes());
+        //Nothing moves after the fox reached the first row
+        assertEquals(Collections.singletonList(FoxHoundSaveValidator.UNREACHABLE), text("F C2 E2 F3 G2 B1").getCodes());
+        assertTrue("Fox win expected to be valid with the hounds to move.", text("H C2 E2 F3 H3 B1").isValid());
+    }
+
+    @Test
+    public void testGivenDimension() {
+        byte[] content = "F B1 D1 F1 H1 E8".getBytes(StandardCharsets.US_ASCII);
+        assertTrue(FoxHoundSaveValidator.validate("game", content, 8).isValid());
+        assertEquals(Collections.singletonList(FoxHoundSaveValidator.DIMENSION),
+            FoxHoundSaveValidator.validate("game", content, 10).getCodes());
+    }
+
+    @Test
+    public void testBinarySaves() {
+        ByteBuffer buffer = ByteBuffer.allocate(FoxHoundIO.binarySize(20));
+        FoxHoundIO.encodeGame(FoxHoundUtils.initialisePositions(20), FoxHoundUtils.FOX_FIELD, 20, buffer);
+        byte[] content = buffer.array();
+        FoxHoundSaveValidator.Result result = FoxHoundSaveValidator.validate("game.fhs", content, FoxHoundSaveValidator.ANY_DIMENSION);
+        assertTrue("Binary save expected to be valid.", result.isValid());
+        assertEquals("binary", result.getFormat());
+        assertEquals(20, result.getDimension());
+
+        content[8]++;
+        assertEquals("Checksum error expected.", Collections.singletonList(FoxHoundSaveValidator.SYNTAX),
+            FoxHoundSaveValidator.validate("game.fhs", content, FoxHoundSaveValidator.ANY_DIMENSION).getCodes());
+    }
+
+    @Test
+    public void testJson() {
+        assertEquals("{\"file\":\"a\\\"b\",\"format\":\"text\",\"dimension\":null,\"turn\":null,\"valid\":false,"
+            + "\"errors\":[{\"code\":\"syntax\",\"message\":\"Invalid figure to move: x\"}]}",
+            FoxHoundSaveValidator.validate("a\"b", "x".getBytes(StandardCharsets.US_ASCII), 0).toJson());
+    }
+
+    @Test
+    public void testTree() throws IOException {
+        Path root = Files.createTempDirectory("foxhound");
+        Path nested = Files.createDirectory(root.resolve("nested"));
+        Files.write(root.resolve("valid.txt"), "F B1 D1 F1 H1 E8".getBytes(StandardCharsets.US_ASCII));
+        Files.write(nested.resolve("overlap.txt"), "F B1 B1 F1 H1 E8".getBytes(StandardCharsets.US_ASCII));
+        for (int i = 0; i < 20; i++) Files.write(nested.resolve(i + ".txt"), "H C2 D1 F1 H1 E8".getBytes(StandardCharsets.US_ASCII));
+
+        StringWriter out = new StringWriter();
+        long[] counts = FoxHoundSaveValidator.validateTree(root, FoxHoundSaveValidator.ANY_DIMENSION, 4, out);
+        assertArrayEquals(new long[]{22, 1}, counts);
+        String[] lines = out.toString().split("\n");
+        assertEquals("One report line per file expected.", 22, lines.length);
+        assertEquals("One invalid line expected.", 1, Arrays.stream(lines).filter(line -> line.contains("\"valid\":false")).count());
+
+        for (Path path : new Path[]{nested.resolve("overlap.txt"), root.resolve("valid.txt")}) Files.delete(path);
+        for (int i = 0; i < 20; i++) Files.delete(nested.resolve(i + ".txt"));
+        Files.delete(nested);
+        Files.delete(root);
+    }
+}
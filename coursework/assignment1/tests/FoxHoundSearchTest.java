@@ -0,0 +1,68 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FoxHoundSearchTest {
+
+    private static final long TIME = 200;
+
+    private static FoxHoundBoard board(String[] players, char turn) {
+        return FoxHoundBoard.fromPlayers(players, FoxHoundUtils.DEFAULT_DIM, turn);
+    }
+
+    @Test
+    public void testFoxTakesWinningMove() {
+        FoxHoundBoard position = board(new String[]{"B3","D3","F3","H3","C2"}, FoxHoundUtils.FOX_FIELD);
+        FoxHoundSearch search = new FoxHoundSearch();
+
+        int move = search.search(position, TIME);
+
+        assertEquals("Fox expected to move to the first row.", 0,
+            position.row(FoxHoundBoard.getMoveDestination(move)));
+        assertTrue("Score expected to announce a win.", search.getScore() > 0 && FoxHoundSearch.isWinScore(search.getScore()));
+    }
+
+    @Test
+    public void testHoundsTrapFox() {
+        // the fox on A8 is trapped as soon as a hound moves to B7
+        FoxHoundBoard position = board(new String[]{"B1","D1","C6","H1","A8"}, FoxHoundUtils.HOUND_FIELD);
+        FoxHoundSearch search = new FoxHoundSearch();
+
+        int move = search.search(position, TIME);
+
+        assertEquals("Hound expected to trap the fox.", "B7",
+            FoxHoundUtils.getMoveDestination(move, FoxHoundUtils.DEFAULT_DIM));
+    }
+
+    @Test
+    public void testSearchKeepsPosition() {
+        FoxHoundBoard position = FoxHoundBoard.initial(FoxHoundUtils.DEFAULT_DIM);
+        FoxHoundBoard copy = position.copy();
+
+        int move = new FoxHoundSearch().search(position, 50);
+
+        assertEquals("Position expected to be unchanged.", copy, position);
+        assertTrue("Move expected to be valid.", position.isValidMove(FoxHoundUtils.FOX_FIELD,
+            FoxHoundBoard.getMoveOrigin(move), FoxHoundBoard.getMoveDestination(move)));
+    }
+
+    @Test
+    public void testSearchGameOver() {
+        FoxHoundBoard position = board(new String[]{"C4","E4","C6","E6","D5"}, FoxHoundUtils.FOX_FIELD);
+
+        assertEquals("No move expected in a finished game.", FoxHoundSearch.NO_MOVE,
+            new FoxHoundSearch().search(position, TIME));
+    }
+
+    @Test
+    public void testSearchTimeBudgetLargeBoard() {
+        FoxHoundBoard position = FoxHoundBoard.initial(FoxHoundUtils.MAX_DIM);
+        long start = System.nanoTime();
+
+        int move = new FoxHoundSearch().search(position, 50);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        assertNotEquals("Move expected.", FoxHoundSearch.NO_MOVE, move);
+        assertTrue("Search expected to respect the time budget, took " + elapsedMillis + "ms", elapsedMillis < 500);
+    }
+}
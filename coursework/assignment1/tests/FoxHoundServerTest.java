@@ -0,0 +1,117 @@
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FoxHoundServerTest {
+
+    private FoxHoundServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FoxHoundServer(0);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void testCommands() {
+        assertEquals("OK 1", server.execute("NEW"));
+        assertEquals("OK F B1 D1 F1 H1 E8", server.execute("BOARD 1"));
+        assertEquals("OK ONGOING", server.execute("MOVE 1 E8 D7"));
+        assertTrue("Fox must not move twice.", server.execute("MOVE 1 D7 C6").startsWith("ERR"));
+        assertEquals("OK ONGOING", server.execute("move 1 b1 c2"));
+        assertEquals("OK F C2 D1 F1 H1 D7", server.execute("BOARD 1"));
+
+        assertTrue(server.execute("NEW 3").startsWith("ERR"));
+        assertTrue(server.execute("BOARD 9").startsWith("ERR"));
+        assertTrue(server.execute("JUMP").startsWith("ERR"));
+        assertEquals("OK 1", server.execute("GAMES"));
+        assertEquals("OK", server.execute("END 1"));
+        assertEquals("OK 0", server.execute("GAMES"));
+    }
+
+    @Test
+    public void testFoxWinEndsGame() {
+        server.execute("NEW 4");
+        //Fox C4 runs to the first row past the hounds on B1 and D1
+        assertEquals("OK ONGOING", server.execute("MOVE 1 C4 D3"));
+        assertEquals("OK ONGOING", server.execute("MOVE 1 B1 A2"));
+        assertEquals("OK ONGOING", server.execute("MOVE 1 D3 C2"));
+        assertEquals("OK ONGOING", server.execute("MOVE 1 A2 B3"));
+        assertEquals("OK FOX_WIN", server.execute("MOVE 1 C2 B1"));
+        assertEquals("ERR Game is over", server.execute("MOVE 1 B3 C4"));
+    }
+
+    @Test
+    public void testConcurrentConnections() throws Exception {
+        int clients = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                results.add(pool.submit(() -> {
+                    try (Socket socket = new Socket("localhost", server.getPort());
+                         BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                         PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+                        out.println("NEW 8");
+                        String id = in.readLine().substring(3);
+                        out.println("MOVE " + id + " E8 F7");
+                        assertEquals("OK ONGOING", in.readLine());
+                        out.println("MOVE " + id + " H1 G2");
+                        assertEquals("OK ONGOING", in.readLine());
+                        out.println("BOARD " + id);
+                        String board = in.readLine();
+                        out.println("QUIT");
+                        assertEquals("OK", in.readLine());
+                        return board;
+                    }
+                }));
+            }
+            for (Future<String> result : results) assertEquals("OK F B1 D1 F1 G2 F7", result.get());
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(clients, server.getGameCount());
+    }
+
+    @Test
+    public void testCloseEndsOpenConnections() throws IOException {
+        try (Socket socket = new Socket("localhost", server.getPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+            out.println("GAMES");
+            assertEquals("OK 0", in.readLine());
+            server.close();
+
+            socket.setSoTimeout(5000);
+            out.println("GAMES");
+            String answer;
+            try {
+                answer = in.readLine();
+            } catch (SocketException e) {
+                //A reset connection is closed as well, a timeout is not
+                answer = null;
+            }
+            assertNull("Connection expected to be closed by the server.", answer);
+        }
+    }
+}
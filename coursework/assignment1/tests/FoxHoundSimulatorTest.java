@@ -0,0 +1,41 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FoxHoundSimulatorTest {
+
+    @Test
+    public void testAllGamesFinish() {
+        FoxHoundSimulator.Statistics result = FoxHoundSimulator.simulate(8, FoxHoundPolicy.RANDOM,
+            FoxHoundPolicy.RANDOM, 1, 500, 3, 1);
+        assertEquals("Number of games not as expected.", 500, result.getGames());
+        assertEquals("Every game expected to have a winner.", 500, result.getFoxWins() + result.getHoundWins());
+        assertTrue("Games expected to have moves.", result.averagePlies() > 1);
+    }
+
+    @Test
+    public void testRepeatableWithSeed() {
+        FoxHoundSimulator.Statistics first = FoxHoundSimulator.simulate(10, FoxHoundPolicy.GREEDY,
+            FoxHoundPolicy.RANDOM, 1, 300, 2, 42);
+        FoxHoundSimulator.Statistics second = FoxHoundSimulator.simulate(10, FoxHoundPolicy.GREEDY,
+            FoxHoundPolicy.RANDOM, 1, 300, 2, 42);
+        assertEquals("Fox wins expected to repeat.", first.getFoxWins(), second.getFoxWins());
+        assertEquals("Plies expected to repeat.", first.getPlies(), second.getPlies());
+    }
+
+    @Test
+    public void testStrongerPolicyWins() {
+        FoxHoundSimulator.Statistics greedyFox = FoxHoundSimulator.simulate(8, FoxHoundPolicy.GREEDY,
+            FoxHoundPolicy.RANDOM, 1, 200, 2, 7);
+        assertTrue("Greedy fox expected to beat random hounds.", greedyFox.getFoxWins() > 150);
+
+        FoxHoundSimulator.Statistics searchHounds = FoxHoundSimulator.simulate(8, FoxHoundPolicy.RANDOM,
+            FoxHoundPolicy.SEARCH, 3, 50, 2, 7);
+        assertTrue("Searching hounds expected to beat a random fox.", searchHounds.getHoundWins() > 40);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownPolicy() {
+        FoxHoundSimulator.simulate(8, "perfect", FoxHoundPolicy.RANDOM, 1, 10, 1, 0);
+    }
+}
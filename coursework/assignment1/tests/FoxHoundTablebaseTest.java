@@ -0,0 +1,167 @@
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class FoxHoundTablebaseTest {
+
+    @Test
+    public void testIndexRoundTrip() {
+        FoxHoundTablebaseIndex index = new FoxHoundTablebaseIndex(6);
+        int[] combination = new int[index.getHoundCount()];
+        int[] unranked = new int[index.getHoundCount()];
+        for (long rank = 0; rank < index.getConfigurations(); rank++) {
+            index.unrank(rank, unranked);
+            assertArrayEquals("Unranked combination not as expected.", combination(index, rank), unranked);
+            for (int f = 0; f < index.getFoxSquareCount(); f++) {
+                FoxHoundBoard board = board(index, rank, f);
+                if (board == null) continue;
+                assertEquals("Index of fox turn not as expected.",
+                    index.index(rank, f, FoxHoundTablebaseIndex.FOX_SIDE), index.index(board));
+                board.setTurn(FoxHoundUtils.HOUND_FIELD);
+                assertEquals("Index of hound turn not as expected.",
+                    index.index(rank, f, FoxHoundTablebaseIndex.HOUND_SIDE), index.index(board));
+            }
+        }
+        for (int i = 0; i < combination.length; i++) combination[i] = i;
+        long rank = 0;
+        do {
+            assertEquals("Rank of next combination not as expected.", rank++, index.rank(combination));
+        } while (index.next(combination));
+        assertEquals("Number of combinations not as expected.", index.getConfigurations(), rank);
+    }
+
+    @Test
+    public void testWrongColourHasNoIndex() {
+        FoxHoundTablebaseIndex index = new FoxHoundTablebaseIndex(8);
+        String[] players = {"B1", "D1", "F1", "H1", "E7"};
+        FoxHoundBoard board = FoxHoundBoard.fromPlayers(players, 8, FoxHoundUtils.FOX_FIELD);
+        assertEquals("Fox on a square of the wrong colour expected to have no index.",
+            FoxHoundTablebaseIndex.NO_INDEX, index.index(board));
+    }
+
+    @Test
+    public void testSolverMatchesMinimax() {
+        for (int dimension = 4; dimension <= 6; dimension += 2) {
+            FoxHoundSolver solver = new FoxHoundSolver(dimension);
+            solver.solve();
+            Map<FoxHoundBoard, Integer> values = new HashMap<>();
+            minimax(FoxHoundBoard.initial(dimension), values);
+            for (Map.Entry<FoxHoundBoard, Integer> entry : values.entrySet()) {
+                long position = solver.getIndex().index(entry.getKey());
+                assertEquals("Value not as expected for dimension " + dimension + ".",
+                    (int) entry.getValue(), solver.get(position));
+            }
+        }
+    }
+
+    @Test
+    public void testSolvedStartPositions() {
+        FoxHoundSolver solver = new FoxHoundSolver(8);
+        solver.solve();
+        int value = solver.get(solver.getIndex().index(FoxHoundBoard.initial(8)));
+        assertEquals("Hounds expected to win the 8x8 game.", FoxHoundBoard.HOUND_WIN, FoxHoundTablebase.getWinner(value));
+    }
+
+    @Test
+    public void testFileRoundTrip() throws IOException {
+        FoxHoundSolver solver = new FoxHoundSolver(6);
+        solver.solve();
+        Path path = Files.createTempFile("foxhound", ".tb");
+        try {
+            solver.write(path);
+            try (FoxHoundTablebase tablebase = FoxHoundTablebase.open(path)) {
+                assertEquals("Dimension not as expected.", 6, tablebase.getDimension());
+                for (long position = 0; position < solver.getIndex().size(); position++) {
+                    assertEquals("Mapped value not as expected.", solver.get(position), tablebase.get(position));
+                }
+
+                //Following the best moves ends the game as predicted
+                FoxHoundBoard board = FoxHoundBoard.initial(6);
+                int value = tablebase.probe(board);
+                int plies = 0;
+                while (board.getStatus() == FoxHoundBoard.ONGOING) {
+                    board.makeMove(tablebase.bestMove(board));
+                    plies++;
+                }
+                assertEquals("Winner not as expected.", FoxHoundTablebase.getWinner(value), board.getStatus());
+                assertEquals("Game length not as expected.", FoxHoundTablebase.getDistance(value), plies);
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenRejectsInvalidFile() throws IOException {
+        Path path = Files.createTempFile("foxhound", ".tb");
+        try {
+            Files.write(path, new byte[]{'F', 'H', 'T', 'X', 1, 6, 8, 0});
+            FoxHoundTablebase.open(path).close();
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static int[] combination(FoxHoundTablebaseIndex index, long rank) {
+        //Brute force the combination with the given rank
+        int[] combination = new int[index.getHoundCount()];
+        for (int i = 0; i < combination.length; i++) combination[i] = i;
+        for (long r = 0; r < rank; r++) index.next(combination);
+        return combination;
+    }
+
+    private static FoxHoundBoard board(FoxHoundTablebaseIndex index, long rank, int foxIndex) {
+        int[] combination = new int[index.getHoundCount()];
+        index.unrank(rank, combination);
+        FoxHoundBoard board = new FoxHoundBoard(index.getDimension());
+        int fox = index.foxSquare(foxIndex);
+        for (int houndIndex : combination) {
+            if (index.houndSquare(houndIndex) == fox) return null;
+        }
+        if (fox != board.getFoxSquare()) board.setFox(fox);
+        for (int houndIndex : combination) board.addHound(index.houndSquare(houndIndex));
+        return board;
+    }
+
+    private static int minimax(FoxHoundBoard board, Map<FoxHoundBoard, Integer> values) {
+        Integer known = values.get(board);
+        if (known != null) return known;
+        int value;
+        int status = board.getStatus();
+        if (status != FoxHoundBoard.ONGOING)
+        {
+            value = FoxHoundTablebase.encode(status, 0);
+        }
+        else
+        {
+            int mover = board.getTurn() == FoxHoundUtils.FOX_FIELD ? FoxHoundBoard.FOX_WIN : FoxHoundBoard.HOUND_WIN;
+            int[] moves = new int[FoxHoundBoard.MAX_MOVES];
+            int count = board.generateMoves(moves);
+            int bestWin = Integer.MAX_VALUE;
+            int longestLoss = -1;
+            int loser = FoxHoundBoard.ONGOING;
+            for (int i = 0; i < count; i++) {
+                board.makeMove(moves[i]);
+                int child = minimax(board, values);
+                board.unmakeMove(moves[i]);
+                int distance = FoxHoundTablebase.getDistance(child) + 1;
+                if (FoxHoundTablebase.getWinner(child) == mover) bestWin = Math.min(bestWin, distance);
+                else
+                {
+                    longestLoss = Math.max(longestLoss, distance);
+                    loser = FoxHoundTablebase.getWinner(child);
+                }
+            }
+            value = bestWin != Integer.MAX_VALUE ? FoxHoundTablebase.encode(mover, bestWin)
+                : FoxHoundTablebase.encode(loser, longestLoss);
+        }
+        values.put(board.copy(), value);
+        return value;
+    }
+}
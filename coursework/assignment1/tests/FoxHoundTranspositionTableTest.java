@@ -0,0 +1,63 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class FoxHoundTranspositionTableTest {
+
+    @Test
+    public void testStoreAndProbe() {
+        FoxHoundTranspositionTable table = new FoxHoundTranspositionTable(1);
+        long key = 0x123456789ABCDEFL;
+        int move = FoxHoundBoard.packMove(675, 650);
+
+        assertEquals("Empty table expected to miss.", FoxHoundTranspositionTable.MISS, table.probe(key));
+
+        table.store(key, move, -FoxHoundSearch.WIN_SCORE + 3, 12, FoxHoundTranspositionTable.LOWER_BOUND);
+        long entry = table.probe(key);
+
+        assertNotEquals("Stored entry expected to be found.", FoxHoundTranspositionTable.MISS, entry);
+        assertEquals("Move not as expected.", move, FoxHoundTranspositionTable.getMove(entry));
+        assertEquals("Score not as expected.", -FoxHoundSearch.WIN_SCORE + 3, FoxHoundTranspositionTable.getScore(entry));
+        assertEquals("Depth not as expected.", 12, FoxHoundTranspositionTable.getDepth(entry));
+        assertEquals("Bound not as expected.", FoxHoundTranspositionTable.LOWER_BOUND, FoxHoundTranspositionTable.getBound(entry));
+    }
+
+    @Test
+    public void testNoMoveKeepsOldMove() {
+        FoxHoundTranspositionTable table = new FoxHoundTranspositionTable(1);
+        long key = 42;
+        table.store(key, 7, 10, 3, FoxHoundTranspositionTable.EXACT);
+        table.store(key, FoxHoundSearch.NO_MOVE, 5, 4, FoxHoundTranspositionTable.UPPER_BOUND);
+
+        long entry = table.probe(key);
+        assertEquals("Old move expected to be kept.", 7, FoxHoundTranspositionTable.getMove(entry));
+        assertEquals("New score expected.", 5, FoxHoundTranspositionTable.getScore(entry));
+    }
+
+    @Test
+    public void testReplacementKeepsDeepEntry() {
+        FoxHoundTranspositionTable table = new FoxHoundTranspositionTable(1);
+        int buckets = table.capacity() / 2;
+        long deep = 1;
+        long shallow = 1 + buckets;
+        long newest = 1 + 2L * buckets;
+
+        table.store(deep, 1, 0, 20, FoxHoundTranspositionTable.EXACT);
+        table.store(shallow, 2, 0, 1, FoxHoundTranspositionTable.EXACT);
+        table.store(newest, 3, 0, 2, FoxHoundTranspositionTable.EXACT);
+
+        assertNotEquals("Deep entry expected to be kept.", FoxHoundTranspositionTable.MISS, table.probe(deep));
+        assertNotEquals("Newest entry expected to be stored.", FoxHoundTranspositionTable.MISS, table.probe(newest));
+        assertEquals("Shallow entry expected to be replaced.", FoxHoundTranspositionTable.MISS, table.probe(shallow));
+
+        // after a new search the deep entry may be replaced
+        table.newSearch();
+        table.store(shallow, 2, 0, 1, FoxHoundTranspositionTable.EXACT);
+        assertEquals("Old deep entry expected to be replaced.", FoxHoundTranspositionTable.MISS, table.probe(deep));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new FoxHoundTranspositionTable(0);
+    }
+}
@@ -0,0 +1,186 @@
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+/**
+ * Compare the checked and unchecked tiers of FoxHoundUtils against the
+ * original implementation of the rule checks on random input.
+ */
+public class FoxHoundUtilsDifferentialTest {
+
+    private static final int ROUNDS = 20000;
+
+    // ------------------------- original implementation --------------------
+
+    private static int referenceColumn(String player) {
+        FoxHoundUtils.checkInputPosition(player, true);
+        return player.charAt(0) - (int)'A';
+    }
+
+    private static int referenceRow(String player) {
+        FoxHoundUtils.checkInputPosition(player, true);
+        return Integer.parseInt(player.substring(1)) - 1;
+    }
+
+    private static boolean referenceIsValidMove(int dimension, String[] players, char figure, String origin, String destination) {
+        FoxHoundUtils.checkInputPositionList(players, true);
+        FoxHoundUtils.checkInputFigure(figure, true);
+        FoxHoundUtils.checkInputDimension(dimension, true);
+        FoxHoundUtils.checkInputPosition(origin, true);
+        FoxHoundUtils.checkInputPosition(destination, true);
+        FoxHoundUtils.checkInputDimWithPositionList(players, dimension, true);
+
+        if (referenceColumn(origin) >= dimension || referenceRow(origin) >= dimension) return false;
+        if (referenceColumn(destination) >= dimension || referenceRow(destination) >= dimension) return false;
+
+        boolean containsOrigin = false;
+        for (int i = 0; i < players.length; i++) {
+            String player = players[i];
+            if (origin.equals(player)) {
+                containsOrigin = true;
+                char originIdentity = (i == players.length - 1) ? FoxHoundUtils.FOX_FIELD : FoxHoundUtils.HOUND_FIELD;
+                if (originIdentity != figure) return false;
+            }
+            if (destination.equals(player)) return false;
+        }
+        if (!containsOrigin) return false;
+
+        int relativeColumnDistance = referenceColumn(destination) - referenceColumn(origin);
+        int relativeRowDistance = referenceRow(destination) - referenceRow(origin);
+        if (figure == FoxHoundUtils.FOX_FIELD && (Math.abs(relativeColumnDistance) != 1 || Math.abs(relativeRowDistance) != 1)) return false;
+        if (figure == FoxHoundUtils.HOUND_FIELD && (Math.abs(relativeColumnDistance) != 1 || relativeRowDistance != 1)) return false;
+        return true;
+    }
+
+    private static boolean referenceIsHoundWin(String[] players, int dimension) {
+        FoxHoundUtils.checkInputPositionList(players, true);
+        FoxHoundUtils.checkInputDimension(dimension, true);
+        String foxPosition = players[players.length - 1];
+        int foxColumn = referenceColumn(foxPosition);
+        int foxRow = referenceRow(foxPosition);
+        String[] foxPossibleMove = {
+            String.format("%c%d", (char)('A' + foxColumn + 1), foxRow + 2),
+            String.format("%c%d", (char)('A' + foxColumn + 1), foxRow),
+            String.format("%c%d", (char)('A' + foxColumn - 1), foxRow + 2),
+            String.format("%c%d", (char)('A' + foxColumn - 1), foxRow)
+        };
+        for (String move : foxPossibleMove) {
+            try {
+                if (referenceIsValidMove(dimension, players, FoxHoundUtils.FOX_FIELD, foxPosition, move)) return false;
+            } catch (Exception e) {
+                continue;
+            }
+        }
+        return true;
+    }
+
+    // ------------------------- random input --------------------
+
+    private static String randomPosition(Random random, int dimension) {
+        int column = random.nextInt(dimension + 2);
+        int row = random.nextInt(dimension + 2);
+        switch (random.nextInt(20)) {
+            case 0:
+                return (char)('A' + column) + "0" + row;
+            case 1:
+                return (char)('A' + column) + "0";
+            default:
+                return (char)('A' + column) + Integer.toString(row + 1);
+        }
+    }
+
+    private static String[] randomPlayers(Random random, int dimension) {
+        int length = dimension / 2 + 1;
+        if (random.nextInt(10) == 0) length += random.nextBoolean() ? 1 : -1;
+        String[] players = new String[Math.max(length, 1)];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = randomPosition(random, dimension);
+        }
+        return players;
+    }
+
+    /**
+     * Run a call and return its result or the class of the thrown exception.
+     */
+    private static Object outcome(Callable<Object> call) {
+        try {
+            return call.call();
+        } catch (Exception e) {
+            return e.getClass();
+        }
+    }
+
+    // ------------------------- tests --------------------
+
+    @Test
+    public void testIsValidMoveEquivalent() {
+        Random random = new Random(1);
+        for (int n = 0; n < ROUNDS; n++) {
+            int dimension = FoxHoundUtils.MIN_DIM + random.nextInt(FoxHoundUtils.MAX_DIM - FoxHoundUtils.MIN_DIM + 1);
+            String[] players = randomPlayers(random, dimension);
+            char figure = random.nextBoolean() ? FoxHoundUtils.FOX_FIELD : FoxHoundUtils.HOUND_FIELD;
+            String origin = random.nextInt(3) == 0 ? randomPosition(random, dimension) : players[random.nextInt(players.length)];
+            String destination = randomPosition(random, dimension);
+
+            Object expected = outcome(() -> referenceIsValidMove(dimension, players, figure, origin, destination));
+            Object result = outcome(() -> FoxHoundUtils.isValidMove(dimension, players, figure, origin, destination));
+            String message = "isValidMove differs for " + Arrays.toString(players) + " " + origin + " " + destination;
+            assertEquals(message, expected, result);
+
+            if (FoxHoundUtils.checkInputDimWithPositionList(players, dimension, false)
+                && FoxHoundUtils.checkInputPosition(origin, false) && FoxHoundUtils.checkInputPosition(destination, false)) {
+                assertEquals(message, expected, FoxHoundUtils.isValidMoveUnchecked(dimension, players, figure, origin, destination));
+            }
+        }
+    }
+
+    @Test
+    public void testIsHoundWinEquivalent() {
+        Random random = new Random(2);
+        for (int n = 0; n < ROUNDS; n++) {
+            int dimension = FoxHoundUtils.MIN_DIM + random.nextInt(FoxHoundUtils.MAX_DIM - FoxHoundUtils.MIN_DIM + 1);
+            String[] players = randomPlayers(random, dimension);
+            String fox = players[players.length - 1];
+            // isHoundWin may only be asked if the fox has not won yet
+            if (FoxHoundUtils.checkInputPosition(fox, false) && FoxHoundUtils.getRowNumber(fox) <= 0) continue;
+
+            Object expected = outcome(() -> referenceIsHoundWin(players, dimension));
+            Object result = outcome(() -> FoxHoundUtils.isHoundWin(players, dimension));
+            String message = "isHoundWin differs for " + Arrays.toString(players);
+            assertEquals(message, expected, result);
+
+            if (FoxHoundUtils.checkInputDimWithPositionList(players, dimension, false)) {
+                assertEquals(message, expected, FoxHoundUtils.countFoxMovesUnchecked(players, dimension) == 0);
+            }
+        }
+    }
+
+    @Test
+    public void testUpdatePositionsEquivalent() {
+        Random random = new Random(3);
+        for (int n = 0; n < ROUNDS; n++) {
+            int dimension = FoxHoundUtils.MIN_DIM + random.nextInt(FoxHoundUtils.MAX_DIM - FoxHoundUtils.MIN_DIM + 1);
+            String[] players = randomPlayers(random, dimension);
+            if (!FoxHoundUtils.checkInputPositionList(players, false)) continue;
+            String origin = players[random.nextInt(players.length)];
+            String destination = randomPosition(random, dimension);
+            if (!FoxHoundUtils.checkInputPosition(destination, false)) continue;
+
+            String[] expected = players.clone();
+            for (int i = 0; i < expected.length; i++) {
+                if (expected[i].equals(origin)) expected[i] = destination;
+            }
+            String[] checked = players.clone();
+            FoxHoundUtils.updatePositions(checked, origin, destination);
+            String[] unchecked = players.clone();
+            FoxHoundUtils.updatePositionsUnchecked(unchecked, origin, destination);
+
+            assertArrayEquals("updatePositions differs.", expected, checked);
+            assertArrayEquals("updatePositionsUnchecked differs.", expected, unchecked);
+        }
+    }
+}
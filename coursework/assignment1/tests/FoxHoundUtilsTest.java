@@ -0,0 +1,138 @@
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class FoxHoundUtilsTest {
+
+    private String[] defaultPlayers;
+
+    @Before
+    public void setup() {
+        defaultPlayers = new String[]{"B1","D1","F1","H1","E8"};
+    }
+
+    // ------------------------- countFoxMoves -------------------------------
+
+    @Test
+    public void testCountFoxMoves() {
+        int dimension = FoxHoundUtils.DEFAULT_DIM;
+
+        assertEquals("Fox on the last row expected to have two moves.",
+            2, FoxHoundUtils.countFoxMoves(defaultPlayers, dimension));
+
+        String[] players = {"C4","E4","C6","E6","D5"};
+        assertEquals("Surrounded fox expected to have no moves.",
+            0, FoxHoundUtils.countFoxMoves(players, dimension));
+
+        players = new String[]{"B3","E4","C6","E6","D5"};
+        assertEquals("Fox expected to have one move.",
+            1, FoxHoundUtils.countFoxMoves(players, dimension));
+
+        players = new String[]{"B1","D1","F1","H1","A5"};
+        assertEquals("Fox at the left edge expected to have two moves.",
+            2, FoxHoundUtils.countFoxMoves(players, dimension));
+
+        players = new String[]{"B1","D1","F1","B7","A8"};
+        assertEquals("Fox in the corner expected to have no moves.",
+            0, FoxHoundUtils.countFoxMoves(players, dimension));
+    }
+
+    @Test
+    public void testCountFoxMovesPlayersOutsideBoard() {
+        // hound outside an 8x8 board does not block the fox
+        String[] players = {"I1","D1","F1","H1","H8"};
+        assertEquals("Fox expected to have one move.",
+            1, FoxHoundUtils.countFoxMoves(players, FoxHoundUtils.DEFAULT_DIM));
+
+        // fox outside the board cannot move
+        players = new String[]{"B1","D1","F1","H1","I8"};
+        assertEquals("Fox outside the board expected to have no moves.",
+            0, FoxHoundUtils.countFoxMoves(players, FoxHoundUtils.DEFAULT_DIM));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testCountFoxMovesNull() {
+        FoxHoundUtils.countFoxMoves(null, FoxHoundUtils.DEFAULT_DIM);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCountFoxMovesDInvalid() {
+        FoxHoundUtils.countFoxMoves(defaultPlayers, -5);
+    }
+
+    // ------------------------- generateMoves -------------------------------
+
+    /**
+     * Collect the moves found by asking isValidMove for every pair of board coordinates.
+     */
+    private static Set<String> bruteForceMoves(int dimension, String[] players, char figure) {
+        Set<String> moves = new HashSet<>();
+        for (int origin = 0; origin < dimension * dimension; origin++) {
+            String originString = FoxHoundUtils.getPositionString(origin % dimension, origin / dimension);
+            for (int destination = 0; destination < dimension * dimension; destination++) {
+                String destinationString = FoxHoundUtils.getPositionString(destination % dimension, destination / dimension);
+                if (FoxHoundUtils.isValidMove(dimension, players, figure, originString, destinationString))
+                    moves.add(originString + " " + destinationString);
+            }
+        }
+        return moves;
+    }
+
+    private static Set<String> generatedMoves(int dimension, String[] players, char figure) {
+        int[] buffer = new int[FoxHoundBoard.MAX_MOVES];
+        int count = FoxHoundUtils.generateMoves(dimension, players, figure, buffer);
+        Set<String> moves = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            String move = FoxHoundUtils.getMoveOrigin(buffer[i], dimension) + " " + FoxHoundUtils.getMoveDestination(buffer[i], dimension);
+            assertTrue("Move generated twice: " + move, moves.add(move));
+        }
+        return moves;
+    }
+
+    @Test
+    public void testGenerateMovesDefault() {
+        Set<String> expected = new HashSet<>();
+        expected.add("E8 D7");
+        expected.add("E8 F7");
+        assertEquals("Fox moves not as expected.", expected,
+            generatedMoves(FoxHoundUtils.DEFAULT_DIM, defaultPlayers, FoxHoundUtils.FOX_FIELD));
+
+        assertEquals("Number of hound moves not as expected.", 7,
+            generatedMoves(FoxHoundUtils.DEFAULT_DIM, defaultPlayers, FoxHoundUtils.HOUND_FIELD).size());
+    }
+
+    @Test
+    public void testGenerateMovesMatchesIsValidMove() {
+        Random random = new Random(11);
+        String[] unusual = {"B03", "A0", "I1"};
+        for (int dimension = FoxHoundUtils.MIN_DIM; dimension <= 12; dimension++) {
+            for (int n = 0; n < 10; n++) {
+                String[] players = new String[dimension / 2 + 1];
+                for (int i = 0; i < players.length; i++) {
+                    if (random.nextInt(10) == 0) players[i] = unusual[random.nextInt(unusual.length)];
+                    else players[i] = FoxHoundUtils.getPositionString(random.nextInt(dimension), random.nextInt(dimension));
+                }
+                if (!FoxHoundUtils.checkInputDimWithPositionList(players, dimension, false)) continue;
+                for (char figure : new char[]{FoxHoundUtils.FOX_FIELD, FoxHoundUtils.HOUND_FIELD}) {
+                    assertEquals("Generated moves differ from isValidMove.",
+                        bruteForceMoves(dimension, players, figure), generatedMoves(dimension, players, figure));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGenerateMovesBufferTooShort() {
+        FoxHoundUtils.generateMoves(FoxHoundUtils.DEFAULT_DIM, defaultPlayers, FoxHoundUtils.HOUND_FIELD, new int[4]);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testGenerateMovesNull() {
+        FoxHoundUtils.generateMoves(FoxHoundUtils.DEFAULT_DIM, null, FoxHoundUtils.FOX_FIELD, new int[FoxHoundBoard.MAX_MOVES]);
+    }
+}